@@ -0,0 +1,19 @@
+package neyan.tech.ni3ma_backend.basket.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Projection of an available basket with the fields geo searches rank and filter on,
+ * so only the entities of a single page need to be loaded.
+ */
+public record AvailableBasketRef(
+        UUID basketId,
+        UUID shopId,
+        Instant pickupStart,
+        Instant pickupEnd,
+        BigDecimal priceOriginal,
+        BigDecimal priceDiscount,
+        String currency
+) {}
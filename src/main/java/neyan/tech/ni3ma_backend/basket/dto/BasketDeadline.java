@@ -0,0 +1,12 @@
+package neyan.tech.ni3ma_backend.basket.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Pickup end of a published basket, the instant it has to be expired.
+ */
+public record BasketDeadline(
+        UUID id,
+        Instant pickupEnd
+) {}
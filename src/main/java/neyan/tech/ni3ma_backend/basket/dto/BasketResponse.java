@@ -32,6 +32,7 @@ public class BasketResponse {
     private Instant pickupStart;
     private Instant pickupEnd;
     private BasketStatus status;
+    private boolean flashSale;
     private Instant createdAt;
     private Instant updatedAt;
 
@@ -0,0 +1,21 @@
+package neyan.tech.ni3ma_backend.basket.dto;
+
+import neyan.tech.ni3ma_backend.basket.entity.BasketStatus;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Stock of a basket as stored, read back after a guarded quantity update
+ * (the managed entity, if any, still holds the values it was loaded with).
+ */
+public record BasketStock(
+        UUID id,
+        UUID shopId,
+        String title,
+        String description,
+        BasketStatus status,
+        Integer quantityLeft,
+        Instant pickupStart,
+        Instant pickupEnd
+) {}
@@ -0,0 +1,15 @@
+package neyan.tech.ni3ma_backend.basket.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Searchable text of a published basket, used to (re)build the in-memory search index.
+ */
+public record BasketText(
+        UUID id,
+        UUID shopId,
+        String title,
+        String description,
+        Instant pickupEnd
+) {}
@@ -53,5 +53,8 @@ public class CreateBasketRequest {
     @NotNull(message = "Pickup end time is required")
     @Future(message = "Pickup end time must be in the future")
     private Instant pickupEnd;
+
+    /** Reservations are admitted in memory and written in batches, for high-demand drops. */
+    private Boolean flashSale;
 }
 
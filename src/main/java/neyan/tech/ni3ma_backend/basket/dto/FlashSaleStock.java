@@ -0,0 +1,16 @@
+package neyan.tech.ni3ma_backend.basket.dto;
+
+import neyan.tech.ni3ma_backend.basket.entity.BasketStatus;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Stored stock of a flash-sale basket, what the in-memory inventory counters are rebuilt from.
+ */
+public record FlashSaleStock(
+        UUID id,
+        BasketStatus status,
+        Integer quantityLeft,
+        Instant pickupEnd
+) {}
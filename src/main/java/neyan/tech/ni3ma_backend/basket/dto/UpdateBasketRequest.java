@@ -37,6 +37,8 @@ public class UpdateBasketRequest {
 
     private Instant pickupEnd;
 
+    private Boolean flashSale;
+
     private BasketStatus status;
 }
 
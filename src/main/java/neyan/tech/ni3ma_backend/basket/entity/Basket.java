@@ -106,6 +106,10 @@ public class Basket {
     @Builder.Default
     private BasketStatus status = BasketStatus.DRAFT;
 
+    @Column(name = "flash_sale", nullable = false)
+    @Builder.Default
+    private boolean flashSale = false;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt;
@@ -0,0 +1,85 @@
+package neyan.tech.ni3ma_backend.basket.event;
+
+import neyan.tech.ni3ma_backend.basket.dto.BasketStock;
+import neyan.tech.ni3ma_backend.basket.entity.Basket;
+import neyan.tech.ni3ma_backend.basket.entity.BasketStatus;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Published by BasketService when a basket's status or remaining quantity changes.
+ * Carries a detached snapshot so listeners never touch the persistence context.
+ */
+public record BasketChangedEvent(
+        UUID basketId,
+        UUID shopId,
+        String title,
+        String description,
+        BasketStatus previousStatus,
+        BasketStatus status,
+        int quantityLeft,
+        Instant pickupStart,
+        Instant pickupEnd
+) {
+
+    public static BasketChangedEvent of(Basket basket, BasketStatus previousStatus) {
+        return new BasketChangedEvent(
+                basket.getId(),
+                basket.getShop().getId(),
+                basket.getTitle(),
+                basket.getDescription(),
+                previousStatus,
+                basket.getStatus(),
+                basket.getQuantityLeft(),
+                basket.getPickupStart(),
+                basket.getPickupEnd()
+        );
+    }
+
+    public static BasketChangedEvent of(BasketStock stock, BasketStatus previousStatus) {
+        return new BasketChangedEvent(
+                stock.id(),
+                stock.shopId(),
+                stock.title(),
+                stock.description(),
+                previousStatus,
+                stock.status(),
+                stock.quantityLeft(),
+                stock.pickupStart(),
+                stock.pickupEnd()
+        );
+    }
+
+    /**
+     * Snapshot of a published basket expired by a bulk update (the entity itself is left untouched).
+     */
+    public static BasketChangedEvent expired(Basket basket) {
+        return new BasketChangedEvent(
+                basket.getId(),
+                basket.getShop().getId(),
+                basket.getTitle(),
+                basket.getDescription(),
+                BasketStatus.PUBLISHED,
+                BasketStatus.EXPIRED,
+                basket.getQuantityLeft(),
+                basket.getPickupStart(),
+                basket.getPickupEnd()
+        );
+    }
+
+    public boolean wasPublished() {
+        return previousStatus == BasketStatus.PUBLISHED;
+    }
+
+    public boolean isPublished() {
+        return status == BasketStatus.PUBLISHED;
+    }
+
+    /**
+     * True if the basket entered or left the PUBLISHED (orderable) state.
+     */
+    public boolean availabilityChanged() {
+        return wasPublished() != isPublished();
+    }
+}
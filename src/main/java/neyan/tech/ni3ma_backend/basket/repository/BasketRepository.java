@@ -1,10 +1,17 @@
 package neyan.tech.ni3ma_backend.basket.repository;
 
+import jakarta.persistence.LockModeType;
+import neyan.tech.ni3ma_backend.basket.dto.AvailableBasketRef;
+import neyan.tech.ni3ma_backend.basket.dto.BasketDeadline;
+import neyan.tech.ni3ma_backend.basket.dto.BasketStock;
+import neyan.tech.ni3ma_backend.basket.dto.BasketText;
+import neyan.tech.ni3ma_backend.basket.dto.FlashSaleStock;
 import neyan.tech.ni3ma_backend.basket.entity.Basket;
 import neyan.tech.ni3ma_backend.basket.entity.BasketStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -12,7 +19,9 @@ import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
@@ -57,6 +66,48 @@ public interface BasketRepository extends JpaRepository<Basket, UUID> {
             @Param("now") Instant now
     );
 
+    /**
+     * Lightweight rows (no entity) of the available baskets of the given shops.
+     */
+    @Query("""
+            SELECT new neyan.tech.ni3ma_backend.basket.dto.AvailableBasketRef(
+                b.id, b.shop.id, b.pickupStart, b.pickupEnd, b.priceOriginal, b.priceDiscount, b.currency)
+            FROM Basket b
+            WHERE b.shop.id IN :shopIds
+            AND b.status = 'PUBLISHED'
+            AND b.quantityLeft > 0
+            AND b.pickupEnd > :now
+            """)
+    List<AvailableBasketRef> findAvailableBasketRefsForShops(@Param("shopIds") Collection<UUID> shopIds,
+                                                             @Param("now") Instant now);
+
+    /**
+     * Lightweight rows of every available basket (feeds the in-memory availability index).
+     */
+    @Query("""
+            SELECT new neyan.tech.ni3ma_backend.basket.dto.AvailableBasketRef(
+                b.id, b.shop.id, b.pickupStart, b.pickupEnd, b.priceOriginal, b.priceDiscount, b.currency)
+            FROM Basket b
+            WHERE b.status = 'PUBLISHED'
+            AND b.quantityLeft > 0
+            AND b.pickupEnd > :now
+            """)
+    List<AvailableBasketRef> findAllAvailableBasketRefs(@Param("now") Instant now);
+
+    /**
+     * Text of every published, unexpired basket (feeds the in-memory search index).
+     */
+    @Query("""
+            SELECT new neyan.tech.ni3ma_backend.basket.dto.BasketText(b.id, b.shop.id, b.title, b.description, b.pickupEnd)
+            FROM Basket b
+            WHERE b.status = 'PUBLISHED'
+            AND b.pickupEnd > :now
+            """)
+    List<BasketText> findPublishedBasketTexts(@Param("now") Instant now);
+
+    @Query("SELECT DISTINCT b FROM Basket b JOIN FETCH b.shop LEFT JOIN FETCH b.images WHERE b.id IN :ids")
+    List<Basket> findAllWithShopAndImagesByIdIn(@Param("ids") Collection<UUID> ids);
+
     /**
      * Find available baskets with pickup time filter.
      */
@@ -76,13 +127,101 @@ public interface BasketRepository extends JpaRepository<Basket, UUID> {
             Pageable pageable
     );
 
+    /**
+     * Locks the basket, so its status can't change until the caller commits.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Basket b WHERE b.id = :id")
+    Optional<Basket> findByIdForUpdate(@Param("id") UUID id);
+
+    /**
+     * The given baskets that are published and whose pickup window has ended, locked until
+     * the caller expires them.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+            SELECT b FROM Basket b
+            WHERE b.id IN :ids AND b.status = 'PUBLISHED' AND b.pickupEnd <= :now
+            ORDER BY b.id
+            """)
+    List<Basket> findExpirableBasketsForUpdate(@Param("ids") Collection<UUID> ids, @Param("now") Instant now);
+
+    /**
+     * Pickup ends of every published basket (feeds the in-memory expiry schedule).
+     */
+    @Query("""
+            SELECT new neyan.tech.ni3ma_backend.basket.dto.BasketDeadline(b.id, b.pickupEnd)
+            FROM Basket b
+            WHERE b.status = 'PUBLISHED'
+            """)
+    List<BasketDeadline> findPublishedDeadlines();
+
+    @Modifying
+    @Query("UPDATE Basket b SET b.status = 'EXPIRED' WHERE b.id IN :ids AND b.status = 'PUBLISHED'")
+    int expireBaskets(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Takes quantity from an orderable basket in a single guarded statement, selling it out
+     * with its last unit. Concurrent reservations queue on the row lock and re-check the guard,
+     * so a basket can never be oversold. Returns 0 (nothing changed) if the basket is not
+     * published, its pickup window has ended or fewer units are left.
+     */
     @Modifying
-    @Query("UPDATE Basket b SET b.status = 'EXPIRED' WHERE b.status = 'PUBLISHED' AND b.pickupEnd < :now")
-    int expireBaskets(@Param("now") Instant now);
+    @Query("""
+            UPDATE Basket b
+            SET b.quantityLeft = b.quantityLeft - :quantity,
+                b.status = CASE WHEN b.quantityLeft = :quantity
+                                THEN neyan.tech.ni3ma_backend.basket.entity.BasketStatus.SOLD_OUT
+                                ELSE b.status END,
+                b.updatedAt = :now
+            WHERE b.id = :id
+            AND b.status = 'PUBLISHED'
+            AND b.quantityLeft >= :quantity
+            AND b.pickupEnd > :now
+            """)
+    int reserveQuantity(@Param("id") UUID id, @Param("quantity") int quantity, @Param("now") Instant now);
 
+    /**
+     * Gives quantity back to a sold-out basket and publishes it again, if its pickup window is still open.
+     */
     @Modifying
-    @Query("UPDATE Basket b SET b.status = 'SOLD_OUT' WHERE b.status = 'PUBLISHED' AND b.quantityLeft = 0")
-    int markSoldOutBaskets();
+    @Query("""
+            UPDATE Basket b
+            SET b.quantityLeft = b.quantityLeft + :quantity, b.status = 'PUBLISHED', b.updatedAt = :now
+            WHERE b.id = :id AND b.status = 'SOLD_OUT' AND b.pickupEnd > :now
+            """)
+    int restockSoldOut(@Param("id") UUID id, @Param("quantity") int quantity, @Param("now") Instant now);
+
+    @Modifying
+    @Query("UPDATE Basket b SET b.quantityLeft = b.quantityLeft + :quantity, b.updatedAt = :now WHERE b.id = :id")
+    int addQuantity(@Param("id") UUID id, @Param("quantity") int quantity, @Param("now") Instant now);
+
+    @Query("""
+            SELECT new neyan.tech.ni3ma_backend.basket.dto.BasketStock(
+                b.id, b.shop.id, b.title, b.description, b.status, b.quantityLeft, b.pickupStart, b.pickupEnd)
+            FROM Basket b
+            WHERE b.id = :id
+            """)
+    Optional<BasketStock> findStockById(@Param("id") UUID id);
+
+    /**
+     * Flash-sale baskets that can still take or give back reservations (published or sold out, pickup not ended).
+     */
+    @Query("""
+            SELECT new neyan.tech.ni3ma_backend.basket.dto.FlashSaleStock(b.id, b.status, b.quantityLeft, b.pickupEnd)
+            FROM Basket b
+            WHERE b.flashSale = true
+            AND b.status IN ('PUBLISHED', 'SOLD_OUT')
+            AND b.pickupEnd > :now
+            """)
+    List<FlashSaleStock> findFlashSaleStocks(@Param("now") Instant now);
+
+    @Query("""
+            SELECT new neyan.tech.ni3ma_backend.basket.dto.FlashSaleStock(b.id, b.status, b.quantityLeft, b.pickupEnd)
+            FROM Basket b
+            WHERE b.id = :id AND b.flashSale = true
+            """)
+    Optional<FlashSaleStock> findFlashSaleStockById(@Param("id") UUID id);
 
     /**
      * Count available baskets for a shop.
@@ -0,0 +1,143 @@
+package neyan.tech.ni3ma_backend.basket.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import neyan.tech.ni3ma_backend.basket.dto.AvailableBasketRef;
+import neyan.tech.ni3ma_backend.basket.event.BasketChangedEvent;
+import neyan.tech.ni3ma_backend.basket.repository.BasketRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory set of available (PUBLISHED, quantity left, pickup not ended) baskets per shop,
+ * so "which shops have baskets" never needs a join against the baskets table.
+ * <p>
+ * Loaded at startup, kept in sync with {@link BasketChangedEvent} (after commit) on
+ * publish, unpublish, sell-out, restock and expiry, and fully rebuilt periodically as a
+ * safety net. Pickup ends are kept so baskets stop counting as soon as their window closes,
+ * before the expiry job catches up.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BasketAvailabilityIndex {
+
+    private final BasketRepository basketRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    /** shopId -> (basketId -> pickup end, epoch millis) */
+    private Map<UUID, Map<UUID, Long>> basketsByShop = new HashMap<>();
+    private List<BasketChangedEvent> changesDuringReload;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reload();
+    }
+
+    @Scheduled(fixedDelayString = "${ni3ma.geo.index-refresh-ms:300000}",
+               initialDelayString = "${ni3ma.geo.index-refresh-ms:300000}")
+    public void reload() {
+        lock.writeLock().lock();
+        try {
+            changesDuringReload = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Map<UUID, Map<UUID, Long>> fresh = new HashMap<>();
+        List<AvailableBasketRef> available;
+        try {
+            available = basketRepository.findAllAvailableBasketRefs(Instant.now());
+        } catch (RuntimeException ex) {
+            lock.writeLock().lock();
+            try {
+                changesDuringReload = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw ex;
+        }
+        for (AvailableBasketRef ref : available) {
+            fresh.computeIfAbsent(ref.shopId(), k -> new HashMap<>())
+                    .put(ref.basketId(), ref.pickupEnd().toEpochMilli());
+        }
+
+        lock.writeLock().lock();
+        try {
+            // Changes committed while we were reading may be missing from the snapshot
+            changesDuringReload.forEach(change -> apply(fresh, change));
+            changesDuringReload = null;
+            basketsByShop = fresh;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Basket availability index loaded with {} available baskets in {} shops",
+                available.size(), fresh.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBasketChanged(BasketChangedEvent event) {
+        if (!event.availabilityChanged()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (changesDuringReload != null) {
+                changesDuringReload.add(event);
+            }
+            apply(basketsByShop, event);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Number of baskets of the shop that can be ordered at the given instant.
+     */
+    public int availableCount(UUID shopId, Instant now) {
+        long nowMillis = now.toEpochMilli();
+        lock.readLock().lock();
+        try {
+            Map<UUID, Long> baskets = basketsByShop.get(shopId);
+            if (baskets == null) {
+                return 0;
+            }
+            int count = 0;
+            for (long pickupEnd : baskets.values()) {
+                if (pickupEnd > nowMillis) {
+                    count++;
+                }
+            }
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void apply(Map<UUID, Map<UUID, Long>> target, BasketChangedEvent event) {
+        if (event.isPublished() && event.quantityLeft() > 0) {
+            target.computeIfAbsent(event.shopId(), k -> new HashMap<>())
+                    .put(event.basketId(), event.pickupEnd().toEpochMilli());
+        } else {
+            Map<UUID, Long> baskets = target.get(event.shopId());
+            if (baskets != null) {
+                baskets.remove(event.basketId());
+                if (baskets.isEmpty()) {
+                    target.remove(event.shopId());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package neyan.tech.ni3ma_backend.basket.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import neyan.tech.ni3ma_backend.basket.dto.BasketDeadline;
+import neyan.tech.ni3ma_backend.basket.event.BasketChangedEvent;
+import neyan.tech.ni3ma_backend.basket.repository.BasketRepository;
+import neyan.tech.ni3ma_backend.common.config.Ni3maProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Expires published baskets at their pickup end, instead of sweeping the baskets table every minute.
+ * <p>
+ * The pickup ends of published baskets are kept in a {@link DelayQueue}: loaded at startup,
+ * added on publish (or restock) and dropped on unpublish, sell-out or expiry through
+ * {@link BasketChangedEvent}. A single daemon thread waits for the next deadline, takes along
+ * every other basket already due (up to the batch size) and expires exactly those ids, see
+ * {@link BasketService#expireBaskets}.
+ * <p>
+ * The schedule is rebuilt periodically like the other in-memory indexes, which also picks up
+ * baskets published on another instance. Expiring is guarded on the basket's status, so a
+ * stale deadline is harmless.
+ */
+@Slf4j
+@Component
+public class BasketExpiryScheduler {
+
+    private final BasketService basketService;
+    private final BasketRepository basketRepository;
+    private final Ni3maProperties.BasketProperties properties;
+    /** basketId -> scheduled deadline; queue entries that don't match it are stale */
+    private final ConcurrentMap<UUID, Long> deadlines = new ConcurrentHashMap<>();
+    private final DelayQueue<Due> queue = new DelayQueue<>();
+    private Thread worker;
+
+    public BasketExpiryScheduler(BasketService basketService, BasketRepository basketRepository,
+                                 Ni3maProperties ni3maProperties) {
+        this.basketService = basketService;
+        this.basketRepository = basketRepository;
+        this.properties = ni3maProperties.getBasket();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void onApplicationReady() {
+        if (worker != null) {
+            return;
+        }
+        reload();
+
+        worker = new Thread(this::run, "basket-expiry");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (worker != null) {
+            worker.interrupt();
+            worker = null;
+        }
+    }
+
+    /**
+     * Schedules every published basket; those already past their pickup end are expired right away.
+     */
+    @Scheduled(fixedDelayString = "${ni3ma.geo.index-refresh-ms:300000}",
+               initialDelayString = "${ni3ma.geo.index-refresh-ms:300000}")
+    public void reload() {
+        List<BasketDeadline> published = basketRepository.findPublishedDeadlines();
+        published.forEach(basket -> schedule(basket.id(), basket.pickupEnd()));
+        log.info("Basket expiry schedule loaded with {} published baskets", published.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBasketChanged(BasketChangedEvent event) {
+        if (event.isPublished()) {
+            schedule(event.basketId(), event.pickupEnd());
+        } else {
+            deadlines.remove(event.basketId());
+        }
+    }
+
+    /**
+     * Baskets waiting for their pickup end.
+     */
+    int scheduled() {
+        return deadlines.size();
+    }
+
+    // ==================== Internal Methods ====================
+
+    private void schedule(UUID basketId, Instant pickupEnd) {
+        // Rounded up so the basket is past its pickup end when the deadline fires
+        long due = pickupEnd.toEpochMilli() + 1;
+        Long previous = deadlines.put(basketId, due);
+        if (previous == null || previous != due) {
+            queue.add(new Due(basketId, due));
+        }
+    }
+
+    private void run() {
+        int batchSize = Math.max(1, properties.getExpiryBatchSize());
+        List<Due> drained = new ArrayList<>(batchSize);
+        List<Due> batch = new ArrayList<>(batchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                drained.add(queue.take());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            // Only baskets already due are drained
+            queue.drainTo(drained, batchSize - 1);
+            for (Due due : drained) {
+                if (deadlines.remove(due.basketId(), due.dueMillis())) {
+                    batch.add(due);
+                }
+            }
+            if (!batch.isEmpty()) {
+                expire(batch);
+            }
+            drained.clear();
+            batch.clear();
+        }
+    }
+
+    private void expire(List<Due> batch) {
+        try {
+            basketService.expireBaskets(batch.stream().map(Due::basketId).toList());
+        } catch (Throwable ex) {
+            // Errors included: anything escaping here would end the only thread draining the queue
+            log.error("Failed to expire {} baskets, retrying in {}s",
+                    batch.size(), properties.getExpiryRetrySeconds(), ex);
+            long retryAt = System.currentTimeMillis() + properties.getExpiryRetrySeconds() * 1000;
+            for (Due due : batch) {
+                // Unless the basket was rescheduled or dropped meanwhile
+                if (deadlines.putIfAbsent(due.basketId(), retryAt) == null) {
+                    queue.add(new Due(due.basketId(), retryAt));
+                }
+            }
+        }
+    }
+
+    private record Due(UUID basketId, long dueMillis) implements Delayed {
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(dueMillis, ((Due) other).dueMillis);
+        }
+    }
+}
@@ -3,11 +3,13 @@ package neyan.tech.ni3ma_backend.basket.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import neyan.tech.ni3ma_backend.basket.dto.BasketResponse;
+import neyan.tech.ni3ma_backend.basket.dto.BasketStock;
 import neyan.tech.ni3ma_backend.basket.dto.CreateBasketRequest;
 import neyan.tech.ni3ma_backend.basket.dto.UpdateBasketRequest;
 import neyan.tech.ni3ma_backend.basket.entity.Basket;
 import neyan.tech.ni3ma_backend.basket.entity.BasketImage;
 import neyan.tech.ni3ma_backend.basket.entity.BasketStatus;
+import neyan.tech.ni3ma_backend.basket.event.BasketChangedEvent;
 import neyan.tech.ni3ma_backend.basket.mapper.BasketMapper;
 import neyan.tech.ni3ma_backend.basket.repository.BasketImageRepository;
 import neyan.tech.ni3ma_backend.basket.repository.BasketRepository;
@@ -16,17 +18,19 @@ import neyan.tech.ni3ma_backend.common.service.ImageStorageService;
 import neyan.tech.ni3ma_backend.common.exception.BadRequestException;
 import neyan.tech.ni3ma_backend.common.exception.ForbiddenException;
 import neyan.tech.ni3ma_backend.common.exception.NotFoundException;
+import neyan.tech.ni3ma_backend.shop.dto.ShopSnapshot;
 import neyan.tech.ni3ma_backend.shop.entity.Shop;
 import neyan.tech.ni3ma_backend.shop.entity.ShopStatus;
 import neyan.tech.ni3ma_backend.shop.service.ShopService;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -40,18 +44,18 @@ public class BasketService {
     private final BasketMapper basketMapper;
     private final ShopService shopService;
     private final ImageStorageService imageStorageService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public BasketResponse createBasket(CreateBasketRequest request, UUID merchantId) {
         log.info("Creating basket for shop: {} by merchant: {}", request.getShopId(), merchantId);
 
-        Shop shop = shopService.findShopOrThrow(request.getShopId());
-        log.debug("Shop found: {} with status: {}", shop.getId(), shop.getStatus());
-        
-        shopService.checkShopOwnership(shop, merchantId);
+        // Checked on the cached snapshot: rejected requests never read the shops table
+        ShopSnapshot shop = shopService.findOwnedShopSnapshot(request.getShopId(), merchantId);
+        log.debug("Shop found: {} with status: {}", shop.id(), shop.status());
 
-        if (shop.getStatus() != ShopStatus.ACTIVE) {
-            log.warn("Attempted to create basket for non-active shop: {} with status: {}", shop.getId(), shop.getStatus());
+        if (shop.status() != ShopStatus.ACTIVE) {
+            log.warn("Attempted to create basket for non-active shop: {} with status: {}", shop.id(), shop.status());
             throw new BadRequestException("Cannot create basket for non-active shop");
         }
 
@@ -60,7 +64,8 @@ public class BasketService {
         log.debug("Basket validation passed for shop: {}", request.getShopId());
 
         Basket basket = basketMapper.toEntity(request);
-        basket.setShop(shop);
+        // Not loaded here; the shop entity is only read when the response embeds its summary
+        basket.setShop(shopService.getShopReference(shop.id()));
         basket.setQuantityLeft(request.getQuantityTotal());
         basket.setStatus(BasketStatus.DRAFT);
 
@@ -71,15 +76,11 @@ public class BasketService {
         } else {
             basket.setCurrency(request.getCurrency());
         }
-        
-        // Ensure shop entity is properly initialized for mapping
-        // The shop should already be loaded, but verify basic fields are accessible
-        log.debug("Shop entity loaded - id: {}, name: {}, city: {}, status: {}", 
-                shop.getId(), shop.getName(), shop.getCity(), shop.getStatus());
+
 
         // Verify basket entity is properly initialized before saving
         if (basket.getShop() == null) {
-            log.error("Shop is null in basket before save for shop: {}", shop.getId());
+            log.error("Shop is null in basket before save for shop: {}", shop.id());
             throw new BadRequestException("Shop must be set on basket");
         }
         
@@ -88,13 +89,13 @@ public class BasketService {
                     basket.getTitle(), basket.getPriceOriginal(), basket.getPriceDiscount(), 
                     basket.getPickupStart(), basket.getPickupEnd(), basket.getShop().getId());
             basket = basketRepository.save(basket);
-            log.info("Basket created successfully with id: {} for shop: {}", basket.getId(), shop.getId());
+            log.info("Basket created successfully with id: {} for shop: {}", basket.getId(), shop.id());
         } catch (org.springframework.dao.DataIntegrityViolationException ex) {
-            log.error("Data integrity violation when saving basket for shop: {}. Error: {}", shop.getId(), ex.getMessage(), ex);
+            log.error("Data integrity violation when saving basket for shop: {}. Error: {}", shop.id(), ex.getMessage(), ex);
             throw ex;
         } catch (Exception ex) {
             log.error("Failed to save basket for shop: {}. Exception type: {}, Error: {}", 
-                    shop.getId(), ex.getClass().getName(), ex.getMessage(), ex);
+                    shop.id(), ex.getClass().getName(), ex.getMessage(), ex);
             throw ex;
         }
 
@@ -164,8 +165,7 @@ public class BasketService {
 
     @Transactional(readOnly = true)
     public List<BasketResponse> getMyBaskets(UUID shopId, UUID merchantId) {
-        Shop shop = shopService.findShopOrThrow(shopId);
-        shopService.checkShopOwnership(shop, merchantId);
+        shopService.checkShopOwnershipById(shopId, merchantId);
 
         return basketMapper.toResponseList(basketRepository.findByShopId(shopId));
     }
@@ -207,6 +207,8 @@ public class BasketService {
     @Transactional
     public BasketResponse publishBasket(UUID basketId, UUID merchantId) {
         Basket basket = findBasketOrThrow(basketId);
+        // basket.getShop() is a lazy reference: the check reads the cached snapshot, and the entity
+        // is only loaded when the response embeds the shop summary
         shopService.checkShopOwnership(basket.getShop(), merchantId);
 
         if (basket.getStatus() != BasketStatus.DRAFT) {
@@ -219,6 +221,7 @@ public class BasketService {
 
         basket.setStatus(BasketStatus.PUBLISHED);
         basket = basketRepository.save(basket);
+        eventPublisher.publishEvent(BasketChangedEvent.of(basket, BasketStatus.DRAFT));
 
         log.info("Basket published: {}", basketId);
         return basketMapper.toResponse(basket);
@@ -235,6 +238,7 @@ public class BasketService {
 
         basket.setStatus(BasketStatus.DRAFT);
         basket = basketRepository.save(basket);
+        eventPublisher.publishEvent(BasketChangedEvent.of(basket, BasketStatus.PUBLISHED));
 
         log.info("Basket unpublished: {}", basketId);
         return basketMapper.toResponse(basket);
@@ -369,56 +373,72 @@ public class BasketService {
                 .orElseThrow(() -> new NotFoundException("Basket", basketId));
     }
 
+    public Basket findBasketForUpdateOrThrow(UUID basketId) {
+        return basketRepository.findByIdForUpdate(basketId)
+                .orElseThrow(() -> new NotFoundException("Basket", basketId));
+    }
+
+    /**
+     * Takes quantity from the basket with a single guarded UPDATE (see
+     * {@link BasketRepository#reserveQuantity}), so callers need no lock or serializable isolation.
+     * The given entity is not modified.
+     */
     @Transactional
     public void decrementQuantity(Basket basket, int quantity) {
-        int newQuantityLeft = basket.getQuantityLeft() - quantity;
-        if (newQuantityLeft < 0) {
+        if (basketRepository.reserveQuantity(basket.getId(), quantity, Instant.now()) == 0) {
             throw new BadRequestException("Not enough quantity available");
         }
 
-        basket.setQuantityLeft(newQuantityLeft);
-
-        if (newQuantityLeft == 0) {
-            basket.setStatus(BasketStatus.SOLD_OUT);
+        BasketStock stock = findStockOrThrow(basket.getId());
+        if (stock.status() == BasketStatus.SOLD_OUT) {
             log.info("Basket {} is now sold out", basket.getId());
         }
-
-        basketRepository.save(basket);
+        eventPublisher.publishEvent(BasketChangedEvent.of(stock, BasketStatus.PUBLISHED));
     }
 
+    /**
+     * Gives quantity back to the basket with a guarded UPDATE, republishing it if it was sold out
+     * and its pickup window is still open. The given entity is not modified.
+     */
     @Transactional
     public void incrementQuantity(Basket basket, int quantity) {
-        basket.setQuantityLeft(basket.getQuantityLeft() + quantity);
-
-        // If basket was sold_out and now has quantity, republish if not expired
-        if (basket.getStatus() == BasketStatus.SOLD_OUT && basket.getQuantityLeft() > 0) {
-            if (basket.getPickupEnd().isAfter(Instant.now())) {
-                basket.setStatus(BasketStatus.PUBLISHED);
-                log.info("Basket {} is republished after cancellation", basket.getId());
-            }
+        Instant now = Instant.now();
+        boolean republished = basketRepository.restockSoldOut(basket.getId(), quantity, now) > 0;
+        if (!republished && basketRepository.addQuantity(basket.getId(), quantity, now) == 0) {
+            throw new NotFoundException("Basket", basket.getId());
+        }
+        if (republished) {
+            log.info("Basket {} is republished after cancellation", basket.getId());
         }
 
-        basketRepository.save(basket);
+        BasketStock stock = findStockOrThrow(basket.getId());
+        eventPublisher.publishEvent(BasketChangedEvent.of(stock, republished ? BasketStatus.SOLD_OUT : stock.status()));
     }
 
-    // ==================== Scheduled Tasks ====================
-
-    @Scheduled(fixedRate = 60000) // Every minute
-    @Transactional
-    public void expireBaskets() {
-        int expired = basketRepository.expireBaskets(Instant.now());
-        if (expired > 0) {
-            log.info("Expired {} baskets", expired);
-        }
+    private BasketStock findStockOrThrow(UUID basketId) {
+        return basketRepository.findStockById(basketId)
+                .orElseThrow(() -> new NotFoundException("Basket", basketId));
     }
 
-    @Scheduled(fixedRate = 60000) // Every minute
+    /**
+     * Expires the given baskets that are still published and past their pickup end; the others
+     * (unpublished, sold out, or already expired) are left alone. Called by
+     * {@link BasketExpiryScheduler} when their deadlines are due. Selling out needs no job:
+     * the guarded UPDATE taking the last unit does it.
+     *
+     * @return Number of baskets expired
+     */
     @Transactional
-    public void markSoldOutBaskets() {
-        int soldOut = basketRepository.markSoldOutBaskets();
-        if (soldOut > 0) {
-            log.info("Marked {} baskets as sold out", soldOut);
+    public int expireBaskets(Collection<UUID> basketIds) {
+        List<Basket> expirable = basketRepository.findExpirableBasketsForUpdate(basketIds, Instant.now());
+        if (expirable.isEmpty()) {
+            return 0;
         }
+
+        int expired = basketRepository.expireBaskets(expirable.stream().map(Basket::getId).toList());
+        expirable.forEach(basket -> eventPublisher.publishEvent(BasketChangedEvent.expired(basket)));
+        log.info("Expired {} baskets", expired);
+        return expired;
     }
 
     // ==================== Validation ====================
@@ -4,6 +4,8 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.List;
+
 @Data
 @Configuration
 @ConfigurationProperties(prefix = "ni3ma")
@@ -11,16 +13,115 @@ public class Ni3maProperties {
 
     private OrderProperties order = new OrderProperties();
     private BasketProperties basket = new BasketProperties();
+    private ShopProperties shop = new ShopProperties();
+    private GeoProperties geo = new GeoProperties();
 
     @Data
     public static class OrderProperties {
         private int cancelCutoffMinutes = 30;
         private int pickupCodeLength = 6;
+        private FlashSaleProperties flashSale = new FlashSaleProperties();
+        private WaitingRoomProperties waitingRoom = new WaitingRoomProperties();
+        private HoldProperties hold = new HoldProperties();
+    }
+
+    @Data
+    public static class FlashSaleProperties {
+        /** Single-writer shards the flash-sale baskets are spread over; each holds one connection while flushing. */
+        private int shards = 4;
+        /** Most reservations written in one transaction. */
+        private int batchSize = 100;
+        /** Longest a request waits for its reservation to be written before answering 503. */
+        private long awaitTimeoutSeconds = 15;
+    }
+
+    @Data
+    public static class WaitingRoomProperties {
+        private boolean enabled = true;
+        /** Units admitted beyond the quantity left, covering orders that fail or get cancelled. */
+        private int slack = 2;
+        /** Customers parked per basket; later ones are turned away. */
+        private int maxWaitingPerBasket = 500;
+        /** A parked customer who doesn't retry within this time loses their place. */
+        private long ticketTtlSeconds = 30;
+        /** Baskets without activity for this long are forgotten (their quantity is read again on the next order). */
+        private long idleSeconds = 600;
+    }
+
+    @Data
+    public static class HoldProperties {
+        /** How long a hold keeps its units before they go back to the basket (capped at the pickup end). */
+        private long ttlSeconds = 300;
+        /** Most expired holds released in one transaction. */
+        private int releaseBatchSize = 100;
+        /** Delay before retrying holds whose release failed. */
+        private long releaseRetrySeconds = 10;
     }
 
     @Data
     public static class BasketProperties {
         private int maxQuantityPerOrder = 5;
+        /** Most due baskets expired in one transaction. */
+        private int expiryBatchSize = 50;
+        /** Delay before retrying baskets whose expiry failed. */
+        private long expiryRetrySeconds = 10;
+    }
+
+    @Data
+    public static class ShopProperties {
+        /** Cron of the repair of denormalized review/favorite aggregates. */
+        private String aggregatesReconcileCron = "0 30 3 * * *";
+        /** Time zone in which "today" of the city statistics starts. */
+        private String cityStatsTimeZone = "Africa/Nouakchott";
+        private ShopCacheProperties cache = new ShopCacheProperties();
+    }
+
+    @Data
+    public static class ShopCacheProperties {
+        private boolean enabled = true;
+        private int maxEntries = 10000;
+        /** Upper bound on staleness if an invalidation is ever missed. */
+        private long ttlSeconds = 300;
+    }
+
+    @Data
+    public static class GeoProperties {
+        /** Grid cell size of the in-memory shop index, in degrees (0.05 ≈ 5.5 km). */
+        private double indexCellDegrees = 0.05;
+        /** Period of the full index rebuild that repairs any missed change event. */
+        private long indexRefreshMs = 300000;
+        /** Lower bounds of the price bands of basket search facets. */
+        private List<Double> facetPriceBands = List.of(100.0, 200.0, 500.0, 1000.0);
+        /** Time zone of the pickup hour facet. */
+        private String facetTimeZone = "Africa/Nouakchott";
+        private GeoCacheProperties cache = new GeoCacheProperties();
+        private RankingProperties ranking = new RankingProperties();
+    }
+
+    @Data
+    public static class RankingProperties {
+        /** Weights of the normalized (0-1) score terms; only their ratios matter. */
+        private double distanceWeight = 0.4;
+        private double ratingWeight = 0.2;
+        private double discountWeight = 0.25;
+        private double urgencyWeight = 0.15;
+        /** Pickups ending further away than this get no urgency boost. */
+        private long urgencyHorizonMinutes = 240;
+        /** Rating assumed for shops without reviews (1-5). */
+        private double defaultRating = 3.0;
+    }
+
+    @Data
+    public static class GeoCacheProperties {
+        private boolean enabled = true;
+        /** Geohash length of the cells query centers are bucketed into (6 ≈ 1.2 x 0.6 km). */
+        private int geohashPrecision = 6;
+        /** Radii are rounded up to the next bucket; larger radii bypass the cache. */
+        private List<Double> radiusBucketsKm = List.of(1.0, 2.0, 5.0, 10.0, 20.0, 50.0);
+        private int maxEntries = 5000;
+        private long ttlSeconds = 60;
+        /** How long a query waits for an identical in-flight load before loading on its own. */
+        private long loadWaitMs = 2000;
     }
 }
 
@@ -26,6 +26,8 @@ public class ApiError {
 
     private Map<String, String> validationErrors;
 
+    private QueuePosition queue;
+
     public static ApiError of(int status, String error, String message, String path) {
         return ApiError.builder()
                 .timestamp(Instant.now())
@@ -46,5 +48,20 @@ public class ApiError {
                 .validationErrors(validationErrors)
                 .build();
     }
-}
 
+    public static ApiError withQueue(int status, String error, String message, String path, QueuePosition queue) {
+        return ApiError.builder()
+                .timestamp(Instant.now())
+                .status(status)
+                .error(error)
+                .message(message)
+                .path(path)
+                .queue(queue)
+                .build();
+    }
+
+    /**
+     * Place of a client parked in a waiting room; the ticket is sent back to keep it.
+     */
+    public record QueuePosition(long ticket, int position, long etaSeconds) {}
+}
@@ -0,0 +1,11 @@
+package neyan.tech.ni3ma_backend.common.exception;
+
+/**
+ * The request conflicts with the current state of the resource.
+ */
+public class ConflictException extends RuntimeException {
+
+    public ConflictException(String message) {
+        super(message);
+    }
+}
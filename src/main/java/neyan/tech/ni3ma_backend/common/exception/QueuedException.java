@@ -0,0 +1,23 @@
+package neyan.tech.ni3ma_backend.common.exception;
+
+import lombok.Getter;
+
+/**
+ * The request can't be served yet; the client keeps its place by retrying with the ticket.
+ */
+@Getter
+public class QueuedException extends RuntimeException {
+
+    private final long ticket;
+    private final int position;
+    private final long etaSeconds;
+    private final long retryAfterSeconds;
+
+    public QueuedException(String message, long ticket, int position, long etaSeconds, long retryAfterSeconds) {
+        super(message);
+        this.ticket = ticket;
+        this.position = position;
+        this.etaSeconds = etaSeconds;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,17 @@
+package neyan.tech.ni3ma_backend.common.exception;
+
+import lombok.Getter;
+
+/**
+ * The request couldn't be served in time; the client may retry after the given delay.
+ */
+@Getter
+public class ServiceUnavailableException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceUnavailableException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
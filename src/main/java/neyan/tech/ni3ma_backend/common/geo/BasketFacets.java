@@ -0,0 +1,94 @@
+package neyan.tech.ni3ma_backend.common.geo;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Facet counts of a basket search, over every match (not just the returned page).
+ *
+ * @param byPickupHour Matches per local hour (0-23) of pickup start; empty hours are omitted
+ * @param byPriceBand  Matches per discounted price band, in ascending band order
+ */
+public record BasketFacets(
+        Map<Integer, Long> byPickupHour,
+        Map<String, Long> byPriceBand
+) {
+
+    /**
+     * Accumulates facet counts while candidates are visited, without allocating per match.
+     * Not thread-safe.
+     */
+    static final class Counter {
+
+        private final double[] bandBounds;
+        private final String[] bandLabels;
+        private final long[] bandCounts;
+        private final long[] hourCounts = new long[24];
+        private final ZoneId zone;
+        private final int fixedOffsetSeconds;
+
+        Counter(List<Double> priceBands, ZoneId zone) {
+            this.bandBounds = priceBands.stream().mapToDouble(Double::doubleValue).sorted().toArray();
+            this.bandLabels = labels(bandBounds);
+            this.bandCounts = new long[bandBounds.length + 1];
+            this.zone = zone;
+            this.fixedOffsetSeconds = zone.getRules().isFixedOffset()
+                    ? zone.getRules().getOffset(Instant.EPOCH).getTotalSeconds()
+                    : Integer.MIN_VALUE;
+        }
+
+        void add(double priceDiscount, long pickupStartMillis) {
+            int band = 0;
+            while (band < bandBounds.length && priceDiscount >= bandBounds[band]) {
+                band++;
+            }
+            bandCounts[band]++;
+            hourCounts[localHour(pickupStartMillis)]++;
+        }
+
+        BasketFacets toFacets() {
+            Map<Integer, Long> byHour = new TreeMap<>();
+            for (int hour = 0; hour < hourCounts.length; hour++) {
+                if (hourCounts[hour] > 0) {
+                    byHour.put(hour, hourCounts[hour]);
+                }
+            }
+            Map<String, Long> byBand = new LinkedHashMap<>();
+            for (int band = 0; band < bandCounts.length; band++) {
+                byBand.put(bandLabels[band], bandCounts[band]);
+            }
+            return new BasketFacets(byHour, byBand);
+        }
+
+        private int localHour(long epochMillis) {
+            long epochSeconds = Math.floorDiv(epochMillis, 1000L);
+            int offsetSeconds = fixedOffsetSeconds != Integer.MIN_VALUE
+                    ? fixedOffsetSeconds
+                    : zone.getRules().getOffset(Instant.ofEpochSecond(epochSeconds)).getTotalSeconds();
+            return (int) Math.floorMod(epochSeconds + offsetSeconds, 86400L) / 3600;
+        }
+
+        private static String[] labels(double[] bounds) {
+            String[] labels = new String[bounds.length + 1];
+            if (bounds.length == 0) {
+                labels[0] = "all";
+                return labels;
+            }
+            labels[0] = "<" + format(bounds[0]);
+            for (int i = 1; i < bounds.length; i++) {
+                labels[i] = format(bounds[i - 1]) + "-" + format(bounds[i]);
+            }
+            labels[bounds.length] = ">=" + format(bounds[bounds.length - 1]);
+            return labels;
+        }
+
+        private static String format(double bound) {
+            return BigDecimal.valueOf(bound).stripTrailingZeros().toPlainString();
+        }
+    }
+}
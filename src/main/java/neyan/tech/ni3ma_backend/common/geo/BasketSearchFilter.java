@@ -0,0 +1,44 @@
+package neyan.tech.ni3ma_backend.common.geo;
+
+import java.time.Instant;
+
+/**
+ * Optional filters of a nearby basket search; null fields are not applied.
+ *
+ * @param maxPrice           Highest discounted price
+ * @param minDiscountPercent Lowest discount, in percent of the original price
+ * @param pickupFrom         Pickup window must end after this instant
+ * @param pickupTo           Pickup window must start before this instant
+ * @param currency           Currency code (case-insensitive)
+ */
+public record BasketSearchFilter(
+        Double maxPrice,
+        Double minDiscountPercent,
+        Instant pickupFrom,
+        Instant pickupTo,
+        String currency
+) {
+
+    public boolean matches(double priceOriginal, double priceDiscount,
+                           long pickupStartMillis, long pickupEndMillis, String basketCurrency) {
+        if (maxPrice != null && !(priceDiscount <= maxPrice)) {
+            return false;
+        }
+        if (minDiscountPercent != null) {
+            if (!(priceOriginal > 0)) {
+                return false;
+            }
+            double discountPercent = (priceOriginal - priceDiscount) * 100 / priceOriginal;
+            if (discountPercent < minDiscountPercent) {
+                return false;
+            }
+        }
+        if (pickupTo != null && pickupStartMillis >= pickupTo.toEpochMilli()) {
+            return false;
+        }
+        if (pickupFrom != null && pickupEndMillis <= pickupFrom.toEpochMilli()) {
+            return false;
+        }
+        return currency == null || currency.equalsIgnoreCase(basketCurrency);
+    }
+}
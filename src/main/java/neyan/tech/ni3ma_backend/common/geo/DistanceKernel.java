@@ -0,0 +1,72 @@
+package neyan.tech.ni3ma_backend.common.geo;
+
+/**
+ * Great-circle distances from a fixed center, with the center's trigonometry computed once.
+ * <p>
+ * Points are given in radians together with the cosine of their latitude, as stored by
+ * {@link GeoGrid} and {@link GeoCandidates}, so a distance costs two sines and no allocation.
+ * {@link #distanceWithin} first rejects far points with an equirectangular estimate
+ * (multiplications only) and runs the exact Haversine formula on the rest.
+ */
+public final class DistanceKernel {
+
+    /**
+     * Points whose equirectangular estimate is within this factor of the radius are checked exactly.
+     * The estimate's error stays far below 5% for the radii where the pre-filter is used.
+     */
+    private static final double PREFILTER_SLACK = 1.05;
+
+    /**
+     * Above this radius the pre-filter is skipped and every point is checked exactly.
+     */
+    private static final double PREFILTER_MAX_RADIUS_KM = 500.0;
+
+    private static final double TWO_PI = 2 * Math.PI;
+
+    private final double latRad;
+    private final double lngRad;
+    private final double cosLat;
+
+    private DistanceKernel(double lat, double lng) {
+        this.latRad = Math.toRadians(lat);
+        this.lngRad = Math.toRadians(lng);
+        this.cosLat = Math.cos(latRad);
+    }
+
+    public static DistanceKernel at(double lat, double lng) {
+        return new DistanceKernel(lat, lng);
+    }
+
+    /**
+     * Exact Haversine distance in kilometers, same formula as {@link GeoUtils#haversineDistance}.
+     */
+    public double distanceKm(double pointLatRad, double pointLngRad, double pointCosLat) {
+        double sinDLat = Math.sin((pointLatRad - latRad) / 2);
+        double sinDLng = Math.sin((pointLngRad - lngRad) / 2);
+        double a = sinDLat * sinDLat + cosLat * pointCosLat * sinDLng * sinDLng;
+        return GeoUtils.EARTH_RADIUS_KM * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+
+    /**
+     * Exact distance in kilometers if the point is within radiusKm, otherwise -1.
+     */
+    public double distanceWithin(double pointLatRad, double pointLngRad, double pointCosLat, double radiusKm) {
+        if (radiusKm <= PREFILTER_MAX_RADIUS_KM) {
+            double dLng = pointLngRad - lngRad;
+            if (dLng > Math.PI) {
+                dLng -= TWO_PI;
+            } else if (dLng < -Math.PI) {
+                dLng += TWO_PI;
+            }
+            // Mean of the cosines <= cosine of the mean latitude, so x is never overestimated
+            double x = dLng * (cosLat + pointCosLat) * 0.5;
+            double y = pointLatRad - latRad;
+            double limit = radiusKm * PREFILTER_SLACK / GeoUtils.EARTH_RADIUS_KM;
+            if (x * x + y * y > limit * limit) {
+                return -1;
+            }
+        }
+        double distance = distanceKm(pointLatRad, pointLngRad, pointCosLat);
+        return distance <= radiusKm ? distance : -1;
+    }
+}
@@ -0,0 +1,156 @@
+package neyan.tech.ni3ma_backend.common.geo;
+
+import neyan.tech.ni3ma_backend.basket.dto.AvailableBasketRef;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Candidate baskets around a cell, as stored by {@link GeoResultCache}.
+ * <p>
+ * Holds every available basket within coverRadiusKm of the cell center together with its
+ * shop's location and its pickup window, so any query centered in the cell (up to the radius
+ * bucket) can be answered exactly: distances are recomputed from the real center and baskets
+ * whose pickup window has ended are skipped. Prices and currency are kept for search filters,
+ * facets and ranking. Coordinates are stored as parallel primitive arrays in the form
+ * {@link DistanceKernel} consumes. Immutable.
+ */
+public final class GeoCandidates {
+
+    private final GeoPoint center;
+    private final double coverRadiusKm;
+    private final UUID[] ids;
+    private final UUID[] shopIds;
+    private final double[] latRads;
+    private final double[] lngRads;
+    private final double[] cosLats;
+    private final long[] pickupStartMillis;
+    private final long[] pickupEndMillis;
+    private final double[] priceOriginals;
+    private final double[] priceDiscounts;
+    private final String[] currencies;
+
+    private GeoCandidates(GeoPoint center, double coverRadiusKm, List<Candidate> candidates) {
+        this.center = center;
+        this.coverRadiusKm = coverRadiusKm;
+        int size = candidates.size();
+        this.ids = new UUID[size];
+        this.shopIds = new UUID[size];
+        this.latRads = new double[size];
+        this.lngRads = new double[size];
+        this.cosLats = new double[size];
+        this.pickupStartMillis = new long[size];
+        this.pickupEndMillis = new long[size];
+        this.priceOriginals = new double[size];
+        this.priceDiscounts = new double[size];
+        this.currencies = new String[size];
+        for (int i = 0; i < size; i++) {
+            Candidate candidate = candidates.get(i);
+            ids[i] = candidate.id();
+            shopIds[i] = candidate.shopId();
+            latRads[i] = Math.toRadians(candidate.lat());
+            lngRads[i] = Math.toRadians(candidate.lng());
+            cosLats[i] = Math.cos(latRads[i]);
+            pickupStartMillis[i] = candidate.pickupStartMillis();
+            pickupEndMillis[i] = candidate.pickupEndMillis();
+            priceOriginals[i] = candidate.priceOriginal();
+            priceDiscounts[i] = candidate.priceDiscount();
+            currencies[i] = candidate.currency();
+        }
+    }
+
+    public static Builder builder(GeoPoint center, double coverRadiusKm) {
+        return new Builder(center, coverRadiusKm);
+    }
+
+    /**
+     * Calls the visitor for every candidate within radiusKm of (lat, lng) whose pickup ends after now.
+     */
+    public void visitWithin(double lat, double lng, double radiusKm, Instant now, GeoGrid.HitVisitor visitor) {
+        visitMatching(lat, lng, radiusKm, now, null,
+                (id, shopId, distanceKm, priceOriginal, priceDiscount, pickupStart, pickupEnd) ->
+                        visitor.accept(id, distanceKm));
+    }
+
+    /**
+     * Same as {@link #visitWithin}, restricted to basket candidates matching the filter (if any),
+     * and also passing the attributes facets and ranking are computed on.
+     */
+    public void visitMatching(double lat, double lng, double radiusKm, Instant now,
+                              BasketSearchFilter filter, MatchVisitor visitor) {
+        DistanceKernel kernel = DistanceKernel.at(lat, lng);
+        long nowMillis = now.toEpochMilli();
+        for (int i = 0; i < ids.length; i++) {
+            if (pickupEndMillis[i] <= nowMillis) {
+                continue;
+            }
+            if (filter != null && !filter.matches(priceOriginals[i], priceDiscounts[i],
+                    pickupStartMillis[i], pickupEndMillis[i], currencies[i])) {
+                continue;
+            }
+            double distance = kernel.distanceWithin(latRads[i], lngRads[i], cosLats[i], radiusKm);
+            if (distance >= 0) {
+                visitor.accept(ids[i], shopIds[i], distance, priceOriginals[i], priceDiscounts[i],
+                        pickupStartMillis[i], pickupEndMillis[i]);
+            }
+        }
+    }
+
+    /**
+     * True if a change at this location may affect these candidates.
+     */
+    public boolean covers(double lat, double lng) {
+        return GeoUtils.haversineDistance(center.lat(), center.lng(), lat, lng) <= coverRadiusKm;
+    }
+
+    public boolean containsShop(UUID shopId) {
+        for (UUID id : shopIds) {
+            if (id.equals(shopId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    @FunctionalInterface
+    public interface MatchVisitor {
+        void accept(UUID id, UUID shopId, double distanceKm, double priceOriginal, double priceDiscount,
+                    long pickupStartMillis, long pickupEndMillis);
+    }
+
+    private record Candidate(UUID id, UUID shopId, double lat, double lng,
+                             long pickupStartMillis, long pickupEndMillis,
+                             double priceOriginal, double priceDiscount, String currency) {}
+
+    public static final class Builder {
+
+        private final GeoPoint center;
+        private final double coverRadiusKm;
+        private final List<Candidate> candidates = new ArrayList<>();
+
+        private Builder(GeoPoint center, double coverRadiusKm) {
+            this.center = center;
+            this.coverRadiusKm = coverRadiusKm;
+        }
+
+        /**
+         * Adds an available basket located at its shop.
+         */
+        public Builder addBasket(AvailableBasketRef basket, GeoPoint shopLocation) {
+            candidates.add(new Candidate(basket.basketId(), basket.shopId(), shopLocation.lat(), shopLocation.lng(),
+                    basket.pickupStart().toEpochMilli(), basket.pickupEnd().toEpochMilli(),
+                    basket.priceOriginal().doubleValue(), basket.priceDiscount().doubleValue(), basket.currency()));
+            return this;
+        }
+
+        public GeoCandidates build() {
+            return new GeoCandidates(center, coverRadiusKm, candidates);
+        }
+    }
+}
@@ -4,7 +4,13 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import neyan.tech.ni3ma_backend.common.exception.BadRequestException;
+import neyan.tech.ni3ma_backend.common.geo.GeoService.BasketSearchResult;
 import neyan.tech.ni3ma_backend.common.geo.GeoService.BasketWithDistance;
+import neyan.tech.ni3ma_backend.common.geo.GeoService.NearestBaskets;
+import neyan.tech.ni3ma_backend.common.geo.GeoService.RankedBasket;
+import neyan.tech.ni3ma_backend.common.geo.GeoService.RouteBasket;
+import neyan.tech.ni3ma_backend.common.geo.GeoService.ShopCluster;
 import neyan.tech.ni3ma_backend.common.geo.GeoService.ShopWithDistance;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -15,12 +21,18 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.Instant;
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/nearby")
 @RequiredArgsConstructor
 @Tag(name = "Nearby Search", description = "Geographic search endpoints")
 public class GeoController {
 
+    private static final int MAX_CURSOR_LIMIT = 100;
+    private static final double MAX_RADIUS_KM = 200;
+
     private final GeoService geoService;
 
     @Operation(summary = "Find nearby shops", 
@@ -35,7 +47,29 @@ public class GeoController {
             @RequestParam(defaultValue = "10") Double radiusKm,
             @PageableDefault(size = 20) Pageable pageable) {
 
-        return ResponseEntity.ok(geoService.findNearbyShops(lat, lng, radiusKm, pageable));
+        return ResponseEntity.ok(geoService.findNearbyShops(lat, lng, checkRadius(radiusKm), pageable));
+    }
+
+    @Operation(summary = "Find nearby shops (cursor pagination)",
+               description = "Returns shops sorted by distance from the specified location. Send an empty cursor with lat/lng to start, "
+                       + "then the returned nextCursor to continue")
+    @GetMapping(value = "/shops", params = "cursor")
+    public ResponseEntity<NearbyCursorPage<ShopWithDistance>> findNearbyShopsByCursor(
+            @Parameter(description = "Cursor from the previous page, empty for the first page")
+            @RequestParam String cursor,
+            @Parameter(description = "Latitude (first page only)", example = "6.3703")
+            @RequestParam(required = false) Double lat,
+            @Parameter(description = "Longitude (first page only)", example = "2.3912")
+            @RequestParam(required = false) Double lng,
+            @Parameter(description = "Search radius in kilometers (first page only)", example = "10")
+            @RequestParam(defaultValue = "10") Double radiusKm,
+            @Parameter(description = "Page size", example = "20")
+            @RequestParam(defaultValue = "20") int limit) {
+
+        GeoCursorToken token = resolveCursor(cursor, lat, lng, radiusKm);
+        return ResponseEntity.ok(NearbyCursorPage.of(
+                geoService.findNearestShops(token.lat(), token.lng(), token.radiusKm(), token.position(), checkLimit(limit)),
+                token));
     }
 
     @Operation(summary = "Find nearby baskets", 
@@ -50,7 +84,75 @@ public class GeoController {
             @RequestParam(defaultValue = "10") Double radiusKm,
             @PageableDefault(size = 20) Pageable pageable) {
 
-        return ResponseEntity.ok(geoService.findNearbyBaskets(lat, lng, radiusKm, pageable));
+        return ResponseEntity.ok(geoService.findNearbyBaskets(lat, lng, checkRadius(radiusKm), pageable));
+    }
+
+    @Operation(summary = "Find nearby baskets (cursor pagination)",
+               description = "Returns available baskets sorted by distance from the specified location. Send an empty cursor with lat/lng to start, "
+                       + "then the returned nextCursor to continue")
+    @GetMapping(value = "/baskets", params = "cursor")
+    public ResponseEntity<NearbyCursorPage<BasketWithDistance>> findNearbyBasketsByCursor(
+            @Parameter(description = "Cursor from the previous page, empty for the first page")
+            @RequestParam String cursor,
+            @Parameter(description = "Latitude (first page only)", example = "6.3703")
+            @RequestParam(required = false) Double lat,
+            @Parameter(description = "Longitude (first page only)", example = "2.3912")
+            @RequestParam(required = false) Double lng,
+            @Parameter(description = "Search radius in kilometers (first page only)", example = "10")
+            @RequestParam(defaultValue = "10") Double radiusKm,
+            @Parameter(description = "Page size", example = "20")
+            @RequestParam(defaultValue = "20") int limit) {
+
+        GeoCursorToken token = resolveCursor(cursor, lat, lng, radiusKm);
+        return ResponseEntity.ok(NearbyCursorPage.of(
+                geoService.findNearestBaskets(token.lat(), token.lng(), token.radiusKm(), token.position(), checkLimit(limit)),
+                token));
+    }
+
+    @Operation(summary = "Find nearby baskets by relevance",
+               description = "Returns available baskets ordered by a blend of distance, shop rating, "
+                       + "discount and time left before pickup ends, best first")
+    @GetMapping("/baskets/ranked")
+    public ResponseEntity<Page<RankedBasket>> findRankedBaskets(
+            @Parameter(description = "Latitude", required = true, example = "6.3703")
+            @RequestParam Double lat,
+            @Parameter(description = "Longitude", required = true, example = "2.3912")
+            @RequestParam Double lng,
+            @Parameter(description = "Search radius in kilometers", example = "10")
+            @RequestParam(defaultValue = "10") Double radiusKm,
+            @PageableDefault(size = 20) Pageable pageable) {
+
+        return ResponseEntity.ok(geoService.findRankedBaskets(lat, lng, checkRadius(radiusKm), pageable));
+    }
+
+    @Operation(summary = "Search nearby baskets with filters",
+               description = "Returns available baskets matching every given filter, sorted by distance, "
+                       + "with counts of all matches per pickup hour and price band")
+    @GetMapping("/baskets/search")
+    public ResponseEntity<BasketSearchResult> searchNearbyBaskets(
+            @Parameter(description = "Latitude", required = true, example = "6.3703")
+            @RequestParam Double lat,
+            @Parameter(description = "Longitude", required = true, example = "2.3912")
+            @RequestParam Double lng,
+            @Parameter(description = "Search radius in kilometers", example = "10")
+            @RequestParam(defaultValue = "10") Double radiusKm,
+            @Parameter(description = "Maximum discounted price", example = "500")
+            @RequestParam(required = false) Double maxPrice,
+            @Parameter(description = "Minimum discount, in percent of the original price", example = "30")
+            @RequestParam(required = false) Double minDiscountPercent,
+            @Parameter(description = "Pickup window must end after this instant", example = "2024-01-15T17:00:00Z")
+            @RequestParam(required = false) Instant pickupFrom,
+            @Parameter(description = "Pickup window must start before this instant", example = "2024-01-15T20:00:00Z")
+            @RequestParam(required = false) Instant pickupTo,
+            @Parameter(description = "Currency code", example = "MRU")
+            @RequestParam(required = false) String currency,
+            @PageableDefault(size = 20) Pageable pageable) {
+
+        if (pickupFrom != null && pickupTo != null && !pickupFrom.isBefore(pickupTo)) {
+            throw new BadRequestException("pickupFrom must be before pickupTo");
+        }
+        BasketSearchFilter filter = new BasketSearchFilter(maxPrice, minDiscountPercent, pickupFrom, pickupTo, currency);
+        return ResponseEntity.ok(geoService.searchNearbyBaskets(lat, lng, checkRadius(radiusKm), filter, pageable));
     }
 
     @Operation(summary = "Find shops with available baskets", 
@@ -65,7 +167,107 @@ public class GeoController {
             @RequestParam(defaultValue = "10") Double radiusKm,
             @PageableDefault(size = 20) Pageable pageable) {
 
-        return ResponseEntity.ok(geoService.findShopsWithAvailableBaskets(lat, lng, radiusKm, pageable));
+        return ResponseEntity.ok(geoService.findShopsWithAvailableBaskets(lat, lng, checkRadius(radiusKm), pageable));
+    }
+
+    @Operation(summary = "Find shops with available baskets (cursor pagination)",
+               description = "Returns shops that have available baskets, sorted by distance. Send an empty cursor with lat/lng to start, "
+                       + "then the returned nextCursor to continue")
+    @GetMapping(value = "/shops-with-baskets", params = "cursor")
+    public ResponseEntity<NearbyCursorPage<ShopWithDistance>> findShopsWithBasketsByCursor(
+            @Parameter(description = "Cursor from the previous page, empty for the first page")
+            @RequestParam String cursor,
+            @Parameter(description = "Latitude (first page only)", example = "6.3703")
+            @RequestParam(required = false) Double lat,
+            @Parameter(description = "Longitude (first page only)", example = "2.3912")
+            @RequestParam(required = false) Double lng,
+            @Parameter(description = "Search radius in kilometers (first page only)", example = "10")
+            @RequestParam(defaultValue = "10") Double radiusKm,
+            @Parameter(description = "Page size", example = "20")
+            @RequestParam(defaultValue = "20") int limit) {
+
+        GeoCursorToken token = resolveCursor(cursor, lat, lng, radiusKm);
+        return ResponseEntity.ok(NearbyCursorPage.of(
+                geoService.findNearestShopsWithAvailableBaskets(token.lat(), token.lng(), token.radiusKm(), token.position(), checkLimit(limit)),
+                token));
+    }
+
+    @Operation(summary = "Find the N nearest available baskets",
+               description = "Expands the search outward from the location until count baskets are found "
+                       + "or maxRadiusKm is reached, in a single request")
+    @GetMapping("/baskets/nearest")
+    public ResponseEntity<NearestBaskets> findNearestBaskets(
+            @Parameter(description = "Latitude", required = true, example = "6.3703")
+            @RequestParam Double lat,
+            @Parameter(description = "Longitude", required = true, example = "2.3912")
+            @RequestParam Double lng,
+            @Parameter(description = "Number of baskets wanted", example = "10")
+            @RequestParam(defaultValue = "10") int count,
+            @Parameter(description = "Maximum search radius in kilometers", example = "50")
+            @RequestParam(defaultValue = "50") Double maxRadiusKm) {
+
+        if (maxRadiusKm <= 0 || maxRadiusKm > MAX_RADIUS_KM) {
+            throw new BadRequestException("maxRadiusKm must be between 0 and " + MAX_RADIUS_KM);
+        }
+        return ResponseEntity.ok(geoService.findNearestAvailableBaskets(lat, lng, checkLimit(count), maxRadiusKm));
+    }
+
+    @Operation(summary = "Find baskets along a route",
+               description = "Returns available baskets whose shop lies within bufferKm of the route, "
+                       + "in the order they are reached along it")
+    @GetMapping("/route")
+    public ResponseEntity<Page<RouteBasket>> findBasketsAlongRoute(
+            @Parameter(description = "Route as an encoded polyline (precision 1e5)", required = true,
+                       example = "oelmBncn`Bo}@o}@_|Bg^")
+            @RequestParam String polyline,
+            @Parameter(description = "Maximum distance from the route in kilometers", example = "0.5")
+            @RequestParam(defaultValue = "0.5") Double bufferKm,
+            @PageableDefault(size = 20) Pageable pageable) {
+
+        return ResponseEntity.ok(geoService.findBasketsAlongRoute(polyline, bufferKm, pageable));
+    }
+
+    @Operation(summary = "Find shop clusters for a map viewport",
+               description = "Groups active shops into grid cells sized after the zoom level. "
+                       + "Returns each cluster's centroid, shop count and available basket count")
+    @GetMapping("/clusters")
+    public ResponseEntity<List<ShopCluster>> findClusters(
+            @Parameter(description = "Viewport south edge", required = true, example = "17.95")
+            @RequestParam Double minLat,
+            @Parameter(description = "Viewport north edge", required = true, example = "18.20")
+            @RequestParam Double maxLat,
+            @Parameter(description = "Viewport west edge", required = true, example = "-16.10")
+            @RequestParam Double minLng,
+            @Parameter(description = "Viewport east edge", required = true, example = "-15.85")
+            @RequestParam Double maxLng,
+            @Parameter(description = "Map zoom level (0-22)", required = true, example = "12")
+            @RequestParam Integer zoom) {
+
+        return ResponseEntity.ok(geoService.findClusters(minLat, maxLat, minLng, maxLng, zoom));
+    }
+
+    private GeoCursorToken resolveCursor(String cursor, Double lat, Double lng, double radiusKm) {
+        return cursor.isBlank()
+                ? GeoCursorToken.start(lat, lng, checkRadius(radiusKm))
+                : GeoCursorToken.decode(cursor, MAX_RADIUS_KM);
+    }
+
+    /**
+     * Radius searches walk the index cells of their bounding box, so the radius is capped.
+     */
+    private double checkRadius(double radiusKm) {
+        // Written so that NaN is rejected too
+        if (!(radiusKm > 0 && radiusKm <= MAX_RADIUS_KM)) {
+            throw new BadRequestException("radiusKm must be between 0 and " + MAX_RADIUS_KM);
+        }
+        return radiusKm;
+    }
+
+    private int checkLimit(int limit) {
+        if (limit < 1 || limit > MAX_CURSOR_LIMIT) {
+            throw new BadRequestException("limit and count must be between 1 and " + MAX_CURSOR_LIMIT);
+        }
+        return limit;
     }
 }
 
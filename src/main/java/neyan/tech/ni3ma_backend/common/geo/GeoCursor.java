@@ -0,0 +1,22 @@
+package neyan.tech.ni3ma_backend.common.geo;
+
+import java.util.UUID;
+
+/**
+ * Position in a distance-ordered result list: the (distance, id) of the last item returned.
+ * The next page starts strictly after it, using the same order as {@link GeoHit#BY_DISTANCE}.
+ */
+public record GeoCursor(double distanceKm, UUID id) {
+
+    public static GeoCursor of(GeoHit hit) {
+        return new GeoCursor(hit.distanceKm(), hit.id());
+    }
+
+    /**
+     * True if (distanceKm, id) comes strictly after this cursor.
+     */
+    public boolean precedes(double distanceKm, UUID id) {
+        int cmp = Double.compare(this.distanceKm, distanceKm);
+        return cmp < 0 || (cmp == 0 && this.id.compareTo(id) < 0);
+    }
+}
@@ -0,0 +1,76 @@
+package neyan.tech.ni3ma_backend.common.geo;
+
+import neyan.tech.ni3ma_backend.common.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque keyset cursor of the /api/nearby endpoints.
+ * Carries the query (center, radius) so later pages don't resend it, and the
+ * (distance, id) of the last item returned; null position means first page.
+ */
+public record GeoCursorToken(
+        double lat,
+        double lng,
+        double radiusKm,
+        GeoCursor position
+) {
+
+    private static final String SEPARATOR = "|";
+
+    public static GeoCursorToken start(Double lat, Double lng, double radiusKm) {
+        if (lat == null || lng == null) {
+            throw new BadRequestException("lat and lng are required to start a cursor search");
+        }
+        return new GeoCursorToken(lat, lng, radiusKm, null);
+    }
+
+    public GeoCursorToken next(GeoCursor nextPosition) {
+        return new GeoCursorToken(lat, lng, radiusKm, nextPosition);
+    }
+
+    public String encode() {
+        String raw = String.join(SEPARATOR,
+                Double.toString(lat),
+                Double.toString(lng),
+                Double.toString(radiusKm),
+                Double.toString(position.distanceKm()),
+                position.id().toString());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token returned by {@link #encode}, rejecting it if it is malformed or carries values
+     * no query could have produced: coordinates out of range, a radius outside (0, maxRadiusKm]
+     * or a distance that is negative or not finite.
+     */
+    public static GeoCursorToken decode(String token, double maxRadiusKm) {
+        GeoCursorToken decoded;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 5) {
+                throw new IllegalArgumentException("Unexpected cursor format");
+            }
+            decoded = new GeoCursorToken(
+                    Double.parseDouble(parts[0]),
+                    Double.parseDouble(parts[1]),
+                    Double.parseDouble(parts[2]),
+                    new GeoCursor(Double.parseDouble(parts[3]), UUID.fromString(parts[4]))
+            );
+        } catch (IllegalArgumentException ex) {
+            throw new BadRequestException("Invalid cursor");
+        }
+        // Written so that NaN fails every check
+        boolean valid = decoded.lat() >= -90 && decoded.lat() <= 90
+                && decoded.lng() >= -180 && decoded.lng() <= 180
+                && decoded.radiusKm() > 0 && decoded.radiusKm() <= maxRadiusKm
+                && decoded.position().distanceKm() >= 0 && Double.isFinite(decoded.position().distanceKm());
+        if (!valid) {
+            throw new BadRequestException("Invalid cursor");
+        }
+        return decoded;
+    }
+}
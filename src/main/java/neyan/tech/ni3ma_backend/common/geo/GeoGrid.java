@@ -0,0 +1,251 @@
+package neyan.tech.ni3ma_backend.common.geo;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Fixed-size lat/lng grid of points, bucketed by cell.
+ * A radius query only scans the cells overlapping the query's bounding box.
+ * <p>
+ * Not thread-safe: callers (see {@link ShopGeoIndex}) are responsible for locking.
+ */
+public class GeoGrid {
+
+    private final double cellDegrees;
+    private final int lngCells;
+    private final int latCells;
+    private final Map<Long, List<Point>> cells = new HashMap<>();
+    private final Map<UUID, Point> points = new HashMap<>();
+
+    public GeoGrid(double cellDegrees) {
+        if (cellDegrees <= 0 || cellDegrees > 90) {
+            throw new IllegalArgumentException("Cell size must be in (0, 90] degrees: " + cellDegrees);
+        }
+        this.cellDegrees = cellDegrees;
+        this.lngCells = (int) Math.ceil(360.0 / cellDegrees);
+        this.latCells = (int) Math.ceil(180.0 / cellDegrees) + 1;
+    }
+
+    /**
+     * Inserts or moves a point.
+     */
+    public void put(UUID id, double lat, double lng) {
+        remove(id);
+        double latRad = Math.toRadians(lat);
+        Point point = new Point(id, lat, lng, latRad, Math.toRadians(lng), Math.cos(latRad),
+                cellKey(latIndex(lat), lngIndex(lng)));
+        points.put(id, point);
+        cells.computeIfAbsent(point.cellKey(), k -> new ArrayList<>()).add(point);
+    }
+
+    public boolean remove(UUID id) {
+        Point existing = points.remove(id);
+        if (existing == null) {
+            return false;
+        }
+        List<Point> cell = cells.get(existing.cellKey());
+        if (cell != null) {
+            cell.remove(existing);
+            if (cell.isEmpty()) {
+                cells.remove(existing.cellKey());
+            }
+        }
+        return true;
+    }
+
+    public boolean contains(UUID id) {
+        return points.containsKey(id);
+    }
+
+    /**
+     * Location of the point, or null if it is not in the grid.
+     */
+    public GeoPoint locate(UUID id) {
+        Point point = points.get(id);
+        return point != null ? new GeoPoint(point.lat(), point.lng()) : null;
+    }
+
+    public int size() {
+        return points.size();
+    }
+
+    /**
+     * Calls the visitor for every point within radiusKm of the center (exact Haversine distance).
+     * Visiting order is unspecified.
+     */
+    public void visitWithin(double lat, double lng, double radiusKm, HitVisitor visitor) {
+        visitPointsWithin(lat, lng, radiusKm, (id, pointLat, pointLng, distanceKm) -> visitor.accept(id, distanceKm));
+    }
+
+    /**
+     * Same as {@link #visitWithin} but also passes each point's coordinates.
+     */
+    public void visitPointsWithin(double lat, double lng, double radiusKm, PointVisitor visitor) {
+        DistanceKernel kernel = DistanceKernel.at(lat, lng);
+        GeoUtils.BoundingBox box = GeoUtils.calculateBoundingBox(lat, lng, radiusKm);
+        int minLatIdx = latIndex(Math.max(-90.0, box.minLat()));
+        int maxLatIdx = latIndex(Math.min(90.0, box.maxLat()));
+        double lngSpan = box.maxLng() - box.minLng();
+        int minLngIdx = lngSpan >= 360.0 ? 0 : rawLngIndex(box.minLng());
+        int lngCount = lngSpan >= 360.0 ? lngCells : rawLngIndex(box.maxLng()) - minLngIdx + 1;
+
+        // A radius spanning more cells than there are points is cheaper to answer point by point
+        if ((long) (maxLatIdx - minLatIdx + 1) * lngCount > points.size()) {
+            for (Point point : points.values()) {
+                double distance = kernel.distanceWithin(point.latRad(), point.lngRad(), point.cosLat(), radiusKm);
+                if (distance >= 0) {
+                    visitor.accept(point.id(), point.lat(), point.lng(), distance);
+                }
+            }
+            return;
+        }
+
+        for (int latIdx = minLatIdx; latIdx <= maxLatIdx; latIdx++) {
+            for (int i = 0; i < lngCount; i++) {
+                List<Point> cell = cells.get(cellKey(latIdx, Math.floorMod(minLngIdx + i, lngCells)));
+                if (cell == null) {
+                    continue;
+                }
+                for (Point point : cell) {
+                    double distance = kernel.distanceWithin(point.latRad(), point.lngRad(), point.cosLat(), radiusKm);
+                    if (distance >= 0) {
+                        visitor.accept(point.id(), point.lat(), point.lng(), distance);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Calls the visitor for every point inside the box (minLng <= maxLng, no antimeridian crossing).
+     */
+    public void visitInBox(double minLat, double maxLat, double minLng, double maxLng, LocationVisitor visitor) {
+        int minLatIdx = latIndex(Math.max(-90.0, minLat));
+        int maxLatIdx = latIndex(Math.min(90.0, maxLat));
+        int minLngIdx = rawLngIndex(Math.max(-180.0, minLng));
+        int maxLngIdx = Math.min(rawLngIndex(Math.min(180.0, maxLng)), lngCells - 1);
+
+        // A box spanning more cells than there are points is cheaper to answer point by point
+        long boxCells = (long) (maxLatIdx - minLatIdx + 1) * (maxLngIdx - minLngIdx + 1);
+        if (boxCells > points.size()) {
+            for (Point point : points.values()) {
+                if (point.lat() >= minLat && point.lat() <= maxLat
+                        && point.lng() >= minLng && point.lng() <= maxLng) {
+                    visitor.accept(point.id(), point.lat(), point.lng());
+                }
+            }
+            return;
+        }
+
+        for (int latIdx = minLatIdx; latIdx <= maxLatIdx; latIdx++) {
+            for (int lngIdx = minLngIdx; lngIdx <= maxLngIdx; lngIdx++) {
+                List<Point> cell = cells.get(cellKey(latIdx, lngIdx));
+                if (cell == null) {
+                    continue;
+                }
+                for (Point point : cell) {
+                    if (point.lat() >= minLat && point.lat() <= maxLat
+                            && point.lng() >= minLng && point.lng() <= maxLng) {
+                        visitor.accept(point.id(), point.lat(), point.lng());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Visits the points of the cells at Chebyshev distance ring (in cells) from the cell containing
+     * the center, with their exact distance. Ring 0 is the center cell itself.
+     *
+     * @return false if the ring lies entirely beyond the grid, i.e. every point has been visited
+     */
+    public boolean visitRing(double lat, double lng, int ring, PointVisitor visitor) {
+        int centerLatIdx = latIndex(lat);
+        int centerLngIdx = rawLngIndex(lng);
+        boolean latExhausted = centerLatIdx - ring < 0 && centerLatIdx + ring >= latCells;
+        if (latExhausted && 2 * ring + 1 > lngCells) {
+            return false;
+        }
+
+        DistanceKernel kernel = DistanceKernel.at(lat, lng);
+        // Past half the globe the ring would wrap onto cells already visited
+        int lngSpan = Math.min(ring, (lngCells - 1) / 2);
+        for (int dLat = -ring; dLat <= ring; dLat++) {
+            int latIdx = centerLatIdx + dLat;
+            if (latIdx < 0 || latIdx >= latCells) {
+                continue;
+            }
+            boolean edgeRow = Math.abs(dLat) == ring;
+            for (int dLng = -lngSpan; dLng <= lngSpan; dLng++) {
+                if (!edgeRow && Math.abs(dLng) != ring) {
+                    continue;
+                }
+                List<Point> cell = cells.get(cellKey(latIdx, Math.floorMod(centerLngIdx + dLng, lngCells)));
+                if (cell == null) {
+                    continue;
+                }
+                for (Point point : cell) {
+                    visitor.accept(point.id(), point.lat(), point.lng(),
+                            kernel.distanceKm(point.latRad(), point.lngRad(), point.cosLat()));
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Radius around the center within which every point has been visited once rings 0..ring are done.
+     * Lower bound of the distance to the outer edge of the ring, in both directions.
+     */
+    public double ringCoverageKm(double lat, int ring) {
+        double span = Math.toRadians(ring * cellDegrees);
+        double northSouth = GeoUtils.EARTH_RADIUS_KM * span;
+        // Narrowest longitude span: at the most poleward latitude the ring reaches
+        double maxAbsLat = Math.toRadians(Math.min(90.0, Math.abs(lat) + (ring + 1) * cellDegrees));
+        double eastWest = 2 * GeoUtils.EARTH_RADIUS_KM
+                * Math.asin(Math.min(1.0, Math.cos(maxAbsLat) * Math.sin(Math.min(span, Math.PI) / 2)));
+        return Math.min(northSouth, eastWest);
+    }
+
+    private int latIndex(double lat) {
+        return (int) Math.floor((lat + 90.0) / cellDegrees);
+    }
+
+    private int lngIndex(double lng) {
+        return Math.floorMod(rawLngIndex(lng), lngCells);
+    }
+
+    private int rawLngIndex(double lng) {
+        return (int) Math.floor((lng + 180.0) / cellDegrees);
+    }
+
+    private long cellKey(int latIdx, int lngIdx) {
+        return (long) latIdx * lngCells + lngIdx;
+    }
+
+    /**
+     * Degrees for callers, radians and latitude cosine precomputed for {@link DistanceKernel}.
+     */
+    private record Point(UUID id, double lat, double lng, double latRad, double lngRad, double cosLat, long cellKey) {}
+
+    /**
+     * Receives (id, distance) pairs without allocating a result object per hit.
+     */
+    @FunctionalInterface
+    public interface HitVisitor {
+        void accept(UUID id, double distanceKm);
+    }
+
+    @FunctionalInterface
+    public interface LocationVisitor {
+        void accept(UUID id, double lat, double lng);
+    }
+
+    @FunctionalInterface
+    public interface PointVisitor {
+        void accept(UUID id, double lat, double lng, double distanceKm);
+    }
+}
@@ -0,0 +1,17 @@
+package neyan.tech.ni3ma_backend.common.geo;
+
+import java.util.Comparator;
+import java.util.UUID;
+
+/**
+ * Id of an indexed item with its distance from the query center.
+ */
+public record GeoHit(UUID id, double distanceKm) {
+
+    /**
+     * Distance first, id as a tie-breaker so the order is stable across pages.
+     */
+    public static final Comparator<GeoHit> BY_DISTANCE = Comparator
+            .comparingDouble(GeoHit::distanceKm)
+            .thenComparing(GeoHit::id);
+}
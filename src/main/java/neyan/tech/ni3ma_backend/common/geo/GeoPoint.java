@@ -0,0 +1,6 @@
+package neyan.tech.ni3ma_backend.common.geo;
+
+/**
+ * Latitude/longitude pair in degrees.
+ */
+public record GeoPoint(double lat, double lng) {}
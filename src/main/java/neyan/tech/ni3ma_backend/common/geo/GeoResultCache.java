@@ -0,0 +1,169 @@
+package neyan.tech.ni3ma_backend.common.geo;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import neyan.tech.ni3ma_backend.basket.event.BasketChangedEvent;
+import neyan.tech.ni3ma_backend.common.config.Ni3maProperties;
+import neyan.tech.ni3ma_backend.common.util.BoundedTtlCache;
+import neyan.tech.ni3ma_backend.common.util.SingleFlight;
+import neyan.tech.ni3ma_backend.shop.event.ShopChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Cache of geo search candidates keyed by (geohash cell of the center, radius bucket, endpoint).
+ * <p>
+ * An entry holds every candidate that any query centered in the cell with a radius up to
+ * the bucket could return (see {@link GeoCandidates}). Entries are evicted when a basket of
+ * a shop they cover becomes available or unavailable, or when a covered shop changes.
+ * Hits, misses and evictions are exposed as ni3ma.geo.cache.* metrics, and loads
+ * collapsed into an identical in-flight one as ni3ma.geo.coalesced (ni3ma.geo.coalesced.timeouts
+ * for those that waited too long and loaded on their own).
+ */
+@Slf4j
+@Component
+public class GeoResultCache {
+
+    public enum Endpoint {
+        BASKETS
+    }
+
+    /**
+     * Circle a loader must cover: the cell center and the bucket radius plus the cell's half diagonal.
+     */
+    public record CellQuery(GeoPoint center, double radiusKm) {}
+
+    private record Key(String cell, double radiusBucketKm, Endpoint endpoint) {}
+
+    private record UncachedKey(Endpoint endpoint, double lat, double lng, double radiusKm) {}
+
+    private final Ni3maProperties.GeoCacheProperties properties;
+    private final ShopGeoIndex shopGeoIndex;
+    private final BoundedTtlCache<Key, GeoCandidates> cache;
+    private final SingleFlight<Object, GeoCandidates> loads;
+    private final AtomicLong invalidations = new AtomicLong();
+    private final Counter invalidatedEntries;
+
+    public GeoResultCache(Ni3maProperties ni3maProperties, ShopGeoIndex shopGeoIndex, MeterRegistry meterRegistry) {
+        this.properties = ni3maProperties.getGeo().getCache();
+        this.shopGeoIndex = shopGeoIndex;
+        this.cache = new BoundedTtlCache<>(properties.getMaxEntries(), Duration.ofSeconds(properties.getTtlSeconds()));
+        this.loads = new SingleFlight<>(Duration.ofMillis(properties.getLoadWaitMs()));
+
+        FunctionCounter.builder("ni3ma.geo.cache.requests", cache, BoundedTtlCache::hitCount)
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("ni3ma.geo.cache.requests", cache, BoundedTtlCache::missCount)
+                .tag("result", "miss")
+                .register(meterRegistry);
+        FunctionCounter.builder("ni3ma.geo.cache.evictions", cache, BoundedTtlCache::evictionCount)
+                .description("Entries dropped for size or TTL")
+                .register(meterRegistry);
+        Gauge.builder("ni3ma.geo.cache.size", cache, BoundedTtlCache::size)
+                .register(meterRegistry);
+        FunctionCounter.builder("ni3ma.geo.coalesced", loads, SingleFlight::collapsedCount)
+                .description("Geo queries served by an identical in-flight load")
+                .register(meterRegistry);
+        FunctionCounter.builder("ni3ma.geo.coalesced.timeouts", loads, SingleFlight::timedOutCount)
+                .description("Geo queries that stopped waiting for an in-flight load and loaded themselves")
+                .register(meterRegistry);
+        this.invalidatedEntries = Counter.builder("ni3ma.geo.cache.invalidations")
+                .description("Entries dropped by basket or shop changes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Candidates for a query, from the cache or from the loader.
+     * Radii above the largest bucket are not cached and loaded for the exact query circle.
+     * Concurrent loads of the same key run once and share the result, unless the first one takes
+     * longer than the configured wait.
+     */
+    public GeoCandidates get(Endpoint endpoint, double lat, double lng, double radiusKm,
+                             Function<CellQuery, GeoCandidates> loader) {
+        Double bucket = properties.isEnabled() ? radiusBucket(radiusKm) : null;
+        if (bucket == null) {
+            return loads.execute(new UncachedKey(endpoint, lat, lng, radiusKm),
+                    () -> loader.apply(new CellQuery(new GeoPoint(lat, lng), radiusKm)));
+        }
+
+        Key key = new Key(Geohash.encode(lat, lng, properties.getGeohashPrecision()), bucket, endpoint);
+        GeoCandidates cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        return loads.execute(key, () -> load(key, loader));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBasketChanged(BasketChangedEvent event) {
+        if (!event.availabilityChanged()) {
+            return;
+        }
+        // Baskets of shops missing from the index are never candidates
+        GeoPoint location = shopGeoIndex.locate(event.shopId());
+        if (location != null) {
+            invalidate(candidates -> candidates.covers(location.lat(), location.lng()));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onShopChanged(ShopChangedEvent event) {
+        if (event.latitude() != null && event.longitude() != null) {
+            double lat = event.latitude().doubleValue();
+            double lng = event.longitude().doubleValue();
+            invalidate(candidates -> candidates.containsShop(event.shopId()) || candidates.covers(lat, lng));
+        } else {
+            invalidate(candidates -> candidates.containsShop(event.shopId()));
+        }
+    }
+
+    // ==================== Internal Methods ====================
+
+    private GeoCandidates load(Key key, Function<CellQuery, GeoCandidates> loader) {
+        long version = invalidations.get();
+        GeoCandidates loaded = loader.apply(cellQuery(key.cell(), key.radiusBucketKm()));
+        // Don't store what may have been read before a concurrent invalidation
+        if (invalidations.get() == version) {
+            cache.put(key, loaded);
+        }
+        return loaded;
+    }
+
+    private void invalidate(Predicate<GeoCandidates> affected) {
+        invalidations.incrementAndGet();
+        int removed = cache.invalidateIf((key, candidates) -> affected.test(candidates));
+        if (removed > 0) {
+            invalidatedEntries.increment(removed);
+            log.debug("Invalidated {} geo cache entries", removed);
+        }
+    }
+
+    private Double radiusBucket(double radiusKm) {
+        Double best = null;
+        for (Double bucket : properties.getRadiusBucketsKm()) {
+            if (radiusKm <= bucket && (best == null || bucket < best)) {
+                best = bucket;
+            }
+        }
+        return best;
+    }
+
+    private static CellQuery cellQuery(String cell, double radiusBucketKm) {
+        GeoUtils.BoundingBox bounds = Geohash.bounds(cell);
+        double centerLat = (bounds.minLat() + bounds.maxLat()) / 2;
+        double centerLng = (bounds.minLng() + bounds.maxLng()) / 2;
+        // The corner nearest the equator is the farthest one
+        double halfDiagonal = Math.max(
+                GeoUtils.haversineDistance(centerLat, centerLng, bounds.minLat(), bounds.minLng()),
+                GeoUtils.haversineDistance(centerLat, centerLng, bounds.maxLat(), bounds.maxLng()));
+        return new CellQuery(new GeoPoint(centerLat, centerLng), radiusBucketKm + halfDiagonal);
+    }
+}
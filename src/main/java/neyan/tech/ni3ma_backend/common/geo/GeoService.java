@@ -2,11 +2,16 @@ package neyan.tech.ni3ma_backend.common.geo;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import neyan.tech.ni3ma_backend.basket.dto.AvailableBasketRef;
 import neyan.tech.ni3ma_backend.basket.dto.BasketResponse;
 import neyan.tech.ni3ma_backend.basket.entity.Basket;
 import neyan.tech.ni3ma_backend.basket.entity.BasketStatus;
 import neyan.tech.ni3ma_backend.basket.mapper.BasketMapper;
 import neyan.tech.ni3ma_backend.basket.repository.BasketRepository;
+import neyan.tech.ni3ma_backend.basket.service.BasketAvailabilityIndex;
+import neyan.tech.ni3ma_backend.common.config.Ni3maProperties;
+import neyan.tech.ni3ma_backend.common.exception.BadRequestException;
+import neyan.tech.ni3ma_backend.review.service.ShopRatingIndex;
 import neyan.tech.ni3ma_backend.shop.dto.ShopResponse;
 import neyan.tech.ni3ma_backend.shop.entity.Shop;
 import neyan.tech.ni3ma_backend.shop.entity.ShopStatus;
@@ -19,23 +24,45 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
  * Service for geographic searches using Haversine distance calculation.
- * Uses bounding box pre-filtering for optimization.
+ * Candidate shops come from the in-memory {@link ShopGeoIndex}, filtered on the in-memory
+ * {@link BasketAvailabilityIndex} when only shops with baskets are wanted, and available-basket
+ * candidates are cached per cell by {@link GeoResultCache}; the database is only queried on
+ * cache misses and for the entities of the requested page.
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class GeoService {
 
+    private static final int MAX_ZOOM = 22;
+    private static final int CLUSTER_CELLS_PER_TILE = 4;
+    /** Widest viewport accepted, in map tiles per side (a 2048 px screen): at most 33 x 33 clusters. */
+    private static final int MAX_CLUSTER_VIEWPORT_TILES = 8;
+    private static final int MAX_ROUTE_POINTS = 5000;
+    private static final double MAX_ROUTE_BUFFER_KM = 5;
+
+    private final ShopGeoIndex shopGeoIndex;
+    private final ShopRatingIndex shopRatingIndex;
+    private final BasketAvailabilityIndex basketAvailabilityIndex;
+    private final GeoResultCache geoResultCache;
     private final ShopRepository shopRepository;
     private final BasketRepository basketRepository;
     private final ShopMapper shopMapper;
     private final BasketMapper basketMapper;
+    private final Ni3maProperties ni3maProperties;
 
     /**
      * Find shops near a location, sorted by distance.
@@ -49,39 +76,7 @@ public class GeoService {
     @Transactional(readOnly = true)
     public Page<ShopWithDistance> findNearbyShops(double lat, double lng, double radiusKm, Pageable pageable) {
         log.debug("Searching shops near ({}, {}) within {} km", lat, lng, radiusKm);
-
-        // Calculate bounding box for pre-filtering
-        GeoUtils.BoundingBox bbox = GeoUtils.calculateBoundingBox(lat, lng, radiusKm);
-
-        // Query with bounding box filter
-        List<Shop> shopsInBox = shopRepository.findActiveShopsInBoundingBox(
-                bbox.minLatDecimal(),
-                bbox.maxLatDecimal(),
-                bbox.minLngDecimal(),
-                bbox.maxLngDecimal()
-        );
-
-        log.debug("Found {} shops in bounding box", shopsInBox.size());
-
-        // Calculate exact distance and filter by radius
-        List<ShopWithDistance> nearbyShops = shopsInBox.stream()
-                .filter(shop -> shop.getLatitude() != null && shop.getLongitude() != null)
-                .map(shop -> {
-                    double distance = GeoUtils.haversineDistance(
-                            lat, lng,
-                            shop.getLatitude().doubleValue(),
-                            shop.getLongitude().doubleValue()
-                    );
-                    return new ShopWithDistance(shopMapper.toResponse(shop), distance);
-                })
-                .filter(result -> result.distanceKm() <= radiusKm)
-                .sorted(Comparator.comparingDouble(ShopWithDistance::distanceKm))
-                .collect(Collectors.toList());
-
-        log.debug("Found {} shops within {} km radius", nearbyShops.size(), radiusKm);
-
-        // Apply pagination
-        return paginateList(nearbyShops, pageable);
+        return page(shopCandidates(lat, lng, radiusKm), pageable, this::loadShops);
     }
 
     /**
@@ -96,40 +91,61 @@ public class GeoService {
     @Transactional(readOnly = true)
     public Page<BasketWithDistance> findNearbyBaskets(double lat, double lng, double radiusKm, Pageable pageable) {
         log.debug("Searching baskets near ({}, {}) within {} km", lat, lng, radiusKm);
+        return page(basketCandidates(lat, lng, radiusKm), pageable, this::loadBaskets);
+    }
 
-        // Calculate bounding box for pre-filtering
-        GeoUtils.BoundingBox bbox = GeoUtils.calculateBoundingBox(lat, lng, radiusKm);
+    /**
+     * Filtered nearby basket search, sorted by distance, with facet counts over all matches.
+     * Filters are applied on the cached candidates, so only the returned page is loaded.
+     */
+    @Transactional(readOnly = true)
+    public BasketSearchResult searchNearbyBaskets(double lat, double lng, double radiusKm,
+                                                  BasketSearchFilter filter, Pageable pageable) {
+        log.debug("Searching baskets near ({}, {}) within {} km matching {}", lat, lng, radiusKm, filter);
+        Ni3maProperties.GeoProperties geo = ni3maProperties.getGeo();
+        BasketFacets.Counter facets = new BasketFacets.Counter(geo.getFacetPriceBands(), ZoneId.of(geo.getFacetTimeZone()));
 
-        // Query baskets with shop in bounding box
-        List<Basket> basketsInBox = basketRepository.findAvailableBasketsInBoundingBox(
-                bbox.minLatDecimal(),
-                bbox.maxLatDecimal(),
-                bbox.minLngDecimal(),
-                bbox.maxLngDecimal(),
-                Instant.now()
-        );
+        Page<BasketWithDistance> results = page(visitor -> geoResultCache
+                .get(GeoResultCache.Endpoint.BASKETS, lat, lng, radiusKm, this::loadBasketCandidates)
+                .visitMatching(lat, lng, radiusKm, Instant.now(), filter,
+                        (id, shopId, distanceKm, priceOriginal, priceDiscount, pickupStart, pickupEnd) -> {
+                            facets.add(priceDiscount, pickupStart);
+                            visitor.accept(id, distanceKm);
+                        }), pageable, this::loadBaskets);
+        return new BasketSearchResult(results, facets.toFacets());
+    }
 
-        log.debug("Found {} baskets in bounding box", basketsInBox.size());
+    /**
+     * Nearby baskets ordered by relevance (see {@link RankingScorer}) instead of distance alone.
+     * Scores come from the cached candidates and in-memory shop ratings; only the page is loaded.
+     */
+    @Transactional(readOnly = true)
+    public Page<RankedBasket> findRankedBaskets(double lat, double lng, double radiusKm, Pageable pageable) {
+        log.debug("Ranking baskets near ({}, {}) within {} km", lat, lng, radiusKm);
+        RankingScorer scorer = new RankingScorer(ni3maProperties.getGeo().getRanking());
+        int k = pageable.isUnpaged()
+                ? Integer.MAX_VALUE
+                : (int) Math.min(Integer.MAX_VALUE, pageable.getOffset() + pageable.getPageSize());
+        TopKScores top = new TopKScores(k);
+        long now = System.currentTimeMillis();
 
-        // Calculate exact distance and filter by radius
-        List<BasketWithDistance> nearbyBaskets = basketsInBox.stream()
-                .filter(basket -> basket.getShop().getLatitude() != null && basket.getShop().getLongitude() != null)
-                .map(basket -> {
-                    double distance = GeoUtils.haversineDistance(
-                            lat, lng,
-                            basket.getShop().getLatitude().doubleValue(),
-                            basket.getShop().getLongitude().doubleValue()
-                    );
-                    return new BasketWithDistance(basketMapper.toResponse(basket), distance);
-                })
-                .filter(result -> result.distanceKm() <= radiusKm)
-                .sorted(Comparator.comparingDouble(BasketWithDistance::distanceKm))
-                .collect(Collectors.toList());
+        geoResultCache.get(GeoResultCache.Endpoint.BASKETS, lat, lng, radiusKm, this::loadBasketCandidates)
+                .visitMatching(lat, lng, radiusKm, Instant.ofEpochMilli(now), null,
+                        (id, shopId, distanceKm, priceOriginal, priceDiscount, pickupStart, pickupEnd) ->
+                                top.accept(id, distanceKm, scorer.score(distanceKm, radiusKm,
+                                        shopRatingIndex.ratingOf(shopId), priceOriginal, priceDiscount, pickupEnd, now)));
 
-        log.debug("Found {} baskets within {} km radius", nearbyBaskets.size(), radiusKm);
+        List<TopKScores.ScoredHit> hits = top.toSortedList();
+        int start = pageable.isUnpaged() ? 0 : (int) Math.min(pageable.getOffset(), hits.size());
+        List<TopKScores.ScoredHit> pageHits = hits.subList(start, hits.size());
+        Map<UUID, Double> scores = new HashMap<>();
+        pageHits.forEach(hit -> scores.put(hit.id(), hit.score()));
 
-        // Apply pagination
-        return paginateList(nearbyBaskets, pageable);
+        List<RankedBasket> content = loadBaskets(pageHits.stream().map(TopKScores.ScoredHit::toGeoHit).toList())
+                .stream()
+                .map(b -> new RankedBasket(b.basket(), b.distanceKm(), scores.get(b.basket().getId())))
+                .toList();
+        return new PageImpl<>(content, pageable, top.matched());
     }
 
     /**
@@ -138,54 +154,306 @@ public class GeoService {
     @Transactional(readOnly = true)
     public Page<ShopWithDistance> findShopsWithAvailableBaskets(double lat, double lng, double radiusKm, Pageable pageable) {
         log.debug("Searching shops with baskets near ({}, {}) within {} km", lat, lng, radiusKm);
+        return page(shopWithBasketsCandidates(lat, lng, radiusKm), pageable, this::loadShops);
+    }
 
-        GeoUtils.BoundingBox bbox = GeoUtils.calculateBoundingBox(lat, lng, radiusKm);
+    /**
+     * K-nearest shops after the cursor (null for the first page).
+     */
+    @Transactional(readOnly = true)
+    public NearbySlice<ShopWithDistance> findNearestShops(double lat, double lng, double radiusKm,
+                                                          GeoCursor after, int limit) {
+        return slice(shopCandidates(lat, lng, radiusKm), after, limit, this::loadShops);
+    }
+
+    /**
+     * K-nearest available baskets after the cursor (null for the first page).
+     */
+    @Transactional(readOnly = true)
+    public NearbySlice<BasketWithDistance> findNearestBaskets(double lat, double lng, double radiusKm,
+                                                              GeoCursor after, int limit) {
+        return slice(basketCandidates(lat, lng, radiusKm), after, limit, this::loadBaskets);
+    }
 
-        List<Shop> shopsInBox = shopRepository.findActiveShopsWithBasketsInBoundingBox(
-                bbox.minLatDecimal(),
-                bbox.maxLatDecimal(),
-                bbox.minLngDecimal(),
-                bbox.maxLngDecimal(),
-                Instant.now()
-        );
+    /**
+     * K-nearest shops with available baskets after the cursor (null for the first page).
+     */
+    @Transactional(readOnly = true)
+    public NearbySlice<ShopWithDistance> findNearestShopsWithAvailableBaskets(double lat, double lng, double radiusKm,
+                                                                              GeoCursor after, int limit) {
+        return slice(shopWithBasketsCandidates(lat, lng, radiusKm), after, limit, this::loadShops);
+    }
+
+    /**
+     * The count nearest available baskets within maxRadiusKm, found by scanning index rings
+     * outward from the center until count baskets are known to be the nearest ones.
+     * Available baskets are only queried for the shops of each new ring.
+     */
+    @Transactional(readOnly = true)
+    public NearestBaskets findNearestAvailableBaskets(double lat, double lng, int count, double maxRadiusKm) {
+        Instant now = Instant.now();
+        List<GeoHit> candidates = new ArrayList<>();
+        double coveredKm = 0;
 
-        List<ShopWithDistance> nearbyShops = shopsInBox.stream()
-                .filter(shop -> shop.getLatitude() != null && shop.getLongitude() != null)
-                .map(shop -> {
-                    double distance = GeoUtils.haversineDistance(
-                            lat, lng,
-                            shop.getLatitude().doubleValue(),
-                            shop.getLongitude().doubleValue()
-                    );
-                    return new ShopWithDistance(shopMapper.toResponse(shop), distance);
-                })
-                .filter(result -> result.distanceKm() <= radiusKm)
-                .sorted(Comparator.comparingDouble(ShopWithDistance::distanceKm))
-                .collect(Collectors.toList());
+        for (int ring = 0; coveredKm < maxRadiusKm; ring++) {
+            Map<UUID, Double> ringShops = new HashMap<>();
+            boolean more = shopGeoIndex.visitRing(lat, lng, ring, (shopId, shopLat, shopLng, distanceKm) -> {
+                if (distanceKm <= maxRadiusKm && basketAvailabilityIndex.availableCount(shopId, now) > 0) {
+                    ringShops.put(shopId, distanceKm);
+                }
+            });
+            if (!ringShops.isEmpty()) {
+                for (AvailableBasketRef ref : basketRepository.findAvailableBasketRefsForShops(ringShops.keySet(), now)) {
+                    candidates.add(new GeoHit(ref.basketId(), ringShops.get(ref.shopId())));
+                }
+            }
 
-        return paginateList(nearbyShops, pageable);
+            coveredKm = more ? shopGeoIndex.ringCoverageKm(lat, ring) : Double.MAX_VALUE;
+            double covered = coveredKm;
+            if (candidates.stream().filter(hit -> hit.distanceKm() <= covered).count() >= count) {
+                break;
+            }
+        }
+
+        TopKHits top = new TopKHits(count, null);
+        candidates.forEach(hit -> top.accept(hit.id(), hit.distanceKm()));
+        log.debug("Nearest {} baskets around ({}, {}): {} candidates within {} km",
+                count, lat, lng, candidates.size(), Math.min(coveredKm, maxRadiusKm));
+
+        return new NearestBaskets(loadBaskets(top.toSortedList()), Math.min(coveredKm, maxRadiusKm));
+    }
+
+    /**
+     * Shop clusters of a map viewport: active shops grouped into grid cells sized after the zoom level
+     * (CLUSTER_CELLS_PER_TILE cells across a 256 px map tile), with their available basket counts.
+     * Viewports wider than MAX_CLUSTER_VIEWPORT_TILES tiles at that zoom are rejected, which bounds
+     * the number of clusters returned.
+     */
+    @Transactional(readOnly = true)
+    public List<ShopCluster> findClusters(double minLat, double maxLat, double minLng, double maxLng, int zoom) {
+        if (zoom < 0 || zoom > MAX_ZOOM) {
+            throw new BadRequestException("zoom must be between 0 and " + MAX_ZOOM);
+        }
+        if (!GeoUtils.isValidCoordinate(minLat, minLng) || !GeoUtils.isValidCoordinate(maxLat, maxLng)
+                || minLat > maxLat || minLng > maxLng) {
+            throw new BadRequestException("Invalid viewport");
+        }
+        double tileDegrees = 360.0 / (1L << zoom);
+        if (maxLat - minLat > tileDegrees * MAX_CLUSTER_VIEWPORT_TILES
+                || maxLng - minLng > tileDegrees * MAX_CLUSTER_VIEWPORT_TILES) {
+            throw new BadRequestException("Viewport too large for zoom " + zoom);
+        }
+
+        double cellDegrees = tileDegrees / CLUSTER_CELLS_PER_TILE;
+        long lngCells = (long) Math.ceil(360.0 / cellDegrees) + 1;
+        Map<Long, ClusterAccumulator> clusters = new HashMap<>();
+        Instant now = Instant.now();
+
+        shopGeoIndex.visitInBox(minLat, maxLat, minLng, maxLng, (shopId, lat, lng) -> {
+            long cell = (long) Math.floor((lat + 90.0) / cellDegrees) * lngCells
+                    + (long) Math.floor((lng + 180.0) / cellDegrees);
+            clusters.computeIfAbsent(cell, k -> new ClusterAccumulator())
+                    .add(shopId, lat, lng, basketAvailabilityIndex.availableCount(shopId, now));
+        });
+
+        return clusters.values().stream()
+                .map(ClusterAccumulator::toCluster)
+                .sorted(Comparator.comparingInt(ShopCluster::shopCount).reversed())
+                .toList();
     }
 
     /**
-     * Helper method to paginate a list.
+     * Available baskets whose shop lies within bufferKm of a route given as an encoded polyline,
+     * ordered by how far along the route the shop is reached.
+     * Each segment's buffered bounding box is looked up in the shop index; the exact
+     * point-to-segment distance is only computed for shops inside a box that have baskets.
      */
-    private <T> Page<T> paginateList(List<T> list, Pageable pageable) {
-        int start = (int) pageable.getOffset();
-        int end = Math.min(start + pageable.getPageSize(), list.size());
+    @Transactional(readOnly = true)
+    public Page<RouteBasket> findBasketsAlongRoute(String polyline, double bufferKm, Pageable pageable) {
+        if (bufferKm <= 0 || bufferKm > MAX_ROUTE_BUFFER_KM) {
+            throw new BadRequestException("bufferKm must be between 0 and " + MAX_ROUTE_BUFFER_KM);
+        }
+        Route route = decodeRoute(polyline);
+        Instant now = Instant.now();
 
-        if (start > list.size()) {
-            return new PageImpl<>(List.of(), pageable, list.size());
+        Map<UUID, Route.Projection> shops = new HashMap<>();
+        for (int i = 0; i < route.segmentCount(); i++) {
+            int segment = i;
+            GeoUtils.BoundingBox box = route.segmentBox(segment, bufferKm);
+            shopGeoIndex.visitInBox(box.minLat(), box.maxLat(), box.minLng(), box.maxLng(), (shopId, lat, lng) -> {
+                if (basketAvailabilityIndex.availableCount(shopId, now) == 0) {
+                    return;
+                }
+                Route.Projection projection = route.project(segment, lat, lng);
+                Route.Projection best = shops.get(shopId);
+                if (projection.distanceKm() <= bufferKm
+                        && (best == null || projection.distanceKm() < best.distanceKm())) {
+                    shops.put(shopId, projection);
+                }
+            });
         }
+        log.debug("Route of {} km with {} km buffer: {} shops with baskets", route.lengthKm(), bufferKm, shops.size());
+        if (shops.isEmpty()) {
+            return Page.empty(pageable);
+        }
+
+        List<AvailableBasketRef> baskets = basketRepository.findAvailableBasketRefsForShops(shops.keySet(), now);
+        // Ranked by offset along the route, reusing the distance heap
+        return page(visitor -> baskets.forEach(ref -> visitor.accept(ref.basketId(), shops.get(ref.shopId()).offsetKm())),
+                pageable,
+                hits -> loadBaskets(hits).stream()
+                        .map(b -> new RouteBasket(b.basket(), shops.get(b.basket().getShopId()).distanceKm(), b.distanceKm()))
+                        .toList());
+    }
+
+    // ==================== Internal Methods ====================
+
+    private Route decodeRoute(String polyline) {
+        List<GeoPoint> points;
+        try {
+            points = PolylineCodec.decode(polyline);
+        } catch (IllegalArgumentException ex) {
+            throw new BadRequestException("Invalid polyline: " + ex.getMessage());
+        }
+        if (points.size() < 2 || points.size() > MAX_ROUTE_POINTS) {
+            throw new BadRequestException("Route must have between 2 and " + MAX_ROUTE_POINTS + " points");
+        }
+        for (GeoPoint point : points) {
+            if (!GeoUtils.isValidCoordinate(point.lat(), point.lng())) {
+                throw new BadRequestException("Invalid polyline: coordinates out of range");
+            }
+        }
+        Route route = new Route(points);
+        if (route.crossesAntimeridian()) {
+            throw new BadRequestException("Routes crossing the antimeridian are not supported");
+        }
+        return route;
+    }
+
+    private Consumer<GeoGrid.HitVisitor> shopCandidates(double lat, double lng, double radiusKm) {
+        return visitor -> shopGeoIndex.visitWithin(lat, lng, radiusKm, visitor);
+    }
 
-        return new PageImpl<>(list.subList(start, end), pageable, list.size());
+    /**
+     * Available baskets of the shops in range, each at its shop's distance.
+     */
+    private Consumer<GeoGrid.HitVisitor> basketCandidates(double lat, double lng, double radiusKm) {
+        return visitor -> geoResultCache
+                .get(GeoResultCache.Endpoint.BASKETS, lat, lng, radiusKm, this::loadBasketCandidates)
+                .visitWithin(lat, lng, radiusKm, Instant.now(), visitor);
     }
 
     /**
-     * Record for shop with distance.
+     * Shops in range filtered on the in-memory availability index.
+     */
+    private Consumer<GeoGrid.HitVisitor> shopWithBasketsCandidates(double lat, double lng, double radiusKm) {
+        Instant now = Instant.now();
+        return visitor -> shopGeoIndex.visitWithin(lat, lng, radiusKm, (shopId, distanceKm) -> {
+            if (basketAvailabilityIndex.availableCount(shopId, now) > 0) {
+                visitor.accept(shopId, distanceKm);
+            }
+        });
+    }
+
+    private GeoCandidates loadBasketCandidates(GeoResultCache.CellQuery query) {
+        GeoCandidates.Builder candidates = GeoCandidates.builder(query.center(), query.radiusKm());
+        Map<UUID, GeoPoint> shops = shopsWithin(query);
+        if (!shops.isEmpty()) {
+            for (AvailableBasketRef ref : basketRepository.findAvailableBasketRefsForShops(shops.keySet(), Instant.now())) {
+                candidates.addBasket(ref, shops.get(ref.shopId()));
+            }
+        }
+        return candidates.build();
+    }
+
+    private Map<UUID, GeoPoint> shopsWithin(GeoResultCache.CellQuery query) {
+        Map<UUID, GeoPoint> shops = new HashMap<>();
+        shopGeoIndex.visitPointsWithin(query.center().lat(), query.center().lng(), query.radiusKm(),
+                (id, lat, lng, distanceKm) -> shops.put(id, new GeoPoint(lat, lng)));
+        return shops;
+    }
+
+    /**
+     * Offset page: keeps only the offset + size nearest hits and maps the last size of them.
+     */
+    private <T> Page<T> page(Consumer<GeoGrid.HitVisitor> candidates, Pageable pageable,
+                             Function<List<GeoHit>, List<T>> loader) {
+        int k = pageable.isUnpaged()
+                ? Integer.MAX_VALUE
+                : (int) Math.min(Integer.MAX_VALUE, pageable.getOffset() + pageable.getPageSize());
+        TopKHits top = new TopKHits(k, null);
+        candidates.accept(top);
+
+        List<GeoHit> hits = top.toSortedList();
+        int start = pageable.isUnpaged() ? 0 : (int) Math.min(pageable.getOffset(), hits.size());
+        return new PageImpl<>(loader.apply(hits.subList(start, hits.size())), pageable, top.matched());
+    }
+
+    /**
+     * Cursor slice: keeps only the limit nearest hits after the cursor.
+     */
+    private <T> NearbySlice<T> slice(Consumer<GeoGrid.HitVisitor> candidates, GeoCursor after, int limit,
+                                     Function<List<GeoHit>, List<T>> loader) {
+        TopKHits top = new TopKHits(limit, after);
+        candidates.accept(top);
+
+        List<GeoHit> hits = top.toSortedList();
+        GeoCursor next = top.hasMore() ? GeoCursor.of(hits.get(hits.size() - 1)) : null;
+        return new NearbySlice<>(loader.apply(hits), next);
+    }
+
+    /**
+     * Loads the shops of the given hits, keeping the hit order.
+     * Shops deactivated since they were indexed are dropped.
+     */
+    private List<ShopWithDistance> loadShops(List<GeoHit> hits) {
+        if (hits.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, Shop> shops = shopRepository.findAllWithOwnerByIdIn(hits.stream().map(GeoHit::id).toList())
+                .stream()
+                .collect(Collectors.toMap(Shop::getId, Function.identity()));
+
+        Instant now = Instant.now();
+        List<ShopWithDistance> result = new ArrayList<>(hits.size());
+        for (GeoHit hit : hits) {
+            Shop shop = shops.get(hit.id());
+            if (shop != null && shop.getStatus() == ShopStatus.ACTIVE) {
+                result.add(new ShopWithDistance(shopMapper.toResponse(shop), hit.distanceKm(),
+                        basketAvailabilityIndex.availableCount(shop.getId(), now)));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Loads the baskets of the given hits (with shop and images), keeping the hit order.
+     */
+    private List<BasketWithDistance> loadBaskets(List<GeoHit> hits) {
+        if (hits.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, Basket> baskets = basketRepository.findAllWithShopAndImagesByIdIn(hits.stream().map(GeoHit::id).toList())
+                .stream()
+                .collect(Collectors.toMap(Basket::getId, Function.identity()));
+
+        List<BasketWithDistance> result = new ArrayList<>(hits.size());
+        for (GeoHit hit : hits) {
+            Basket basket = baskets.get(hit.id());
+            if (basket != null && basket.getStatus() == BasketStatus.PUBLISHED) {
+                result.add(new BasketWithDistance(basketMapper.toResponse(basket), hit.distanceKm()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Record for shop with distance and its number of available baskets.
      */
     public record ShopWithDistance(
             ShopResponse shop,
-            double distanceKm
+            double distanceKm,
+            int availableBasketCount
     ) {}
 
     /**
@@ -195,5 +463,82 @@ public class GeoService {
             BasketResponse basket,
             double distanceKm
     ) {}
+
+    /**
+     * Record for a basket along a route: distance of its shop from the route and offset
+     * along the route (from the first point) of the route point nearest to the shop.
+     */
+    public record RouteBasket(
+            BasketResponse basket,
+            double distanceKm,
+            double routeOffsetKm
+    ) {}
+
+    /**
+     * Record for a basket with its distance and relevance score (0-1).
+     */
+    public record RankedBasket(
+            BasketResponse basket,
+            double distanceKm,
+            double score
+    ) {}
+
+    /**
+     * Record for a filtered basket search page and its facets.
+     */
+    public record BasketSearchResult(
+            Page<BasketWithDistance> results,
+            BasketFacets facets
+    ) {}
+
+    /**
+     * Record for a nearest-baskets search; searchedRadiusKm is the radius fully scanned.
+     */
+    public record NearestBaskets(
+            List<BasketWithDistance> baskets,
+            double searchedRadiusKm
+    ) {}
+
+    /**
+     * Record for a map cluster; shopId is only set when the cluster holds a single shop.
+     */
+    public record ShopCluster(
+            double latitude,
+            double longitude,
+            int shopCount,
+            long availableBasketCount,
+            UUID shopId
+    ) {}
+
+    private static final class ClusterAccumulator {
+        private double latSum;
+        private double lngSum;
+        private int shopCount;
+        private long availableBaskets;
+        private UUID firstShopId;
+
+        void add(UUID shopId, double lat, double lng, int availableBasketCount) {
+            if (shopCount == 0) {
+                firstShopId = shopId;
+            }
+            latSum += lat;
+            lngSum += lng;
+            shopCount++;
+            availableBaskets += availableBasketCount;
+        }
+
+        ShopCluster toCluster() {
+            return new ShopCluster(latSum / shopCount, lngSum / shopCount, shopCount, availableBaskets,
+                    shopCount == 1 ? firstShopId : null);
+        }
+    }
+
+    /**
+     * Distance-ordered slice with the cursor of its last item, null when there is nothing after it.
+     */
+    public record NearbySlice<T>(
+            List<T> content,
+            GeoCursor nextCursor
+    ) {}
 }
 
@@ -0,0 +1,18 @@
+package neyan.tech.ni3ma_backend.common.geo;
+
+import java.util.List;
+
+/**
+ * Page of a keyset-paginated nearby search.
+ * Pass nextCursor as the cursor parameter to get the following page; null on the last page.
+ */
+public record NearbyCursorPage<T>(
+        List<T> content,
+        String nextCursor
+) {
+
+    public static <T> NearbyCursorPage<T> of(GeoService.NearbySlice<T> slice, GeoCursorToken token) {
+        String next = slice.nextCursor() != null ? token.next(slice.nextCursor()).encode() : null;
+        return new NearbyCursorPage<>(slice.content(), next);
+    }
+}
@@ -0,0 +1,73 @@
+package neyan.tech.ni3ma_backend.common.geo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Encoded polyline format (precision 1e5), as produced by common routing and map SDKs.
+ */
+public final class PolylineCodec {
+
+    private static final double PRECISION = 1e5;
+
+    private PolylineCodec() {
+    }
+
+    /**
+     * @throws IllegalArgumentException if the string is not a valid encoded polyline
+     */
+    public static List<GeoPoint> decode(String encoded) {
+        List<GeoPoint> points = new ArrayList<>();
+        int[] position = {0};
+        long lat = 0;
+        long lng = 0;
+        while (position[0] < encoded.length()) {
+            lat += decodeValue(encoded, position);
+            lng += decodeValue(encoded, position);
+            points.add(new GeoPoint(lat / PRECISION, lng / PRECISION));
+        }
+        return points;
+    }
+
+    public static String encode(List<GeoPoint> points) {
+        StringBuilder encoded = new StringBuilder();
+        long lastLat = 0;
+        long lastLng = 0;
+        for (GeoPoint point : points) {
+            long lat = Math.round(point.lat() * PRECISION);
+            long lng = Math.round(point.lng() * PRECISION);
+            encodeValue(lat - lastLat, encoded);
+            encodeValue(lng - lastLng, encoded);
+            lastLat = lat;
+            lastLng = lng;
+        }
+        return encoded.toString();
+    }
+
+    private static long decodeValue(String encoded, int[] position) {
+        long result = 0;
+        int shift = 0;
+        int chunk;
+        do {
+            if (position[0] >= encoded.length() || shift > 30) {
+                throw new IllegalArgumentException("Truncated or malformed polyline");
+            }
+            chunk = encoded.charAt(position[0]++) - 63;
+            if (chunk < 0 || chunk > 63) {
+                throw new IllegalArgumentException("Invalid polyline character at " + (position[0] - 1));
+            }
+            result |= (long) (chunk & 0x1f) << shift;
+            shift += 5;
+        } while (chunk >= 0x20);
+        return (result & 1) != 0 ? ~(result >> 1) : result >> 1;
+    }
+
+    private static void encodeValue(long value, StringBuilder out) {
+        long shifted = value < 0 ? ~(value << 1) : value << 1;
+        while (shifted >= 0x20) {
+            out.append((char) ((0x20 | (shifted & 0x1f)) + 63));
+            shifted >>= 5;
+        }
+        out.append((char) (shifted + 63));
+    }
+}
@@ -0,0 +1,54 @@
+package neyan.tech.ni3ma_backend.common.geo;
+
+import neyan.tech.ni3ma_backend.common.config.Ni3maProperties;
+
+/**
+ * Relevance score of a basket: weighted sum of four terms, each normalized to [0, 1].
+ * <ul>
+ *   <li>nearness: 1 at the center, 0 at the search radius</li>
+ *   <li>rating: shop average rating mapped from 1-5 (default rating when unrated)</li>
+ *   <li>discount: fraction of the original price taken off</li>
+ *   <li>urgency: 1 when pickup is ending, 0 at or beyond the urgency horizon</li>
+ * </ul>
+ * The result is divided by the weight sum, so scores are in [0, 1].
+ */
+public final class RankingScorer {
+
+    private final double distanceWeight;
+    private final double ratingWeight;
+    private final double discountWeight;
+    private final double urgencyWeight;
+    private final double weightSum;
+    private final double horizonMillis;
+    private final double defaultRating;
+
+    public RankingScorer(Ni3maProperties.RankingProperties properties) {
+        this.distanceWeight = properties.getDistanceWeight();
+        this.ratingWeight = properties.getRatingWeight();
+        this.discountWeight = properties.getDiscountWeight();
+        this.urgencyWeight = properties.getUrgencyWeight();
+        this.weightSum = distanceWeight + ratingWeight + discountWeight + urgencyWeight;
+        if (distanceWeight < 0 || ratingWeight < 0 || discountWeight < 0 || urgencyWeight < 0 || weightSum <= 0) {
+            throw new IllegalArgumentException("Ranking weights must be non-negative with a positive sum");
+        }
+        this.horizonMillis = properties.getUrgencyHorizonMinutes() * 60_000.0;
+        this.defaultRating = properties.getDefaultRating();
+    }
+
+    /**
+     * @param rating shop average rating, NaN if the shop has no review
+     */
+    public double score(double distanceKm, double radiusKm, double rating,
+                        double priceOriginal, double priceDiscount, long pickupEndMillis, long nowMillis) {
+        double nearness = radiusKm > 0 ? 1 - clamp(distanceKm / radiusKm) : 1;
+        double ratingTerm = clamp(((Double.isNaN(rating) ? defaultRating : rating) - 1) / 4);
+        double discount = priceOriginal > 0 ? clamp((priceOriginal - priceDiscount) / priceOriginal) : 0;
+        double urgency = horizonMillis > 0 ? 1 - clamp((pickupEndMillis - nowMillis) / horizonMillis) : 0;
+        return (distanceWeight * nearness + ratingWeight * ratingTerm
+                + discountWeight * discount + urgencyWeight * urgency) / weightSum;
+    }
+
+    private static double clamp(double value) {
+        return value < 0 ? 0 : Math.min(value, 1);
+    }
+}
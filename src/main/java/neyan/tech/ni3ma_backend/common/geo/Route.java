@@ -0,0 +1,107 @@
+package neyan.tech.ni3ma_backend.common.geo;
+
+import java.util.List;
+
+/**
+ * Polyline of points with exact (spherical) point-to-segment distances.
+ * Segment offsets along the route are precomputed so a projection also tells
+ * how far along the route the nearest point lies.
+ */
+public final class Route {
+
+    private final double[] lats;
+    private final double[] lngs;
+    private final double[] offsetsKm;
+
+    public Route(List<GeoPoint> points) {
+        if (points.size() < 2) {
+            throw new IllegalArgumentException("A route needs at least 2 points");
+        }
+        int size = points.size();
+        this.lats = new double[size];
+        this.lngs = new double[size];
+        this.offsetsKm = new double[size];
+        for (int i = 0; i < size; i++) {
+            lats[i] = points.get(i).lat();
+            lngs[i] = points.get(i).lng();
+            if (i > 0) {
+                offsetsKm[i] = offsetsKm[i - 1]
+                        + GeoUtils.haversineDistance(lats[i - 1], lngs[i - 1], lats[i], lngs[i]);
+            }
+        }
+    }
+
+    public int segmentCount() {
+        return lats.length - 1;
+    }
+
+    public double lengthKm() {
+        return offsetsKm[offsetsKm.length - 1];
+    }
+
+    /**
+     * Box around segment i containing every point within bufferKm of it.
+     * Longitudes are not wrapped; callers reject routes crossing the antimeridian.
+     */
+    public GeoUtils.BoundingBox segmentBox(int i, double bufferKm) {
+        double latDelta = bufferKm * GeoUtils.DEGREES_PER_KM_LAT;
+        double minLat = Math.min(lats[i], lats[i + 1]) - latDelta;
+        double maxLat = Math.max(lats[i], lats[i + 1]) + latDelta;
+        // Longitude degrees are shortest at the most poleward latitude of the box
+        double cosLat = Math.cos(Math.toRadians(Math.min(89.0, Math.max(Math.abs(minLat), Math.abs(maxLat)))));
+        double lngDelta = bufferKm / (111.0 * cosLat);
+        return new GeoUtils.BoundingBox(minLat, maxLat,
+                Math.min(lngs[i], lngs[i + 1]) - lngDelta, Math.max(lngs[i], lngs[i + 1]) + lngDelta);
+    }
+
+    /**
+     * True if some segment spans more than 180 degrees of longitude.
+     */
+    public boolean crossesAntimeridian() {
+        for (int i = 0; i < segmentCount(); i++) {
+            if (Math.abs(lngs[i + 1] - lngs[i]) > 180.0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Nearest point of segment i to (lat, lng): cross-track distance when the perpendicular
+     * foot falls inside the segment, distance to the nearer endpoint otherwise.
+     */
+    public Projection project(int i, double lat, double lng) {
+        double distanceFromStart = GeoUtils.haversineDistance(lats[i], lngs[i], lat, lng);
+        double segmentKm = offsetsKm[i + 1] - offsetsKm[i];
+        if (segmentKm == 0) {
+            return new Projection(distanceFromStart, offsetsKm[i]);
+        }
+
+        double angularFromStart = distanceFromStart / GeoUtils.EARTH_RADIUS_KM;
+        double bearingDelta = bearing(lats[i], lngs[i], lat, lng) - bearing(lats[i], lngs[i], lats[i + 1], lngs[i + 1]);
+        if (Math.cos(bearingDelta) <= 0) {
+            // Behind the start point
+            return new Projection(distanceFromStart, offsetsKm[i]);
+        }
+        double crossTrack = Math.asin(Math.sin(angularFromStart) * Math.sin(bearingDelta));
+        double alongKm = GeoUtils.EARTH_RADIUS_KM
+                * Math.acos(Math.min(1.0, Math.cos(angularFromStart) / Math.cos(crossTrack)));
+        if (alongKm >= segmentKm) {
+            return new Projection(GeoUtils.haversineDistance(lats[i + 1], lngs[i + 1], lat, lng), offsetsKm[i + 1]);
+        }
+        return new Projection(Math.abs(crossTrack) * GeoUtils.EARTH_RADIUS_KM, offsetsKm[i] + alongKm);
+    }
+
+    private static double bearing(double fromLat, double fromLng, double toLat, double toLng) {
+        double phi1 = Math.toRadians(fromLat);
+        double phi2 = Math.toRadians(toLat);
+        double deltaLambda = Math.toRadians(toLng - fromLng);
+        return Math.atan2(Math.sin(deltaLambda) * Math.cos(phi2),
+                Math.cos(phi1) * Math.sin(phi2) - Math.sin(phi1) * Math.cos(phi2) * Math.cos(deltaLambda));
+    }
+
+    /**
+     * Distance from the route and offset along it (from the first point) of the nearest route point.
+     */
+    public record Projection(double distanceKm, double offsetKm) {}
+}
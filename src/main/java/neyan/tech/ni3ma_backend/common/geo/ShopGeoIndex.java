@@ -0,0 +1,181 @@
+package neyan.tech.ni3ma_backend.common.geo;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import neyan.tech.ni3ma_backend.common.config.Ni3maProperties;
+import neyan.tech.ni3ma_backend.shop.dto.ShopLocation;
+import neyan.tech.ni3ma_backend.shop.event.ShopChangedEvent;
+import neyan.tech.ni3ma_backend.shop.repository.ShopRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory spatial index of ACTIVE shops with coordinates.
+ * <p>
+ * Loaded at startup, kept in sync with {@link ShopChangedEvent} (after commit)
+ * and fully rebuilt periodically as a safety net.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ShopGeoIndex {
+
+    private final ShopRepository shopRepository;
+    private final Ni3maProperties ni3maProperties;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private GeoGrid grid;
+    private List<ShopChangedEvent> changesDuringReload;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reload();
+    }
+
+    @Scheduled(fixedDelayString = "${ni3ma.geo.index-refresh-ms:300000}",
+               initialDelayString = "${ni3ma.geo.index-refresh-ms:300000}")
+    public void reload() {
+        lock.writeLock().lock();
+        try {
+            changesDuringReload = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        GeoGrid fresh = new GeoGrid(ni3maProperties.getGeo().getIndexCellDegrees());
+        List<ShopLocation> locations;
+        try {
+            locations = shopRepository.findActiveShopLocations();
+        } catch (RuntimeException ex) {
+            lock.writeLock().lock();
+            try {
+                changesDuringReload = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw ex;
+        }
+        for (ShopLocation location : locations) {
+            fresh.put(location.id(), location.latitude().doubleValue(), location.longitude().doubleValue());
+        }
+
+        lock.writeLock().lock();
+        try {
+            // Changes committed while we were reading may be missing from the snapshot
+            changesDuringReload.forEach(change -> apply(fresh, change));
+            changesDuringReload = null;
+            grid = fresh;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Shop geo index loaded with {} active shops", fresh.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onShopChanged(ShopChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (changesDuringReload != null) {
+                changesDuringReload.add(event);
+            }
+            if (grid != null) {
+                apply(grid, event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void visitWithin(double lat, double lng, double radiusKm, GeoGrid.HitVisitor visitor) {
+        lock.readLock().lock();
+        try {
+            if (grid != null) {
+                grid.visitWithin(lat, lng, radiusKm, visitor);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void visitPointsWithin(double lat, double lng, double radiusKm, GeoGrid.PointVisitor visitor) {
+        lock.readLock().lock();
+        try {
+            if (grid != null) {
+                grid.visitPointsWithin(lat, lng, radiusKm, visitor);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void visitInBox(double minLat, double maxLat, double minLng, double maxLng,
+                           GeoGrid.LocationVisitor visitor) {
+        lock.readLock().lock();
+        try {
+            if (grid != null) {
+                grid.visitInBox(minLat, maxLat, minLng, maxLng, visitor);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * See {@link GeoGrid#visitRing}; false once there is nothing left to visit.
+     */
+    public boolean visitRing(double lat, double lng, int ring, GeoGrid.PointVisitor visitor) {
+        lock.readLock().lock();
+        try {
+            return grid != null && grid.visitRing(lat, lng, ring, visitor);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public double ringCoverageKm(double lat, int ring) {
+        lock.readLock().lock();
+        try {
+            return grid != null ? grid.ringCoverageKm(lat, ring) : Double.MAX_VALUE;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(UUID shopId) {
+        lock.readLock().lock();
+        try {
+            return grid != null && grid.contains(shopId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Location of an indexed (active) shop, or null.
+     */
+    public GeoPoint locate(UUID shopId) {
+        lock.readLock().lock();
+        try {
+            return grid != null ? grid.locate(shopId) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void apply(GeoGrid target, ShopChangedEvent event) {
+        if (event.isSearchable()) {
+            target.put(event.shopId(), event.latitude().doubleValue(), event.longitude().doubleValue());
+        } else {
+            target.remove(event.shopId());
+        }
+    }
+}
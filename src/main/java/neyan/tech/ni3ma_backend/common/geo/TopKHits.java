@@ -0,0 +1,129 @@
+package neyan.tech.ni3ma_backend.common.geo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Keeps the k nearest hits seen so far in a bounded max-heap of (distance, id) pairs,
+ * so a query only sorts and maps the items it returns instead of every candidate.
+ * <p>
+ * Ordering matches {@link GeoHit#BY_DISTANCE}. Hits at or before the optional
+ * cursor are skipped. Not thread-safe.
+ */
+public class TopKHits implements GeoGrid.HitVisitor {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int k;
+    private final GeoCursor after;
+    private double[] distances;
+    private UUID[] ids;
+    private int size;
+    private long matched;
+
+    public TopKHits(int k, GeoCursor after) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("k must be positive: " + k);
+        }
+        this.k = k;
+        this.after = after;
+        int capacity = Math.min(k, INITIAL_CAPACITY);
+        this.distances = new double[capacity];
+        this.ids = new UUID[capacity];
+    }
+
+    @Override
+    public void accept(UUID id, double distanceKm) {
+        if (after != null && !after.precedes(distanceKm, id)) {
+            return;
+        }
+        matched++;
+        if (size < k) {
+            if (size == distances.length) {
+                int capacity = (int) Math.min(k, (long) size * 2);
+                distances = Arrays.copyOf(distances, capacity);
+                ids = Arrays.copyOf(ids, capacity);
+            }
+            distances[size] = distanceKm;
+            ids[size] = id;
+            siftUp(size++);
+        } else if (isBefore(distanceKm, id, 0)) {
+            // Nearer than the farthest kept hit: replace the root
+            distances[0] = distanceKm;
+            ids[0] = id;
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Number of hits after the cursor offered so far (kept or not).
+     */
+    public long matched() {
+        return matched;
+    }
+
+    /**
+     * True if more hits matched than fit in the heap, i.e. there is a next page.
+     */
+    public boolean hasMore() {
+        return matched > size;
+    }
+
+    /**
+     * The kept hits, nearest first.
+     */
+    public List<GeoHit> toSortedList() {
+        List<GeoHit> hits = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            hits.add(new GeoHit(ids[i], distances[i]));
+        }
+        hits.sort(GeoHit.BY_DISTANCE);
+        return hits;
+    }
+
+    private boolean isBefore(double distanceKm, UUID id, int index) {
+        int cmp = Double.compare(distanceKm, distances[index]);
+        return cmp < 0 || (cmp == 0 && id.compareTo(ids[index]) < 0);
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!isBefore(distances[parent], ids[parent], index)) {
+                return;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int largest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < size && isBefore(distances[largest], ids[largest], left)) {
+                largest = left;
+            }
+            if (right < size && isBefore(distances[largest], ids[largest], right)) {
+                largest = right;
+            }
+            if (largest == index) {
+                return;
+            }
+            swap(index, largest);
+            index = largest;
+        }
+    }
+
+    private void swap(int i, int j) {
+        double d = distances[i];
+        distances[i] = distances[j];
+        distances[j] = d;
+        UUID id = ids[i];
+        ids[i] = ids[j];
+        ids[j] = id;
+    }
+}
@@ -0,0 +1,146 @@
+package neyan.tech.ni3ma_backend.common.geo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Keeps the k best-scored hits seen so far in a bounded min-heap, the ranking counterpart
+ * of {@link TopKHits}: only the returned page is ever sorted and mapped.
+ * <p>
+ * Ordering matches {@link ScoredHit#BY_SCORE}. Not thread-safe.
+ */
+public class TopKScores {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int k;
+    private double[] scores;
+    private double[] distances;
+    private UUID[] ids;
+    private int size;
+    private long matched;
+
+    public TopKScores(int k) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("k must be positive: " + k);
+        }
+        this.k = k;
+        int capacity = Math.min(k, INITIAL_CAPACITY);
+        this.scores = new double[capacity];
+        this.distances = new double[capacity];
+        this.ids = new UUID[capacity];
+    }
+
+    public void accept(UUID id, double distanceKm, double score) {
+        matched++;
+        if (size < k) {
+            if (size == scores.length) {
+                int capacity = (int) Math.min(k, (long) size * 2);
+                scores = Arrays.copyOf(scores, capacity);
+                distances = Arrays.copyOf(distances, capacity);
+                ids = Arrays.copyOf(ids, capacity);
+            }
+            set(size, id, distanceKm, score);
+            siftUp(size++);
+        } else if (isBefore(score, distanceKm, id, 0)) {
+            // Better than the worst kept hit: replace the root
+            set(0, id, distanceKm, score);
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Number of hits offered so far (kept or not).
+     */
+    public long matched() {
+        return matched;
+    }
+
+    /**
+     * The kept hits, best first.
+     */
+    public List<ScoredHit> toSortedList() {
+        List<ScoredHit> hits = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            hits.add(new ScoredHit(ids[i], distances[i], scores[i]));
+        }
+        hits.sort(ScoredHit.BY_SCORE);
+        return hits;
+    }
+
+    /**
+     * Id of a ranked item with its distance and score.
+     */
+    public record ScoredHit(UUID id, double distanceKm, double score) {
+
+        /**
+         * Highest score first, then nearest, then id so the order is stable across pages.
+         */
+        public static final Comparator<ScoredHit> BY_SCORE = Comparator
+                .comparingDouble(ScoredHit::score).reversed()
+                .thenComparingDouble(ScoredHit::distanceKm)
+                .thenComparing(ScoredHit::id);
+
+        public GeoHit toGeoHit() {
+            return new GeoHit(id, distanceKm);
+        }
+    }
+
+    /**
+     * True if (score, distance, id) ranks before the entry at index.
+     */
+    private boolean isBefore(double score, double distanceKm, UUID id, int index) {
+        int cmp = Double.compare(scores[index], score);
+        if (cmp == 0) {
+            cmp = Double.compare(distanceKm, distances[index]);
+        }
+        return cmp < 0 || (cmp == 0 && id.compareTo(ids[index]) < 0);
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!isBefore(scores[parent], distances[parent], ids[parent], index)) {
+                return;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int worst = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < size && isBefore(scores[worst], distances[worst], ids[worst], left)) {
+                worst = left;
+            }
+            if (right < size && isBefore(scores[worst], distances[worst], ids[worst], right)) {
+                worst = right;
+            }
+            if (worst == index) {
+                return;
+            }
+            swap(index, worst);
+            index = worst;
+        }
+    }
+
+    private void set(int index, UUID id, double distanceKm, double score) {
+        scores[index] = score;
+        distances[index] = distanceKm;
+        ids[index] = id;
+    }
+
+    private void swap(int i, int j) {
+        double score = scores[i];
+        double distance = distances[i];
+        UUID id = ids[i];
+        set(i, ids[j], distances[j], scores[j]);
+        set(j, id, distance, score);
+    }
+}
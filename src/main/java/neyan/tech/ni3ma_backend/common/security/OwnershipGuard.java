@@ -0,0 +1,66 @@
+package neyan.tech.ni3ma_backend.common.security;
+
+import lombok.RequiredArgsConstructor;
+import neyan.tech.ni3ma_backend.common.exception.ForbiddenException;
+import neyan.tech.ni3ma_backend.common.exception.NotFoundException;
+import neyan.tech.ni3ma_backend.user.entity.UserRole;
+import neyan.tech.ni3ma_backend.user.repository.UserRepository;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Ownership and admin checks on ids only.
+ * <p>
+ * The role comes from the authenticated {@link UserPrincipal}; the user is only looked up
+ * (role column alone) when the checked id is not the caller, e.g. outside a request.
+ * Owners pass without any role lookup.
+ */
+@Component
+@RequiredArgsConstructor
+public class OwnershipGuard {
+
+    private final UserRepository userRepository;
+
+    /**
+     * Passes if the user is the owner or an admin.
+     */
+    public void requireOwner(UUID ownerId, UUID userId, String message) {
+        if (!userId.equals(ownerId) && !isAdmin(userId)) {
+            throw new ForbiddenException(message);
+        }
+    }
+
+    /**
+     * Passes if the user is the customer, the merchant or an admin.
+     */
+    public void requireParty(ResourceParties parties, UUID userId, String message) {
+        if (!userId.equals(parties.customerId()) && !userId.equals(parties.merchantId()) && !isAdmin(userId)) {
+            throw new ForbiddenException(message);
+        }
+    }
+
+    public void requireAdmin(UUID userId, String message) {
+        if (!isAdmin(userId)) {
+            throw new ForbiddenException(message);
+        }
+    }
+
+    public boolean isAdmin(UUID userId) {
+        return roleOf(userId) == UserRole.ADMIN;
+    }
+
+    // ==================== Internal Methods ====================
+
+    private UserRole roleOf(UUID userId) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal
+                && principal.getId().equals(userId)) {
+            return principal.getRole();
+        }
+        return userRepository.findRoleById(userId)
+                .orElseThrow(() -> new NotFoundException("User", userId));
+    }
+}
@@ -0,0 +1,12 @@
+package neyan.tech.ni3ma_backend.common.security;
+
+import java.util.UUID;
+
+/**
+ * Ids of the users allowed to act on an order or payment: the customer who placed it
+ * and the merchant who owns the shop.
+ */
+public record ResourceParties(
+        UUID customerId,
+        UUID merchantId
+) {}
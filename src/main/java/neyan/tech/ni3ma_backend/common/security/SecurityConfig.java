@@ -39,6 +39,8 @@ public class SecurityConfig {
     private static final String[] PUBLIC_ENDPOINTS = {
             "/api/auth/**",
             "/api/nearby/**",   // Public geo endpoints
+            "/api/search/**",   // Public text search
+            "/api/cities/**",   // Public city statistics
             "/api/files/**",    // Public file access
             "/api-docs/**",
             "/api-docs.yaml",
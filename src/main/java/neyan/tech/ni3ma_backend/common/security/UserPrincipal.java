@@ -2,6 +2,7 @@ package neyan.tech.ni3ma_backend.common.security;
 
 import lombok.Getter;
 import neyan.tech.ni3ma_backend.user.entity.User;
+import neyan.tech.ni3ma_backend.user.entity.UserRole;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -19,6 +20,7 @@ public class UserPrincipal implements UserDetails {
     private final String fullName;
     private final String phone;
     private final boolean active;
+    private final UserRole role;
     private final Collection<? extends GrantedAuthority> authorities;
 
     public UserPrincipal(User user) {
@@ -28,6 +30,7 @@ public class UserPrincipal implements UserDetails {
         this.fullName = user.getFullName();
         this.phone = user.getPhone();
         this.active = user.getIsActive();
+        this.role = user.getRole();
         this.authorities = List.of(new SimpleGrantedAuthority("ROLE_" + user.getRole().name()));
     }
 
@@ -0,0 +1,94 @@
+package neyan.tech.ni3ma_backend.common.util;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent calls for the same key into one computation.
+ * <p>
+ * The first caller runs the supplier; callers arriving while it is in flight wait
+ * for and share its result (or exception). Nothing is kept once the call completes.
+ * <p>
+ * Callers wait at most maxWait for a computation in flight; past that they run the supplier
+ * themselves, so a stuck caller never holds the threads (and connections) of the others.
+ */
+public class SingleFlight<K, V> {
+
+    private static final Duration DEFAULT_MAX_WAIT = Duration.ofSeconds(5);
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder collapsed = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final long maxWaitMillis;
+
+    public SingleFlight() {
+        this(DEFAULT_MAX_WAIT);
+    }
+
+    public SingleFlight(Duration maxWait) {
+        this.maxWaitMillis = maxWait.toMillis();
+    }
+
+    public V execute(K key, Supplier<V> supplier) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            return await(existing, supplier);
+        }
+
+        try {
+            V value = supplier.get();
+            call.complete(value);
+            return value;
+        } catch (RuntimeException | Error ex) {
+            call.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    /**
+     * Number of calls that were served by another caller's computation.
+     */
+    public long collapsedCount() {
+        return collapsed.sum();
+    }
+
+    /**
+     * Number of calls that gave up waiting for another caller and computed their own value.
+     */
+    public long timedOutCount() {
+        return timedOut.sum();
+    }
+
+    private V await(CompletableFuture<V> call, Supplier<V> supplier) {
+        try {
+            V value = call.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+            collapsed.increment();
+            return value;
+        } catch (TimeoutException ex) {
+            timedOut.increment();
+            return supplier.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an in-flight call", ex);
+        } catch (ExecutionException ex) {
+            collapsed.increment();
+            if (ex.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (ex.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+}
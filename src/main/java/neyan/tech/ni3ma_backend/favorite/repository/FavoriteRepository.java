@@ -6,6 +6,7 @@ import neyan.tech.ni3ma_backend.shop.entity.Shop;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -23,7 +24,12 @@ public interface FavoriteRepository extends JpaRepository<Favorite, FavoriteId>
 
     boolean existsByUserIdAndShopId(UUID userId, UUID shopId);
 
-    void deleteByUserIdAndShopId(UUID userId, UUID shopId);
+    /**
+     * @return 1 if the favorite was removed by this call, 0 if it did not exist (or was removed concurrently)
+     */
+    @Modifying
+    @Query("DELETE FROM Favorite f WHERE f.id.userId = :userId AND f.id.shopId = :shopId")
+    int deleteByUserIdAndShopId(@Param("userId") UUID userId, @Param("shopId") UUID shopId);
 
     @Query("SELECT COUNT(f) FROM Favorite f WHERE f.shop.id = :shopId")
     long countFavoritesForShop(@Param("shopId") UUID shopId);
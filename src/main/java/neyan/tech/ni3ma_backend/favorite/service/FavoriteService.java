@@ -59,20 +59,23 @@ public class FavoriteService {
                 .build();
 
         favorite = favoriteRepository.save(favorite);
+        // Mapped first: adjusting the count clears the persistence context
+        FavoriteResponse response = favoriteMapper.toResponse(favorite);
+        shopRepository.adjustFavoriteCount(shopId, 1);
         log.info("Shop {} added to favorites for user {}", shopId, userId);
 
-        return favoriteMapper.toResponse(favorite);
+        return response;
     }
 
     @Transactional
     public void removeFavorite(UUID userId, UUID shopId) {
         log.info("Removing shop {} from favorites for user {}", shopId, userId);
 
-        if (!favoriteRepository.existsByUserIdAndShopId(userId, shopId)) {
+        // Only the call that actually deleted the row adjusts the count
+        if (favoriteRepository.deleteByUserIdAndShopId(userId, shopId) == 0) {
             throw new NotFoundException("Favorite", "shopId", shopId);
         }
-
-        favoriteRepository.deleteByUserIdAndShopId(userId, shopId);
+        shopRepository.adjustFavoriteCount(shopId, -1);
         log.info("Shop {} removed from favorites for user {}", shopId, userId);
     }
 
@@ -101,7 +104,7 @@ public class FavoriteService {
 
     @Transactional(readOnly = true)
     public long getFavoriteCount(UUID shopId) {
-        return favoriteRepository.countFavoritesForShop(shopId);
+        return shopRepository.findById(shopId).map(Shop::getFavoriteCount).orElse(0L);
     }
 
     @Transactional
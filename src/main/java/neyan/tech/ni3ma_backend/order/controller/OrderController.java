@@ -7,11 +7,15 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import neyan.tech.ni3ma_backend.common.security.CurrentUser;
 import neyan.tech.ni3ma_backend.common.security.UserPrincipal;
+import neyan.tech.ni3ma_backend.order.dto.ConfirmHoldRequest;
 import neyan.tech.ni3ma_backend.order.dto.CreateOrderRequest;
+import neyan.tech.ni3ma_backend.order.dto.OrderHoldResponse;
 import neyan.tech.ni3ma_backend.order.dto.OrderResponse;
 import neyan.tech.ni3ma_backend.order.dto.OrderSummaryResponse;
 import neyan.tech.ni3ma_backend.order.entity.OrderStatus;
+import neyan.tech.ni3ma_backend.order.service.FlashSaleEngine;
 import neyan.tech.ni3ma_backend.order.service.OrderService;
+import neyan.tech.ni3ma_backend.order.service.OrderWaitingRoom;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
@@ -36,17 +40,59 @@ import java.util.UUID;
 public class OrderController {
 
     private final OrderService orderService;
+    private final FlashSaleEngine flashSaleEngine;
+    private final OrderWaitingRoom orderWaitingRoom;
 
-    @Operation(summary = "Create order", description = "Creates a new order (reservation)")
+    @Operation(summary = "Create order", description = "Creates a new order (reservation). "
+            + "When a basket is in high demand, answers 429 with the customer's place in line and a Retry-After; "
+            + "retrying keeps the place. Flash-sale baskets are reserved through the in-memory inventory")
     @PreAuthorize("hasAnyRole('CUSTOMER', 'ADMIN')")
     @PostMapping
     public ResponseEntity<OrderResponse> createOrder(
             @Valid @RequestBody CreateOrderRequest request,
             @CurrentUser UserPrincipal currentUser) {
-        OrderResponse response = orderService.createOrder(request, currentUser.getId());
+        OrderResponse response = orderWaitingRoom.admit(
+                request.getBasketId(), request.getQuantity(), currentUser.getId(),
+                () -> flashSaleEngine.isFlashSale(request.getBasketId())
+                        ? flashSaleEngine.reserve(request, currentUser.getId())
+                        : orderService.createOrder(request, currentUser.getId()));
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    @Operation(summary = "Hold basket units", description = "Takes the quantity for a few minutes while the customer pays; "
+            + "confirm the hold to get the order, otherwise the units go back to the basket when it expires")
+    @PreAuthorize("hasAnyRole('CUSTOMER', 'ADMIN')")
+    @PostMapping("/holds")
+    public ResponseEntity<OrderHoldResponse> createHold(
+            @Valid @RequestBody CreateOrderRequest request,
+            @CurrentUser UserPrincipal currentUser) {
+        OrderHoldResponse response = orderWaitingRoom.admit(
+                request.getBasketId(), request.getQuantity(), currentUser.getId(),
+                () -> orderService.createHold(request, currentUser.getId()));
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    @Operation(summary = "Confirm hold", description = "Turns an active hold into an order (mobile-money payment by default)")
+    @PreAuthorize("hasAnyRole('CUSTOMER', 'ADMIN')")
+    @PostMapping("/holds/{id}/confirm")
+    public ResponseEntity<OrderResponse> confirmHold(
+            @PathVariable UUID id,
+            @RequestBody(required = false) ConfirmHoldRequest request,
+            @CurrentUser UserPrincipal currentUser) {
+        OrderResponse response = orderService.confirmHold(
+                id, request != null ? request.getProvider() : null, currentUser.getId());
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    @Operation(summary = "Release hold", description = "Gives the held units back before the hold expires")
+    @PreAuthorize("hasAnyRole('CUSTOMER', 'ADMIN')")
+    @PostMapping("/holds/{id}/release")
+    public ResponseEntity<OrderHoldResponse> releaseHold(
+            @PathVariable UUID id,
+            @CurrentUser UserPrincipal currentUser) {
+        return ResponseEntity.ok(orderService.releaseHold(id, currentUser.getId()));
+    }
+
     @Operation(summary = "Get my orders", description = "Returns paginated list of user's orders")
     @GetMapping("/my")
     public ResponseEntity<Page<OrderSummaryResponse>> getMyOrders(
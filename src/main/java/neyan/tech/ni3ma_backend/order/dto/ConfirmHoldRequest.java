@@ -0,0 +1,17 @@
+package neyan.tech.ni3ma_backend.order.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import neyan.tech.ni3ma_backend.payment.entity.PaymentProvider;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConfirmHoldRequest {
+
+    /** Provider of the order's payment; mobile money when omitted */
+    private PaymentProvider provider;
+}
@@ -0,0 +1,12 @@
+package neyan.tech.ni3ma_backend.order.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Expiry of a pending hold, loaded at startup to schedule its release.
+ */
+public record HoldExpiry(
+        UUID id,
+        Instant expiresAt
+) {}
@@ -0,0 +1,26 @@
+package neyan.tech.ni3ma_backend.order.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import neyan.tech.ni3ma_backend.order.entity.OrderHoldStatus;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderHoldResponse {
+
+    private UUID id;
+    private UUID userId;
+    private UUID basketId;
+    private Integer quantity;
+    private OrderHoldStatus status;
+    private Instant expiresAt;
+    private UUID orderId;
+    private Instant createdAt;
+}
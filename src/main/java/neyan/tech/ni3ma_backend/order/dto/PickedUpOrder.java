@@ -0,0 +1,12 @@
+package neyan.tech.ni3ma_backend.order.dto;
+
+import java.util.UUID;
+
+/**
+ * An order picked up at a shop, with its number of baskets.
+ */
+public record PickedUpOrder(
+        UUID orderId,
+        UUID shopId,
+        Integer quantity
+) {}
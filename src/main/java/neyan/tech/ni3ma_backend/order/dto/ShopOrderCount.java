@@ -0,0 +1,11 @@
+package neyan.tech.ni3ma_backend.order.dto;
+
+import java.util.UUID;
+
+/**
+ * Number of non-cancelled orders placed on the baskets of a shop.
+ */
+public record ShopOrderCount(
+        UUID shopId,
+        Long orders
+) {}
@@ -84,6 +84,9 @@ public class Order {
     @Column(name = "pickup_code", nullable = false, unique = true, length = 10)
     private String pickupCode;
 
+    @Column(name = "picked_up_at")
+    private Instant pickedUpAt;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt;
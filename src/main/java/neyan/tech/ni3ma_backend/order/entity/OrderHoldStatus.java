@@ -0,0 +1,7 @@
+package neyan.tech.ni3ma_backend.order.entity;
+
+public enum OrderHoldStatus {
+    HELD,
+    CONFIRMED,
+    RELEASED
+}
@@ -0,0 +1,12 @@
+package neyan.tech.ni3ma_backend.order.event;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Published by OrderService when a hold is placed, so its release gets scheduled.
+ */
+public record OrderHoldPlacedEvent(
+        UUID holdId,
+        Instant expiresAt
+) {}
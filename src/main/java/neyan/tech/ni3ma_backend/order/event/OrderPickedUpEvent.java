@@ -0,0 +1,12 @@
+package neyan.tech.ni3ma_backend.order.event;
+
+import java.util.UUID;
+
+/**
+ * Published by OrderService when the merchant validates the pickup of an order.
+ */
+public record OrderPickedUpEvent(
+        UUID orderId,
+        UUID shopId,
+        int quantity
+) {}
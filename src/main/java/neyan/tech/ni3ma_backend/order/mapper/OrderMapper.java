@@ -2,9 +2,11 @@ package neyan.tech.ni3ma_backend.order.mapper;
 
 import neyan.tech.ni3ma_backend.basket.mapper.BasketMapper;
 import neyan.tech.ni3ma_backend.order.dto.CreateOrderRequest;
+import neyan.tech.ni3ma_backend.order.dto.OrderHoldResponse;
 import neyan.tech.ni3ma_backend.order.dto.OrderResponse;
 import neyan.tech.ni3ma_backend.order.dto.OrderSummaryResponse;
 import neyan.tech.ni3ma_backend.order.entity.Order;
+import neyan.tech.ni3ma_backend.order.entity.OrderHold;
 import neyan.tech.ni3ma_backend.user.mapper.UserMapper;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
@@ -38,6 +40,11 @@ public interface OrderMapper {
     @Mapping(target = "pickupEnd", source = "basket.pickupEnd")
     OrderSummaryResponse toSummaryResponse(Order order);
 
+    @Mapping(target = "userId", source = "user.id")
+    @Mapping(target = "basketId", source = "basket.id")
+    @Mapping(target = "orderId", source = "order.id")
+    OrderHoldResponse toHoldResponse(OrderHold hold);
+
     List<OrderResponse> toResponseList(List<Order> orders);
 
     List<OrderSummaryResponse> toSummaryList(List<Order> orders);
@@ -0,0 +1,45 @@
+package neyan.tech.ni3ma_backend.order.repository;
+
+import jakarta.persistence.LockModeType;
+import neyan.tech.ni3ma_backend.order.dto.HoldExpiry;
+import neyan.tech.ni3ma_backend.order.entity.OrderHold;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface OrderHoldRepository extends JpaRepository<OrderHold, UUID> {
+
+    /**
+     * Locks the hold, so confirming and releasing it can't both succeed.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT h FROM OrderHold h WHERE h.id = :id")
+    Optional<OrderHold> findByIdForUpdate(@Param("id") UUID id);
+
+    /**
+     * Locks the given holds that are still held and expired, in id order to avoid deadlocks between releases.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+            SELECT h FROM OrderHold h
+            WHERE h.id IN :ids AND h.status = 'HELD' AND h.expiresAt <= :now
+            ORDER BY h.id
+            """)
+    List<OrderHold> findExpiredHeldForUpdate(@Param("ids") Collection<UUID> ids, @Param("now") Instant now);
+
+    @Query("""
+            SELECT new neyan.tech.ni3ma_backend.order.dto.HoldExpiry(h.id, h.expiresAt)
+            FROM OrderHold h
+            WHERE h.status = 'HELD'
+            """)
+    List<HoldExpiry> findHeldExpiries();
+}
@@ -1,5 +1,7 @@
 package neyan.tech.ni3ma_backend.order.repository;
 
+import neyan.tech.ni3ma_backend.order.dto.PickedUpOrder;
+import neyan.tech.ni3ma_backend.order.dto.ShopOrderCount;
 import neyan.tech.ni3ma_backend.order.entity.Order;
 import neyan.tech.ni3ma_backend.order.entity.OrderStatus;
 import org.springframework.data.domain.Page;
@@ -10,6 +12,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -39,6 +42,28 @@ public interface OrderRepository extends JpaRepository<Order, UUID> {
     @Query("SELECT SUM(o.quantity) FROM Order o WHERE o.basket.id = :basketId AND o.status NOT IN ('CANCELLED')")
     Integer sumQuantityForBasket(@Param("basketId") UUID basketId);
 
+    /**
+     * Popularity of every shop with orders (feeds the search suggestions).
+     */
+    @Query("""
+            SELECT new neyan.tech.ni3ma_backend.order.dto.ShopOrderCount(o.basket.shop.id, COUNT(o))
+            FROM Order o
+            WHERE o.status NOT IN ('CANCELLED')
+            GROUP BY o.basket.shop.id
+            """)
+    List<ShopOrderCount> countOrdersPerShop();
+
+    /**
+     * Orders picked up since the given instant, with their shop. Listed one by one rather than
+     * summed per shop, so pickups committed while the caller reloads can be told apart.
+     */
+    @Query("""
+            SELECT new neyan.tech.ni3ma_backend.order.dto.PickedUpOrder(o.id, o.basket.shop.id, o.quantity)
+            FROM Order o
+            WHERE o.status = 'PICKED_UP' AND o.pickedUpAt >= :since
+            """)
+    List<PickedUpOrder> findPickedUpOrdersSince(@Param("since") Instant since);
+
     @Query("SELECT o FROM Order o WHERE o.status = 'RESERVED' AND o.basket.pickupEnd < :now")
     List<Order> findExpiredReservations(@Param("now") Instant now);
 
@@ -49,5 +74,8 @@ public interface OrderRepository extends JpaRepository<Order, UUID> {
     Optional<Order> findByIdWithBasketAndShop(@Param("id") UUID id);
 
     boolean existsByPickupCode(String pickupCode);
+
+    @Query("SELECT o.pickupCode FROM Order o WHERE o.pickupCode IN :codes")
+    List<String> findExistingPickupCodes(@Param("codes") Collection<String> codes);
 }
 
@@ -0,0 +1,494 @@
+package neyan.tech.ni3ma_backend.order.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import neyan.tech.ni3ma_backend.basket.dto.FlashSaleStock;
+import neyan.tech.ni3ma_backend.basket.entity.BasketStatus;
+import neyan.tech.ni3ma_backend.basket.event.BasketChangedEvent;
+import neyan.tech.ni3ma_backend.basket.repository.BasketRepository;
+import neyan.tech.ni3ma_backend.common.config.Ni3maProperties;
+import neyan.tech.ni3ma_backend.common.exception.BadRequestException;
+import neyan.tech.ni3ma_backend.common.exception.NotFoundException;
+import neyan.tech.ni3ma_backend.common.exception.ServiceUnavailableException;
+import neyan.tech.ni3ma_backend.order.dto.CreateOrderRequest;
+import neyan.tech.ni3ma_backend.order.dto.OrderResponse;
+import neyan.tech.ni3ma_backend.order.service.FlashSaleOrderWriter.Reservation;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory inventory of flash-sale baskets, so a drop receiving thousands of reservations per
+ * second doesn't have each of them hold a connection while queuing on the basket row.
+ * <p>
+ * A reservation is admitted or rejected against the basket's counter on the request thread
+ * (compare-and-set, no lock, no database). Admitted ones go to the shard owning the basket
+ * (hash of its id), whose single writer thread writes each basket's pending reservations in
+ * one transaction ({@link FlashSaleOrderWriter}); the request returns once its order is committed.
+ * The database stays the authority: the batch decrement is guarded, and a refused batch
+ * re-syncs the counter from the row and re-admits what still fits.
+ * <p>
+ * The quantity and the orders of a batch commit together, so after a crash the counters are
+ * rebuilt from baskets.quantity_left alone; reservations still queued were never confirmed.
+ * Changes made elsewhere (cancellations, expiry, unpublishing) are picked up by re-reading the
+ * basket on its shard, and a periodic reload repairs any missed event.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FlashSaleEngine {
+
+    private static final long POLL_MILLIS = 100;
+    private static final long STOP_TIMEOUT_SECONDS = 10;
+    private static final long RETRY_AFTER_SECONDS = 5;
+
+    private final FlashSaleOrderWriter writer;
+    private final BasketRepository basketRepository;
+    private final Ni3maProperties ni3maProperties;
+
+    private final ConcurrentMap<UUID, Slot> slots = new ConcurrentHashMap<>();
+    private volatile Shard[] shards;
+
+    /**
+     * Rebuilds the counters from the stored quantities, then starts the shard writers.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void onApplicationReady() {
+        if (shards != null) {
+            return;
+        }
+        Instant now = Instant.now();
+        for (FlashSaleStock stock : basketRepository.findFlashSaleStocks(now)) {
+            slots.put(stock.id(), new Slot(stock));
+        }
+
+        int count = Math.max(1, ni3maProperties.getOrder().getFlashSale().getShards());
+        Shard[] started = new Shard[count];
+        for (int i = 0; i < count; i++) {
+            started[i] = new Shard(i);
+            started[i].thread.start();
+        }
+        shards = started;
+        log.info("Flash-sale inventory started with {} shards, {} baskets recovered", count, slots.size());
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        Shard[] current = shards;
+        if (current == null) {
+            return;
+        }
+        shards = null;
+        for (Shard shard : current) {
+            shard.running = false;
+        }
+        for (Shard shard : current) {
+            try {
+                shard.thread.join(TimeUnit.SECONDS.toMillis(STOP_TIMEOUT_SECONDS));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Re-reads every flash-sale basket on its shard, picking up any change whose event was missed.
+     */
+    @Scheduled(fixedDelayString = "${ni3ma.geo.index-refresh-ms:300000}",
+               initialDelayString = "${ni3ma.geo.index-refresh-ms:300000}")
+    public void reload() {
+        if (shards == null) {
+            return;
+        }
+        Set<UUID> basketIds = new HashSet<>(slots.keySet());
+        basketRepository.findFlashSaleStocks(Instant.now()).forEach(stock -> basketIds.add(stock.id()));
+        basketIds.forEach(this::requestSync);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBasketChanged(BasketChangedEvent event) {
+        Slot slot = slots.get(event.basketId());
+        if (slot != null) {
+            if (!event.isPublished() && event.status() != BasketStatus.SOLD_OUT) {
+                // Stop admitting right away; the sync drops the basket
+                slot.open = false;
+            }
+            requestSync(event.basketId());
+        } else if (event.isPublished() && event.availabilityChanged()) {
+            // Possibly a flash-sale basket just published
+            requestSync(event.basketId());
+        }
+    }
+
+    /**
+     * True if reservations of the basket must go through {@link #reserve}.
+     */
+    public boolean isFlashSale(UUID basketId) {
+        return shards != null && slots.containsKey(basketId);
+    }
+
+    /**
+     * Admits the reservation against the in-memory counter and waits for its order to be written.
+     *
+     * @throws BadRequestException if the basket can't take it; no database work is done in that case
+     */
+    public OrderResponse reserve(CreateOrderRequest request, UUID customerId) {
+        int quantity = request.getQuantity();
+        int maxQuantity = ni3maProperties.getBasket().getMaxQuantityPerOrder();
+        if (quantity > maxQuantity) {
+            throw new BadRequestException(String.format("Maximum quantity per order is %d", maxQuantity));
+        }
+
+        Shard[] current = shards;
+        Slot slot = slots.get(request.getBasketId());
+        if (current == null || slot == null || !slot.isOpen(Instant.now())) {
+            throw new BadRequestException("Basket is not available");
+        }
+        if (!slot.tryTake(quantity)) {
+            throw new BadRequestException("Not enough quantity available");
+        }
+
+        Pending pending = new Pending(slot, new Reservation(customerId, quantity), new CompletableFuture<>());
+        Shard shard = current[shardIndex(slot.basketId, current.length)];
+        shard.queue.add(pending);
+        // Checked after the add: if the shard stopped meanwhile its last drain may have missed the
+        // reservation, and whoever removes it from the queue owns it
+        if (!shard.running && shard.queue.remove(pending)) {
+            slot.give(quantity);
+            throw new BadRequestException("Reservations are paused, please try again");
+        }
+        return await(pending.result());
+    }
+
+    /**
+     * Units that can still be reserved in memory, or -1 if the basket isn't a loaded flash-sale basket.
+     */
+    public int available(UUID basketId) {
+        Slot slot = slots.get(basketId);
+        return slot != null ? slot.available.get() : -1;
+    }
+
+    // ==================== Internal Methods ====================
+
+    private void requestSync(UUID basketId) {
+        Shard[] current = shards;
+        if (current == null) {
+            return;
+        }
+        Slot slot = slots.get(basketId);
+        if (slot == null || slot.syncQueued.compareAndSet(false, true)) {
+            current[shardIndex(basketId, current.length)].queue.add(new Sync(basketId));
+        }
+    }
+
+    private static int shardIndex(UUID basketId, int shardCount) {
+        return Math.floorMod(basketId.hashCode(), shardCount);
+    }
+
+    /**
+     * Waits for the reservation to be written, at most the configured time. A reservation still
+     * queued when the wait ends is skipped by its shard; one already being written may still be
+     * committed, hence the hint to check the orders before retrying.
+     */
+    private OrderResponse await(CompletableFuture<OrderResponse> result) {
+        long timeoutSeconds = ni3maProperties.getOrder().getFlashSale().getAwaitTimeoutSeconds();
+        try {
+            return result.get(timeoutSeconds, TimeUnit.SECONDS);
+        } catch (TimeoutException ex) {
+            failIfPending(result);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            failIfPending(result);
+        } catch (ExecutionException ex) {
+            // Rethrown by outcome() below
+        }
+        // Done by now: written, refused, or failed by the timeout above
+        return outcome(result);
+    }
+
+    private static void failIfPending(CompletableFuture<OrderResponse> result) {
+        result.completeExceptionally(new ServiceUnavailableException(
+                "The reservation is taking too long, please check your orders before retrying", RETRY_AFTER_SECONDS));
+    }
+
+    private static OrderResponse outcome(CompletableFuture<OrderResponse> result) {
+        try {
+            return result.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Writes the pending reservations of one basket. Runs on the basket's shard thread.
+     *
+     * @param retry Re-sync and re-admit once if the batch is refused
+     */
+    private void flush(Slot slot, List<Pending> pending, boolean retry) {
+        List<OrderResponse> orders;
+        try {
+            orders = writer.persist(slot.basketId, pending.stream().map(Pending::reservation).toList());
+        } catch (RuntimeException ex) {
+            // Nothing was written: give the units back and check the row
+            pending.forEach(p -> slot.give(p.reservation().quantity()));
+            log.warn("Flash-sale batch of {} reservations refused for basket {}: {}",
+                    pending.size(), slot.basketId, ex.getMessage());
+            sync(slot.basketId);
+            if (!retry) {
+                pending.forEach(p -> p.result().completeExceptionally(ex));
+                return;
+            }
+            readmit(slot, pending);
+            return;
+        }
+
+        int written = 0;
+        for (int i = 0; i < pending.size(); i++) {
+            Pending p = pending.get(i);
+            OrderResponse order = orders.get(i);
+            if (order != null) {
+                written += p.reservation().quantity();
+                p.result().complete(order);
+            } else {
+                slot.give(p.reservation().quantity());
+                p.result().completeExceptionally(new NotFoundException("User", p.reservation().customerId()));
+            }
+        }
+        slot.persistedLeft -= written;
+    }
+
+    /**
+     * Admits the reservations of a refused batch again against the re-synced counter, in arrival order.
+     */
+    private void readmit(Slot slot, List<Pending> pending) {
+        boolean live = slots.get(slot.basketId) == slot && slot.isOpen(Instant.now());
+        List<Pending> admitted = new ArrayList<>();
+        for (Pending p : pending) {
+            if (live && slot.tryTake(p.reservation().quantity())) {
+                admitted.add(p);
+            } else {
+                p.result().completeExceptionally(new BadRequestException(
+                        live ? "Not enough quantity available" : "Basket is not available"));
+            }
+        }
+        if (!admitted.isEmpty()) {
+            flush(slot, admitted, false);
+        }
+    }
+
+    /**
+     * Aligns the basket's counter with its row: whatever changed the stored quantity since the
+     * shard last wrote it was done elsewhere and is applied to the counter as a delta.
+     * Runs on the basket's shard thread, so no batch of this basket is being written meanwhile.
+     */
+    private void sync(UUID basketId) {
+        Slot slot = slots.get(basketId);
+        if (slot != null) {
+            // Cleared before reading so a change committed from now on queues another sync
+            slot.syncQueued.set(false);
+        }
+
+        FlashSaleStock stock;
+        try {
+            stock = basketRepository.findFlashSaleStockById(basketId).orElse(null);
+        } catch (RuntimeException ex) {
+            log.error("Failed to sync flash-sale basket {}", basketId, ex);
+            return;
+        }
+
+        boolean live = stock != null
+                && (stock.status() == BasketStatus.PUBLISHED || stock.status() == BasketStatus.SOLD_OUT)
+                && stock.pickupEnd().isAfter(Instant.now());
+        if (!live) {
+            if (slot != null) {
+                slot.open = false;
+                slots.remove(basketId, slot);
+                log.info("Flash-sale basket {} is no longer orderable", basketId);
+            }
+            return;
+        }
+        if (slot == null) {
+            slots.putIfAbsent(basketId, new Slot(stock));
+            log.info("Flash-sale basket {} loaded with {} left", basketId, stock.quantityLeft());
+            return;
+        }
+
+        int delta = stock.quantityLeft() - slot.persistedLeft;
+        if (delta != 0) {
+            slot.persistedLeft = stock.quantityLeft();
+            slot.available.addAndGet(delta);
+            log.debug("Flash-sale basket {} re-synced ({} units changed elsewhere)", basketId, delta);
+        }
+        slot.open = true;
+    }
+
+    private record Pending(Slot slot, Reservation reservation, CompletableFuture<OrderResponse> result) {}
+
+    private record Sync(UUID basketId) {}
+
+    /**
+     * Inventory of one basket.
+     */
+    private static final class Slot {
+        private final UUID basketId;
+        private final Instant pickupEnd;
+        /** Units not yet admitted: the stored quantity minus the reservations waiting to be written. */
+        private final AtomicInteger available;
+        private final AtomicBoolean syncQueued = new AtomicBoolean();
+        private volatile boolean open = true;
+        /** Stored quantity as of the shard's last write or sync; shard thread only. */
+        private int persistedLeft;
+
+        private Slot(FlashSaleStock stock) {
+            this.basketId = stock.id();
+            this.pickupEnd = stock.pickupEnd();
+            this.available = new AtomicInteger(stock.quantityLeft());
+            this.persistedLeft = stock.quantityLeft();
+        }
+
+        private boolean isOpen(Instant now) {
+            return open && pickupEnd.isAfter(now);
+        }
+
+        private boolean tryTake(int quantity) {
+            int left;
+            do {
+                left = available.get();
+                if (left < quantity) {
+                    return false;
+                }
+            } while (!available.compareAndSet(left, left - quantity));
+            return true;
+        }
+
+        private void give(int quantity) {
+            available.addAndGet(quantity);
+        }
+    }
+
+    /**
+     * Single writer of a share of the flash-sale baskets.
+     */
+    private final class Shard implements Runnable {
+        private final BlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+        private final Thread thread;
+        private volatile boolean running = true;
+
+        private Shard(int index) {
+            this.thread = new Thread(this, "flash-sale-shard-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            int batchSize = Math.max(1, ni3maProperties.getOrder().getFlashSale().getBatchSize());
+            List<Object> batch = new ArrayList<>(batchSize);
+            while (running || !queue.isEmpty()) {
+                try {
+                    Object first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                queue.drainTo(batch, batchSize - 1);
+                try {
+                    process(batch);
+                } catch (Throwable ex) {
+                    // Keep the writer alive: requests routed to this shard would otherwise wait for nothing
+                    log.error("Flash-sale shard failed to process {} tasks", batch.size(), ex);
+                    try {
+                        fail(batch.stream().filter(Pending.class::isInstance).map(Pending.class::cast).toList(), ex);
+                    } catch (Throwable again) {
+                        log.error("Flash-sale shard failed to recover", again);
+                    }
+                }
+                batch.clear();
+            }
+
+            // Anything queued after the last pass was never admitted to the database
+            List<Object> left = new ArrayList<>();
+            queue.drainTo(left);
+            left.forEach(task -> {
+                if (task instanceof Pending p) {
+                    p.result().completeExceptionally(new BadRequestException("Reservations are paused, please try again"));
+                }
+            });
+        }
+
+        private void process(List<Object> batch) {
+            // Slots compare by identity: a basket dropped and loaded again gets a new one
+            Map<Slot, List<Pending>> bySlot = new LinkedHashMap<>();
+            Set<UUID> toSync = new LinkedHashSet<>();
+            for (Object task : batch) {
+                if (task instanceof Pending p) {
+                    if (p.result().isDone()) {
+                        // Its request stopped waiting: never written, the units go back
+                        p.slot().give(p.reservation().quantity());
+                        continue;
+                    }
+                    bySlot.computeIfAbsent(p.slot(), slot -> new ArrayList<>()).add(p);
+                } else if (task instanceof Sync sync) {
+                    toSync.add(sync.basketId());
+                }
+            }
+            bySlot.forEach((slot, pending) -> {
+                try {
+                    flush(slot, pending, true);
+                } catch (Throwable ex) {
+                    log.error("Flash-sale shard failed to write a batch", ex);
+                    fail(pending, ex);
+                }
+            });
+            toSync.forEach(FlashSaleEngine.this::sync);
+        }
+
+        /**
+         * Fails the reservations not completed yet and re-reads their baskets. Whether or not the
+         * batch was committed, giving their units back and applying the row's delta realigns the counter.
+         */
+        private void fail(List<Pending> pending, Throwable cause) {
+            Set<Slot> touched = new LinkedHashSet<>();
+            for (Pending p : pending) {
+                if (!p.result().isDone()) {
+                    // Given back before the request wakes up, so a retry sees the units
+                    p.slot().give(p.reservation().quantity());
+                    p.result().completeExceptionally(cause);
+                }
+                touched.add(p.slot());
+            }
+            touched.forEach(slot -> sync(slot.basketId));
+        }
+    }
+}
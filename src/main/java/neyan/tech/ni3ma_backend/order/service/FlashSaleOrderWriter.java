@@ -0,0 +1,108 @@
+package neyan.tech.ni3ma_backend.order.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import neyan.tech.ni3ma_backend.basket.dto.BasketStock;
+import neyan.tech.ni3ma_backend.basket.entity.Basket;
+import neyan.tech.ni3ma_backend.basket.entity.BasketStatus;
+import neyan.tech.ni3ma_backend.basket.event.BasketChangedEvent;
+import neyan.tech.ni3ma_backend.basket.repository.BasketRepository;
+import neyan.tech.ni3ma_backend.common.exception.BadRequestException;
+import neyan.tech.ni3ma_backend.common.exception.NotFoundException;
+import neyan.tech.ni3ma_backend.order.dto.OrderResponse;
+import neyan.tech.ni3ma_backend.order.entity.Order;
+import neyan.tech.ni3ma_backend.order.mapper.OrderMapper;
+import neyan.tech.ni3ma_backend.payment.entity.PaymentProvider;
+import neyan.tech.ni3ma_backend.user.entity.User;
+import neyan.tech.ni3ma_backend.user.repository.UserRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Writes a batch of flash-sale reservations of one basket in a single transaction:
+ * one guarded quantity update for the whole batch, then the orders, payments and notifications
+ * through {@link OrderService#placeOrders}.
+ * Called only by the {@link FlashSaleEngine} shard owning the basket.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FlashSaleOrderWriter {
+
+    private final OrderService orderService;
+    private final BasketRepository basketRepository;
+    private final UserRepository userRepository;
+    private final OrderMapper orderMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Persists the reservations, all or nothing.
+     *
+     * @return The created orders, in the order of the reservations; null where the customer no longer exists
+     * @throws BadRequestException if the basket no longer has the batch's total quantity available
+     */
+    @Transactional
+    public List<OrderResponse> persist(UUID basketId, List<Reservation> reservations) {
+        Map<UUID, User> customers = userRepository.findAllById(
+                        reservations.stream().map(Reservation::customerId).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        int total = reservations.stream()
+                .filter(reservation -> customers.containsKey(reservation.customerId()))
+                .mapToInt(Reservation::quantity)
+                .sum();
+        if (total == 0) {
+            return reservations.stream().map(reservation -> (OrderResponse) null).toList();
+        }
+
+        // Taken first so nothing is written if the basket can't cover the batch
+        if (basketRepository.reserveQuantity(basketId, total, Instant.now()) == 0) {
+            throw new BadRequestException("Not enough quantity available");
+        }
+
+        Basket basket = basketRepository.findById(basketId)
+                .orElseThrow(() -> new NotFoundException("Basket", basketId));
+        List<Order> orders = orderService.placeOrders(basket, reservations.stream()
+                .filter(reservation -> customers.containsKey(reservation.customerId()))
+                .map(reservation -> new OrderService.OrderLine(
+                        customers.get(reservation.customerId()), reservation.quantity()))
+                .toList(), PaymentProvider.CASH);
+
+        BasketStock stock = basketRepository.findStockById(basketId)
+                .orElseThrow(() -> new NotFoundException("Basket", basketId));
+        if (stock.status() == BasketStatus.SOLD_OUT) {
+            log.info("Flash-sale basket {} is now sold out", basketId);
+        }
+        eventPublisher.publishEvent(BasketChangedEvent.of(stock, BasketStatus.PUBLISHED));
+
+        // Orders come back in the order of the lines, which skip missing customers
+        Iterator<Order> placed = orders.iterator();
+        List<OrderResponse> responses = new ArrayList<>(reservations.size());
+        for (Reservation reservation : reservations) {
+            responses.add(customers.containsKey(reservation.customerId())
+                    ? orderMapper.toResponse(placed.next())
+                    : null);
+        }
+        log.info("Flash-sale batch of {} orders ({} units) written for basket {}", orders.size(), total, basketId);
+        return responses;
+    }
+
+    /**
+     * Record for a reservation admitted by the in-memory inventory.
+     */
+    public record Reservation(
+            UUID customerId,
+            int quantity
+    ) {}
+}
@@ -0,0 +1,140 @@
+package neyan.tech.ni3ma_backend.order.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import neyan.tech.ni3ma_backend.common.config.Ni3maProperties;
+import neyan.tech.ni3ma_backend.order.dto.HoldExpiry;
+import neyan.tech.ni3ma_backend.order.event.OrderHoldPlacedEvent;
+import neyan.tech.ni3ma_backend.order.repository.OrderHoldRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Releases holds when they expire, without scanning the holds table.
+ * <p>
+ * Every committed hold is put in a {@link DelayQueue} keyed by its expiry. A single daemon
+ * thread waits for the next one due, takes along every other hold already due (up to the
+ * batch size) and releases them in one transaction, see {@link OrderService#releaseExpiredHolds}.
+ * Holds confirmed or released early stay queued and are skipped when due.
+ * <p>
+ * The queue only lives in memory: pending holds are read back from the database at startup,
+ * and those that expired while the application was down are released right away.
+ */
+@Slf4j
+@Component
+public class OrderHoldExpiry {
+
+    private final OrderService orderService;
+    private final OrderHoldRepository orderHoldRepository;
+    private final Ni3maProperties.HoldProperties properties;
+    private final DelayQueue<Due> queue = new DelayQueue<>();
+    private Thread worker;
+
+    public OrderHoldExpiry(OrderService orderService, OrderHoldRepository orderHoldRepository,
+                           Ni3maProperties ni3maProperties, MeterRegistry meterRegistry) {
+        this.orderService = orderService;
+        this.orderHoldRepository = orderHoldRepository;
+        this.properties = ni3maProperties.getOrder().getHold();
+
+        Gauge.builder("ni3ma.orders.holds.scheduled", queue, DelayQueue::size)
+                .description("Holds waiting for their expiry")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void onApplicationReady() {
+        if (worker != null) {
+            return;
+        }
+        List<HoldExpiry> pending = orderHoldRepository.findHeldExpiries();
+        pending.forEach(hold -> schedule(hold.id(), hold.expiresAt()));
+        log.info("Scheduled the expiry of {} pending holds", pending.size());
+
+        worker = new Thread(this::run, "order-hold-expiry");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (worker != null) {
+            worker.interrupt();
+            worker = null;
+        }
+    }
+
+    /**
+     * Scheduled after commit: a rolled back hold is never queued.
+     */
+    @TransactionalEventListener
+    public void onHoldPlaced(OrderHoldPlacedEvent event) {
+        schedule(event.holdId(), event.expiresAt());
+    }
+
+    void schedule(UUID holdId, Instant expiresAt) {
+        queue.add(new Due(holdId, expiresAt.toEpochMilli()));
+    }
+
+    /**
+     * Holds queued and not yet released.
+     */
+    int scheduled() {
+        return queue.size();
+    }
+
+    // ==================== Internal Methods ====================
+
+    private void run() {
+        int batchSize = Math.max(1, properties.getReleaseBatchSize());
+        List<Due> batch = new ArrayList<>(batchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            // Only holds already due are drained
+            queue.drainTo(batch, batchSize - 1);
+            release(batch);
+            batch.clear();
+        }
+    }
+
+    private void release(List<Due> batch) {
+        try {
+            orderService.releaseExpiredHolds(batch.stream().map(Due::holdId).toList());
+        } catch (Throwable ex) {
+            // Errors included: anything escaping here would end the only thread draining the queue
+            log.error("Failed to release {} expired holds, retrying in {}s",
+                    batch.size(), properties.getReleaseRetrySeconds(), ex);
+            long retryAt = System.currentTimeMillis() + properties.getReleaseRetrySeconds() * 1000;
+            batch.forEach(due -> queue.add(new Due(due.holdId(), retryAt)));
+        }
+    }
+
+    private record Due(UUID holdId, long dueMillis) implements Delayed {
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(dueMillis, ((Due) other).dueMillis);
+        }
+    }
+}
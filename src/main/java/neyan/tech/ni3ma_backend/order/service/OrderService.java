@@ -7,25 +7,35 @@ import neyan.tech.ni3ma_backend.basket.entity.BasketStatus;
 import neyan.tech.ni3ma_backend.basket.service.BasketService;
 import neyan.tech.ni3ma_backend.common.config.Ni3maProperties;
 import neyan.tech.ni3ma_backend.common.exception.BadRequestException;
+import neyan.tech.ni3ma_backend.common.exception.ConflictException;
 import neyan.tech.ni3ma_backend.common.exception.ForbiddenException;
 import neyan.tech.ni3ma_backend.common.exception.NotFoundException;
+import neyan.tech.ni3ma_backend.common.security.OwnershipGuard;
+import neyan.tech.ni3ma_backend.common.security.ResourceParties;
 import neyan.tech.ni3ma_backend.notification.entity.NotificationType;
 import neyan.tech.ni3ma_backend.notification.service.NotificationService;
 import neyan.tech.ni3ma_backend.order.dto.CreateOrderRequest;
+import neyan.tech.ni3ma_backend.order.dto.OrderHoldResponse;
 import neyan.tech.ni3ma_backend.order.dto.OrderResponse;
 import neyan.tech.ni3ma_backend.order.dto.OrderSummaryResponse;
 import neyan.tech.ni3ma_backend.order.entity.Order;
+import neyan.tech.ni3ma_backend.order.entity.OrderHold;
+import neyan.tech.ni3ma_backend.order.entity.OrderHoldStatus;
 import neyan.tech.ni3ma_backend.order.entity.OrderStatus;
+import neyan.tech.ni3ma_backend.order.event.OrderHoldPlacedEvent;
+import neyan.tech.ni3ma_backend.order.event.OrderPickedUpEvent;
 import neyan.tech.ni3ma_backend.order.mapper.OrderMapper;
+import neyan.tech.ni3ma_backend.order.repository.OrderHoldRepository;
 import neyan.tech.ni3ma_backend.order.repository.OrderRepository;
 import neyan.tech.ni3ma_backend.payment.entity.Payment;
 import neyan.tech.ni3ma_backend.payment.entity.PaymentProvider;
 import neyan.tech.ni3ma_backend.payment.entity.PaymentStatus;
 import neyan.tech.ni3ma_backend.payment.repository.PaymentRepository;
+import neyan.tech.ni3ma_backend.shop.dto.ShopSnapshot;
 import neyan.tech.ni3ma_backend.shop.service.ShopService;
 import neyan.tech.ni3ma_backend.user.entity.User;
-import neyan.tech.ni3ma_backend.user.entity.UserRole;
 import neyan.tech.ni3ma_backend.user.repository.UserRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -36,6 +46,14 @@ import java.math.BigDecimal;
 import java.security.SecureRandom;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 @Slf4j
@@ -44,21 +62,29 @@ import java.util.UUID;
 public class OrderService {
 
     private final OrderRepository orderRepository;
+    private final OrderHoldRepository orderHoldRepository;
     private final UserRepository userRepository;
     private final PaymentRepository paymentRepository;
     private final BasketService basketService;
     private final ShopService shopService;
+    private final OwnershipGuard ownershipGuard;
     private final OrderMapper orderMapper;
     private final NotificationService notificationService;
     private final Ni3maProperties ni3maProperties;
+    private final ApplicationEventPublisher eventPublisher;
 
     private static final String PICKUP_CODE_CHARS = "ABCDEFGHJKLMNPQRSTUVWXYZ23456789";
     private static final SecureRandom RANDOM = new SecureRandom();
+    private static final int MAX_PICKUP_CODE_ROUNDS = 10;
 
     /**
      * Create a new order (reservation) - CRITICAL TRANSACTION
+     * <p>
+     * The basket checks below only fail fast; the quantity is taken by a guarded UPDATE
+     * (see {@link BasketService#decrementQuantity}), which is what prevents overselling.
+     * READ COMMITTED is therefore enough and concurrent reservations don't abort each other.
      */
-    @Transactional(isolation = Isolation.SERIALIZABLE)
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public OrderResponse createOrder(CreateOrderRequest request, UUID customerId) {
         log.info("Creating order for customer {} on basket {}", customerId, request.getBasketId());
 
@@ -70,47 +96,10 @@ public class OrderService {
         // Validations
         validateBasketForOrder(basket, request.getQuantity());
 
-        // Calculate prices
-        BigDecimal unitPrice = basket.getPriceDiscount();
-        BigDecimal totalPrice = unitPrice.multiply(BigDecimal.valueOf(request.getQuantity()));
-
-        // Generate unique pickup code
-        String pickupCode = generateUniquePickupCode();
-
-        // Create order
-        Order order = Order.builder()
-                .user(customer)
-                .basket(basket)
-                .quantity(request.getQuantity())
-                .unitPrice(unitPrice)
-                .totalPrice(totalPrice)
-                .status(OrderStatus.RESERVED)
-                .pickupCode(pickupCode)
-                .build();
-
-        order = orderRepository.save(order);
-
-        // Decrement basket quantity (may trigger sold_out)
+        // Take the quantity (guarded, fails if another order got it first; may trigger sold_out)
         basketService.decrementQuantity(basket, request.getQuantity());
 
-        // Create payment record
-        Payment payment = Payment.builder()
-                .order(order)
-                .provider(PaymentProvider.CASH) // Default, can be changed
-                .status(PaymentStatus.UNPAID)
-                .build();
-        paymentRepository.save(payment);
-
-        log.info("Order created: {} with pickup code: {}", order.getId(), pickupCode);
-
-        // Send notification
-        notificationService.createNotification(
-                customer.getId(),
-                "Commande confirmée !",
-                String.format("Votre commande chez %s est confirmée. Code: %s", 
-                        basket.getShop().getName(), pickupCode),
-                NotificationType.ORDER_CONFIRMED
-        );
+        Order order = placeOrder(customer, basket, request.getQuantity(), PaymentProvider.CASH);
 
         return orderMapper.toResponse(order);
     }
@@ -143,8 +132,7 @@ public class OrderService {
 
     @Transactional(readOnly = true)
     public Page<OrderSummaryResponse> getShopOrders(UUID shopId, UUID merchantId, Pageable pageable) {
-        var shop = shopService.findShopOrThrow(shopId);
-        shopService.checkShopOwnership(shop, merchantId);
+        shopService.checkShopOwnershipById(shopId, merchantId);
 
         return orderRepository.findByShopId(shopId, pageable)
                 .map(orderMapper::toSummaryResponse);
@@ -160,14 +148,16 @@ public class OrderService {
         Order order = orderRepository.findByPickupCode(pickupCode.toUpperCase())
                 .orElseThrow(() -> new NotFoundException("Order", "pickupCode", pickupCode));
 
-        // Verify merchant owns the shop
-        shopService.checkShopOwnership(order.getBasket().getShop(), merchantId);
+        // Verify merchant owns the shop, on the cached snapshot which also names it in the notification;
+        // the shop entity is only read when the response embeds the basket
+        ShopSnapshot shop = shopService.findOwnedShopSnapshot(order.getBasket().getShop().getId(), merchantId);
 
         if (order.getStatus() != OrderStatus.RESERVED) {
             throw new BadRequestException("Order is not in RESERVED status. Current status: " + order.getStatus());
         }
 
         order.setStatus(OrderStatus.PICKED_UP);
+        order.setPickedUpAt(Instant.now());
         order = orderRepository.save(order);
 
         // Update payment to PAID if cash
@@ -180,13 +170,13 @@ public class OrderService {
         });
 
         log.info("Order {} picked up", order.getId());
+        eventPublisher.publishEvent(new OrderPickedUpEvent(order.getId(), shop.id(), order.getQuantity()));
 
         // Notify customer
         notificationService.createNotification(
                 order.getUser().getId(),
                 "Commande récupérée !",
-                String.format("Votre commande chez %s a été récupérée. Bon appétit !", 
-                        order.getBasket().getShop().getName()),
+                String.format("Votre commande chez %s a été récupérée. Bon appétit !", shop.name()),
                 NotificationType.ORDER_READY
         );
 
@@ -274,6 +264,122 @@ public class OrderService {
         return orderMapper.toResponse(order);
     }
 
+    // ==================== Holds ====================
+
+    /**
+     * Hold units of a basket for the customer while they pay (e.g. by mobile money).
+     * The quantity is taken now, like an order; it becomes an order on {@link #confirmHold},
+     * or goes back to the basket when the hold expires (see {@link OrderHoldExpiry}).
+     */
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public OrderHoldResponse createHold(CreateOrderRequest request, UUID customerId) {
+        log.info("Creating hold for customer {} on basket {}", customerId, request.getBasketId());
+
+        User customer = userRepository.findById(customerId)
+                .orElseThrow(() -> new NotFoundException("User", customerId));
+
+        Basket basket = basketService.findBasketOrThrow(request.getBasketId());
+        validateBasketForOrder(basket, request.getQuantity());
+
+        basketService.decrementQuantity(basket, request.getQuantity());
+
+        Instant expiresAt = Instant.now().plusSeconds(ni3maProperties.getOrder().getHold().getTtlSeconds());
+        OrderHold hold = OrderHold.builder()
+                .user(customer)
+                .basket(basket)
+                .quantity(request.getQuantity())
+                .status(OrderHoldStatus.HELD)
+                .expiresAt(expiresAt.isBefore(basket.getPickupEnd()) ? expiresAt : basket.getPickupEnd())
+                .build();
+        hold = orderHoldRepository.save(hold);
+
+        log.info("Hold {} created, expires at {}", hold.getId(), hold.getExpiresAt());
+        eventPublisher.publishEvent(new OrderHoldPlacedEvent(hold.getId(), hold.getExpiresAt()));
+
+        return orderMapper.toHoldResponse(hold);
+    }
+
+    /**
+     * Turn an active hold into an order; its units are already taken.
+     * If the basket was unpublished or expired meanwhile, the hold is released instead
+     * (committed, despite the exception) and the customer gets a conflict.
+     */
+    @Transactional(noRollbackFor = ConflictException.class)
+    public OrderResponse confirmHold(UUID holdId, PaymentProvider provider, UUID customerId) {
+        OrderHold hold = findHoldForUpdateOrThrow(holdId, customerId);
+
+        if (hold.getStatus() != OrderHoldStatus.HELD) {
+            throw new BadRequestException("Hold is no longer active. Current status: " + hold.getStatus());
+        }
+        if (!hold.getExpiresAt().isAfter(Instant.now())) {
+            throw new BadRequestException("Hold has expired");
+        }
+
+        // Locked after the hold, like the releases, so the basket can't be unpublished until the order is in
+        Basket basket = basketService.findBasketForUpdateOrThrow(hold.getBasket().getId());
+        if (basket.getStatus() != BasketStatus.PUBLISHED && basket.getStatus() != BasketStatus.SOLD_OUT) {
+            release(hold);
+            log.info("Hold {} released on confirm: basket {} is {}", holdId, basket.getId(), basket.getStatus());
+            throw new ConflictException("Basket is no longer available. Current status: " + basket.getStatus());
+        }
+
+        Order order = placeOrder(hold.getUser(), basket, hold.getQuantity(),
+                provider != null ? provider : PaymentProvider.MOBILE_MONEY);
+
+        hold.setStatus(OrderHoldStatus.CONFIRMED);
+        hold.setOrder(order);
+        orderHoldRepository.save(hold);
+
+        log.info("Hold {} confirmed into order {}", holdId, order.getId());
+        return orderMapper.toResponse(order);
+    }
+
+    /**
+     * Give up an active hold before it expires; its units go back to the basket.
+     */
+    @Transactional
+    public OrderHoldResponse releaseHold(UUID holdId, UUID customerId) {
+        OrderHold hold = findHoldForUpdateOrThrow(holdId, customerId);
+
+        if (hold.getStatus() != OrderHoldStatus.HELD) {
+            throw new BadRequestException("Hold is no longer active. Current status: " + hold.getStatus());
+        }
+
+        release(hold);
+
+        log.info("Hold {} released", holdId);
+        return orderMapper.toHoldResponse(hold);
+    }
+
+    /**
+     * Release the given holds that are still held and expired, giving their units back with one
+     * quantity update per basket. Holds confirmed or released in the meantime are skipped.
+     *
+     * @return Number of holds released
+     */
+    @Transactional
+    public int releaseExpiredHolds(Collection<UUID> holdIds) {
+        List<OrderHold> holds = orderHoldRepository.findExpiredHeldForUpdate(holdIds, Instant.now());
+        if (holds.isEmpty()) {
+            return 0;
+        }
+
+        Map<UUID, Basket> baskets = new LinkedHashMap<>();
+        Map<UUID, Integer> quantities = new HashMap<>();
+        for (OrderHold hold : holds) {
+            hold.setStatus(OrderHoldStatus.RELEASED);
+            // The basket is a proxy: its id is read without loading it
+            UUID basketId = hold.getBasket().getId();
+            baskets.putIfAbsent(basketId, hold.getBasket());
+            quantities.merge(basketId, hold.getQuantity(), Integer::sum);
+        }
+        orderHoldRepository.saveAll(holds);
+        baskets.forEach((basketId, basket) -> basketService.incrementQuantity(basket, quantities.get(basketId)));
+
+        log.info("Released {} expired holds on {} baskets", holds.size(), baskets.size());
+        return holds.size();
+    }
+
     // ==================== Internal Methods ====================
 
     public Order findOrderOrThrow(UUID orderId) {
@@ -289,6 +395,72 @@ public class OrderService {
                 .orElseThrow(() -> new NotFoundException("Order", orderId));
     }
 
+    /**
+     * Save orders of one basket whose quantity is already taken, each with its unpaid payment,
+     * and notify the customers. Orders and payments are inserted in batches.
+     * Shared by order creation, hold confirmation and the flash-sale writer.
+     *
+     * @return The saved orders, in the order of the lines
+     */
+    public List<Order> placeOrders(Basket basket, List<OrderLine> lines, PaymentProvider provider) {
+        List<String> pickupCodes = generateUniquePickupCodes(lines.size());
+        BigDecimal unitPrice = basket.getPriceDiscount();
+
+        List<Order> orders = new ArrayList<>(lines.size());
+        List<Payment> payments = new ArrayList<>(lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            OrderLine line = lines.get(i);
+            Order order = Order.builder()
+                    .user(line.customer())
+                    .basket(basket)
+                    .quantity(line.quantity())
+                    .unitPrice(unitPrice)
+                    .totalPrice(unitPrice.multiply(BigDecimal.valueOf(line.quantity())))
+                    .status(OrderStatus.RESERVED)
+                    .pickupCode(pickupCodes.get(i))
+                    .build();
+            orders.add(order);
+            payments.add(Payment.builder()
+                    .order(order)
+                    .provider(provider)
+                    .status(PaymentStatus.UNPAID)
+                    .build());
+        }
+        orderRepository.saveAll(orders);
+        paymentRepository.saveAll(payments);
+
+        for (Order order : orders) {
+            log.info("Order created: {} with pickup code: {}", order.getId(), order.getPickupCode());
+            notificationService.createNotification(
+                    order.getUser().getId(),
+                    "Commande confirmée !",
+                    String.format("Votre commande chez %s est confirmée. Code: %s",
+                            basket.getShop().getName(), order.getPickupCode()),
+                    NotificationType.ORDER_CONFIRMED
+            );
+        }
+        return orders;
+    }
+
+    private Order placeOrder(User customer, Basket basket, int quantity, PaymentProvider provider) {
+        return placeOrders(basket, List.of(new OrderLine(customer, quantity)), provider).get(0);
+    }
+
+    private void release(OrderHold hold) {
+        hold.setStatus(OrderHoldStatus.RELEASED);
+        orderHoldRepository.save(hold);
+        basketService.incrementQuantity(hold.getBasket(), hold.getQuantity());
+    }
+
+    private OrderHold findHoldForUpdateOrThrow(UUID holdId, UUID customerId) {
+        OrderHold hold = orderHoldRepository.findByIdForUpdate(holdId)
+                .orElseThrow(() -> new NotFoundException("Hold", holdId));
+        if (!hold.getUser().getId().equals(customerId)) {
+            throw new ForbiddenException("You can only manage your own holds");
+        }
+        return hold;
+    }
+
     private void validateBasketForOrder(Basket basket, int requestedQuantity) {
         if (basket.getStatus() != BasketStatus.PUBLISHED) {
             throw new BadRequestException("Basket is not available. Status: " + basket.getStatus());
@@ -312,44 +484,48 @@ public class OrderService {
     }
 
     private void checkOrderAccess(Order order, UUID userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("User", userId));
-
-        if (user.getRole() == UserRole.ADMIN) {
-            return;
-        }
-
-        boolean isCustomer = order.getUser().getId().equals(userId);
-        boolean isMerchant = order.getBasket().getShop().getCreatedBy().getId().equals(userId);
-
-        if (!isCustomer && !isMerchant) {
-            throw new ForbiddenException("You don't have access to this order");
-        }
+        // Basket and shop are fetched with the order; the user and owner ids are read off their proxies
+        ResourceParties parties = new ResourceParties(
+                order.getUser().getId(), order.getBasket().getShop().getCreatedBy().getId());
+        ownershipGuard.requireParty(parties, userId, "You don't have access to this order");
     }
 
-    private String generateUniquePickupCode() {
+    /**
+     * Distinct codes unused by existing orders, checked with one query per round.
+     */
+    private List<String> generateUniquePickupCodes(int count) {
         int length = ni3maProperties.getOrder().getPickupCodeLength();
-        String code;
-        int attempts = 0;
-        int maxAttempts = 10;
-
-        do {
-            code = generateRandomCode(length);
-            attempts++;
-            if (attempts > maxAttempts) {
-                throw new RuntimeException("Failed to generate unique pickup code after " + maxAttempts + " attempts");
+        Set<String> codes = new HashSet<>();
+        for (int round = 0; round < MAX_PICKUP_CODE_ROUNDS; round++) {
+            Set<String> candidates = new HashSet<>();
+            while (codes.size() + candidates.size() < count) {
+                String code = generateRandomCode(length);
+                if (!codes.contains(code)) {
+                    candidates.add(code);
+                }
             }
-        } while (orderRepository.existsByPickupCode(code));
-
-        return code;
+            orderRepository.findExistingPickupCodes(candidates).forEach(candidates::remove);
+            codes.addAll(candidates);
+            if (codes.size() == count) {
+                return new ArrayList<>(codes);
+            }
+        }
+        throw new RuntimeException("Failed to generate unique pickup codes after " + MAX_PICKUP_CODE_ROUNDS + " rounds");
     }
 
-    private String generateRandomCode(int length) {
+    private static String generateRandomCode(int length) {
         StringBuilder sb = new StringBuilder(length);
         for (int i = 0; i < length; i++) {
             sb.append(PICKUP_CODE_CHARS.charAt(RANDOM.nextInt(PICKUP_CODE_CHARS.length())));
         }
         return sb.toString();
     }
-}
 
+    /**
+     * Record for one order to place: a customer and the quantity already taken for them.
+     */
+    public record OrderLine(
+            User customer,
+            int quantity
+    ) {}
+}
@@ -0,0 +1,293 @@
+package neyan.tech.ni3ma_backend.order.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import neyan.tech.ni3ma_backend.basket.dto.BasketStock;
+import neyan.tech.ni3ma_backend.basket.entity.BasketStatus;
+import neyan.tech.ni3ma_backend.basket.event.BasketChangedEvent;
+import neyan.tech.ni3ma_backend.basket.repository.BasketRepository;
+import neyan.tech.ni3ma_backend.common.config.Ni3maProperties;
+import neyan.tech.ni3ma_backend.common.exception.BadRequestException;
+import neyan.tech.ni3ma_backend.common.exception.QueuedException;
+import neyan.tech.ni3ma_backend.common.util.SingleFlight;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Admission in front of order creation, so a basket wanted by far more customers than it has
+ * units doesn't send each of them into a transaction that is bound to fail.
+ * <p>
+ * Per basket, at most the quantity left plus a small slack can be in the order path at once.
+ * Customers beyond that get a queue ticket with their position and an estimated wait (HTTP 429
+ * with Retry-After); retrying keeps their place, and the first in line take the places that
+ * free up. Tickets not retried in time are dropped. Sold-out or unavailable baskets, and
+ * customers beyond what the queue could ever serve, are turned away without database work.
+ * <p>
+ * The quantity left is read once per basket, then follows {@link BasketChangedEvent}s.
+ */
+@Component
+public class OrderWaitingRoom {
+
+    private static final double INITIAL_SERVICE_MILLIS = 200;
+
+    private final BasketRepository basketRepository;
+    private final Ni3maProperties.WaitingRoomProperties properties;
+    private final ConcurrentMap<UUID, Gate> gates = new ConcurrentHashMap<>();
+    private final SingleFlight<UUID, Gate> loads = new SingleFlight<>();
+    private final Counter admitted;
+    private final Counter queued;
+    private final Counter rejected;
+
+    public OrderWaitingRoom(BasketRepository basketRepository, Ni3maProperties ni3maProperties,
+                            MeterRegistry meterRegistry) {
+        this.basketRepository = basketRepository;
+        this.properties = ni3maProperties.getOrder().getWaitingRoom();
+
+        this.admitted = Counter.builder("ni3ma.orders.admission")
+                .tag("result", "admitted")
+                .description("Order requests let into the order path")
+                .register(meterRegistry);
+        this.queued = Counter.builder("ni3ma.orders.admission")
+                .tag("result", "queued")
+                .description("Order requests parked with a queue ticket")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("ni3ma.orders.admission")
+                .tag("result", "rejected")
+                .description("Order requests shed without reaching the database")
+                .register(meterRegistry);
+        Gauge.builder("ni3ma.orders.waiting", gates, OrderWaitingRoom::waitingCount)
+                .description("Customers holding a queue ticket")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs the order call if the customer is let in, keeping the basket's place count while it runs.
+     *
+     * @throws QueuedException     if the customer has to wait; retrying keeps their place
+     * @throws BadRequestException if the basket can't take the order
+     */
+    public <T> T admit(UUID basketId, int quantity, UUID customerId, Supplier<T> order) {
+        if (!properties.isEnabled()) {
+            return order.get();
+        }
+        Gate gate = gateOf(basketId);
+        if (gate == null) {
+            // Unknown basket: let the order path report it
+            return order.get();
+        }
+
+        long start = System.currentTimeMillis();
+        Admission admission = gate.enter(quantity, customerId, start, properties);
+        switch (admission.outcome()) {
+            case REJECTED -> {
+                rejected.increment();
+                throw new BadRequestException(admission.reason());
+            }
+            case QUEUED -> {
+                queued.increment();
+                long retryAfter = Math.max(1, Math.min(admission.etaSeconds(), properties.getTicketTtlSeconds() / 2));
+                throw new QueuedException(
+                        String.format("This basket is in high demand, you are number %d in line", admission.position()),
+                        admission.ticket(), admission.position(), admission.etaSeconds(), retryAfter);
+            }
+            case ADMITTED -> admitted.increment();
+        }
+
+        try {
+            return order.get();
+        } finally {
+            gate.leave(quantity, System.currentTimeMillis() - start);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBasketChanged(BasketChangedEvent event) {
+        Gate gate = gates.get(event.basketId());
+        if (gate != null) {
+            gate.update(event.status(), event.quantityLeft(), event.pickupEnd().toEpochMilli());
+        }
+    }
+
+    // ==================== Scheduled Tasks ====================
+
+    /**
+     * Drops expired tickets, and forgets idle baskets and those not orderable (their state is
+     * read again on the next order, which also repairs a missed event).
+     */
+    @Scheduled(fixedRate = 60000) // Every minute
+    public void sweep() {
+        long now = System.currentTimeMillis();
+        gates.entrySet().removeIf(entry -> entry.getValue().sweep(now, properties));
+    }
+
+    // ==================== Internal Methods ====================
+
+    private Gate gateOf(UUID basketId) {
+        Gate gate = gates.get(basketId);
+        if (gate != null) {
+            return gate;
+        }
+        return loads.execute(basketId, () -> {
+            BasketStock stock = basketRepository.findStockById(basketId).orElse(null);
+            if (stock == null) {
+                return null;
+            }
+            return gates.computeIfAbsent(basketId, id -> new Gate(
+                    stock.status(), stock.quantityLeft(), stock.pickupEnd().toEpochMilli()));
+        });
+    }
+
+    private static double waitingCount(Map<UUID, Gate> gates) {
+        return gates.values().stream().mapToInt(Gate::waitingCount).sum();
+    }
+
+    private enum Outcome { ADMITTED, QUEUED, REJECTED }
+
+    private record Admission(Outcome outcome, String reason, long ticket, int position, long etaSeconds) {
+
+        static final Admission ADMITTED = new Admission(Outcome.ADMITTED, null, 0, 0, 0);
+
+        static Admission rejected(String reason) {
+            return new Admission(Outcome.REJECTED, reason, 0, 0, 0);
+        }
+    }
+
+    private static final class Waiter {
+        private final UUID customerId;
+        private long lastSeen;
+
+        private Waiter(UUID customerId, long lastSeen) {
+            this.customerId = customerId;
+            this.lastSeen = lastSeen;
+        }
+    }
+
+    /**
+     * Admission state of one basket. Every method holds the gate's lock for a few map operations.
+     */
+    private static final class Gate {
+        /** ticket -> waiter, first in line first */
+        private final TreeMap<Long, Waiter> waiting = new TreeMap<>();
+        private final Map<UUID, Long> ticketsByCustomer = new HashMap<>();
+        private boolean orderable;
+        private int remaining;
+        private long pickupEnd;
+        /** Units of the orders currently in the order path */
+        private int inFlight;
+        private long nextTicket = 1;
+        /** Moving average of the order path's duration, for the wait estimate */
+        private double serviceMillis = INITIAL_SERVICE_MILLIS;
+        private long lastAccess = System.currentTimeMillis();
+
+        private Gate(BasketStatus status, int remaining, long pickupEnd) {
+            update(status, remaining, pickupEnd);
+        }
+
+        private synchronized Admission enter(int quantity, UUID customerId, long now,
+                                     Ni3maProperties.WaitingRoomProperties properties) {
+            lastAccess = now;
+            long ttlMillis = properties.getTicketTtlSeconds() * 1000;
+            while (!waiting.isEmpty() && now - waiting.firstEntry().getValue().lastSeen > ttlMillis) {
+                ticketsByCustomer.remove(waiting.pollFirstEntry().getValue().customerId);
+            }
+
+            Long ticket = ticketsByCustomer.get(customerId);
+            if (!orderable || pickupEnd <= now) {
+                leaveQueue(ticket);
+                return Admission.rejected("Basket is not available");
+            }
+            if (remaining <= 0) {
+                leaveQueue(ticket);
+                return Admission.rejected("Basket is sold out");
+            }
+            // More than the gate can ever let in: waiting in line would never end
+            if (quantity > remaining + properties.getSlack()) {
+                leaveQueue(ticket);
+                return Admission.rejected(String.format("Not enough quantity available. Requested: %d, Available: %d",
+                        quantity, remaining));
+            }
+
+            int capacity = remaining + properties.getSlack() - inFlight;
+            if (ticket != null) {
+                int ahead = waiting.headMap(ticket).size();
+                if (ahead < capacity && quantity <= capacity) {
+                    leaveQueue(ticket);
+                    inFlight += quantity;
+                    return Admission.ADMITTED;
+                }
+                waiting.get(ticket).lastSeen = now;
+                return queued(ticket, ahead + 1);
+            }
+
+            if (waiting.isEmpty() && quantity <= capacity) {
+                inFlight += quantity;
+                return Admission.ADMITTED;
+            }
+            // Each customer in line takes at least one unit: beyond this, there is nothing left to wait for
+            int maxWaiting = Math.min(properties.getMaxWaitingPerBasket(), remaining + properties.getSlack());
+            if (waiting.size() >= maxWaiting) {
+                return Admission.rejected("Too many customers are waiting for this basket, please try again later");
+            }
+            long issued = nextTicket++;
+            waiting.put(issued, new Waiter(customerId, now));
+            ticketsByCustomer.put(customerId, issued);
+            return queued(issued, waiting.size());
+        }
+
+        private synchronized void leave(int quantity, long tookMillis) {
+            inFlight -= quantity;
+            serviceMillis = 0.8 * serviceMillis + 0.2 * tookMillis;
+        }
+
+        private synchronized void update(BasketStatus status, int quantityLeft, long pickupEnd) {
+            this.orderable = status == BasketStatus.PUBLISHED || status == BasketStatus.SOLD_OUT;
+            this.remaining = status == BasketStatus.PUBLISHED ? quantityLeft : 0;
+            this.pickupEnd = pickupEnd;
+        }
+
+        /**
+         * Drops expired tickets; returns true if the gate can be forgotten.
+         */
+        private synchronized boolean sweep(long now, Ni3maProperties.WaitingRoomProperties properties) {
+            long ttlMillis = properties.getTicketTtlSeconds() * 1000;
+            Iterator<Waiter> waiters = waiting.values().iterator();
+            while (waiters.hasNext()) {
+                Waiter waiter = waiters.next();
+                if (now - waiter.lastSeen > ttlMillis) {
+                    waiters.remove();
+                    ticketsByCustomer.remove(waiter.customerId);
+                }
+            }
+            boolean idle = now - lastAccess > properties.getIdleSeconds() * 1000;
+            return inFlight == 0 && waiting.isEmpty() && (idle || !orderable || remaining <= 0);
+        }
+
+        private synchronized int waitingCount() {
+            return waiting.size();
+        }
+
+        private void leaveQueue(Long ticket) {
+            if (ticket != null) {
+                ticketsByCustomer.remove(waiting.remove(ticket).customerId);
+            }
+        }
+
+        private Admission queued(long ticket, int position) {
+            // Orders in the path complete about inFlight at a time
+            double perSecond = Math.max(1, inFlight) * 1000 / Math.max(1, serviceMillis);
+            long etaSeconds = Math.max(1, (long) Math.ceil(position / perSecond));
+            return new Admission(Outcome.QUEUED, null, ticket, position, etaSeconds);
+        }
+    }
+}
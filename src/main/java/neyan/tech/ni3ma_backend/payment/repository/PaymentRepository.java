@@ -1,5 +1,6 @@
 package neyan.tech.ni3ma_backend.payment.repository;
 
+import neyan.tech.ni3ma_backend.common.security.ResourceParties;
 import neyan.tech.ni3ma_backend.payment.entity.Payment;
 import neyan.tech.ni3ma_backend.payment.entity.PaymentProvider;
 import neyan.tech.ni3ma_backend.payment.entity.PaymentStatus;
@@ -20,6 +21,14 @@ public interface PaymentRepository extends JpaRepository<Payment, UUID> {
 
     Optional<Payment> findByOrderId(UUID orderId);
 
+    @Query("""
+            SELECT new neyan.tech.ni3ma_backend.common.security.ResourceParties(
+                p.order.user.id, p.order.basket.shop.createdBy.id)
+            FROM Payment p
+            WHERE p.id = :paymentId
+            """)
+    Optional<ResourceParties> findPartiesById(@Param("paymentId") UUID paymentId);
+
     List<Payment> findByStatus(PaymentStatus status);
 
     Page<Payment> findByProvider(PaymentProvider provider, Pageable pageable);
@@ -5,9 +5,10 @@ import lombok.extern.slf4j.Slf4j;
 import neyan.tech.ni3ma_backend.common.exception.BadRequestException;
 import neyan.tech.ni3ma_backend.common.exception.ForbiddenException;
 import neyan.tech.ni3ma_backend.common.exception.NotFoundException;
+import neyan.tech.ni3ma_backend.common.security.OwnershipGuard;
+import neyan.tech.ni3ma_backend.common.security.ResourceParties;
 import neyan.tech.ni3ma_backend.notification.entity.NotificationType;
 import neyan.tech.ni3ma_backend.notification.service.NotificationService;
-import neyan.tech.ni3ma_backend.order.entity.Order;
 import neyan.tech.ni3ma_backend.order.repository.OrderRepository;
 import neyan.tech.ni3ma_backend.payment.dto.PaymentResponse;
 import neyan.tech.ni3ma_backend.payment.dto.UpdatePaymentStatusRequest;
@@ -17,9 +18,6 @@ import neyan.tech.ni3ma_backend.payment.entity.PaymentStatus;
 import neyan.tech.ni3ma_backend.payment.mapper.PaymentMapper;
 import neyan.tech.ni3ma_backend.payment.repository.PaymentRepository;
 import neyan.tech.ni3ma_backend.shop.service.ShopService;
-import neyan.tech.ni3ma_backend.user.entity.User;
-import neyan.tech.ni3ma_backend.user.entity.UserRole;
-import neyan.tech.ni3ma_backend.user.repository.UserRepository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -35,23 +33,22 @@ public class PaymentService {
 
     private final PaymentRepository paymentRepository;
     private final OrderRepository orderRepository;
-    private final UserRepository userRepository;
     private final ShopService shopService;
+    private final OwnershipGuard ownershipGuard;
     private final PaymentMapper paymentMapper;
     private final NotificationService notificationService;
 
     @Transactional(readOnly = true)
     public PaymentResponse getPaymentById(UUID paymentId, UUID userId) {
-        Payment payment = findPaymentOrThrow(paymentId);
-        checkPaymentAccess(payment, userId);
-        return paymentMapper.toResponse(payment);
+        checkPaymentAccess(paymentId, userId);
+        return paymentMapper.toResponse(findPaymentOrThrow(paymentId));
     }
 
     @Transactional(readOnly = true)
     public PaymentResponse getPaymentByOrderId(UUID orderId, UUID userId) {
         Payment payment = paymentRepository.findByOrderId(orderId)
                 .orElseThrow(() -> new NotFoundException("Payment", "orderId", orderId));
-        checkPaymentAccess(payment, userId);
+        checkPaymentAccess(payment.getId(), userId);
         return paymentMapper.toResponse(payment);
     }
 
@@ -83,8 +80,8 @@ public class PaymentService {
 
     @Transactional
     public PaymentResponse markAsPending(UUID paymentId, UUID userId) {
+        checkPaymentAccess(paymentId, userId);
         Payment payment = findPaymentOrThrow(paymentId);
-        checkPaymentAccess(payment, userId);
 
         if (payment.getStatus() != PaymentStatus.UNPAID) {
             throw new BadRequestException("Can only mark unpaid payments as pending");
@@ -101,7 +98,8 @@ public class PaymentService {
     public PaymentResponse markAsPaid(UUID paymentId, UUID merchantId) {
         Payment payment = findPaymentOrThrow(paymentId);
 
-        // Verify merchant owns the shop
+        // Verify merchant owns the shop. The order and basket are loaded anyway for the response
+        // (amount, currency); the shop stays a lazy reference checked on its cached snapshot.
         shopService.checkShopOwnership(payment.getOrder().getBasket().getShop(), merchantId);
 
         if (payment.getStatus() == PaymentStatus.PAID) {
@@ -135,12 +133,7 @@ public class PaymentService {
     public PaymentResponse refundPayment(UUID paymentId, UUID adminId) {
         Payment payment = findPaymentOrThrow(paymentId);
 
-        User admin = userRepository.findById(adminId)
-                .orElseThrow(() -> new NotFoundException("User", adminId));
-
-        if (admin.getRole() != UserRole.ADMIN) {
-            throw new ForbiddenException("Only admins can refund payments");
-        }
+        ownershipGuard.requireAdmin(adminId, "Only admins can refund payments");
 
         if (payment.getStatus() != PaymentStatus.PAID) {
             throw new BadRequestException("Can only refund paid payments");
@@ -160,21 +153,10 @@ public class PaymentService {
                 .orElseThrow(() -> new NotFoundException("Payment", paymentId));
     }
 
-    private void checkPaymentAccess(Payment payment, UUID userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("User", userId));
-
-        if (user.getRole() == UserRole.ADMIN) {
-            return;
-        }
-
-        Order order = payment.getOrder();
-        boolean isCustomer = order.getUser().getId().equals(userId);
-        boolean isMerchant = order.getBasket().getShop().getCreatedBy().getId().equals(userId);
-
-        if (!isCustomer && !isMerchant) {
-            throw new ForbiddenException("You don't have access to this payment");
-        }
+    private void checkPaymentAccess(UUID paymentId, UUID userId) {
+        ResourceParties parties = paymentRepository.findPartiesById(paymentId)
+                .orElseThrow(() -> new NotFoundException("Payment", paymentId));
+        ownershipGuard.requireParty(parties, userId, "You don't have access to this payment");
     }
 }
 
@@ -0,0 +1,8 @@
+package neyan.tech.ni3ma_backend.review.event;
+
+import java.util.UUID;
+
+/**
+ * Published by ReviewService when a review of the shop is created, updated or deleted.
+ */
+public record ReviewChangedEvent(UUID shopId) {}
@@ -12,10 +12,14 @@ import neyan.tech.ni3ma_backend.review.dto.CreateReviewRequest;
 import neyan.tech.ni3ma_backend.review.dto.ReviewResponse;
 import neyan.tech.ni3ma_backend.review.dto.UpdateReviewRequest;
 import neyan.tech.ni3ma_backend.review.entity.Review;
+import neyan.tech.ni3ma_backend.review.event.ReviewChangedEvent;
 import neyan.tech.ni3ma_backend.review.mapper.ReviewMapper;
 import neyan.tech.ni3ma_backend.review.repository.ReviewRepository;
+import neyan.tech.ni3ma_backend.shop.entity.Shop;
+import neyan.tech.ni3ma_backend.shop.repository.ShopRepository;
 import neyan.tech.ni3ma_backend.user.entity.User;
 import neyan.tech.ni3ma_backend.user.repository.UserRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -31,7 +35,9 @@ public class ReviewService {
     private final ReviewRepository reviewRepository;
     private final OrderRepository orderRepository;
     private final UserRepository userRepository;
+    private final ShopRepository shopRepository;
     private final ReviewMapper reviewMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Create a review for a picked-up order
@@ -70,9 +76,14 @@ public class ReviewService {
                 .build();
 
         review = reviewRepository.save(review);
-        log.info("Review created: {} for shop {}", review.getId(), order.getBasket().getShop().getId());
-
-        return reviewMapper.toResponse(review);
+        UUID shopId = review.getShop().getId();
+        // Mapped first: adjusting the aggregates clears the persistence context
+        ReviewResponse response = reviewMapper.toResponse(review);
+        shopRepository.adjustReviewAggregates(shopId, review.getRating(), 1);
+        eventPublisher.publishEvent(new ReviewChangedEvent(shopId));
+        log.info("Review created: {} for shop {}", review.getId(), shopId);
+
+        return response;
     }
 
     @Transactional(readOnly = true)
@@ -102,12 +113,12 @@ public class ReviewService {
 
     @Transactional(readOnly = true)
     public Double getShopAverageRating(UUID shopId) {
-        return reviewRepository.getAverageRatingForShop(shopId);
+        return shopRepository.findById(shopId).map(Shop::getAverageRating).orElse(null);
     }
 
     @Transactional(readOnly = true)
     public long getShopReviewCount(UUID shopId) {
-        return reviewRepository.countReviewsForShop(shopId);
+        return shopRepository.findById(shopId).map(Shop::getReviewCount).orElse(0L);
     }
 
     @Transactional
@@ -119,11 +130,18 @@ public class ReviewService {
             throw new ForbiddenException("You can only update your own reviews");
         }
 
+        int previousRating = review.getRating();
         reviewMapper.updateEntity(request, review);
         review = reviewRepository.save(review);
+        UUID shopId = review.getShop().getId();
+        ReviewResponse response = reviewMapper.toResponse(review);
+        if (review.getRating() != previousRating) {
+            shopRepository.adjustReviewAggregates(shopId, review.getRating() - previousRating, 0);
+        }
+        eventPublisher.publishEvent(new ReviewChangedEvent(shopId));
 
         log.info("Review {} updated", reviewId);
-        return reviewMapper.toResponse(review);
+        return response;
     }
 
     @Transactional
@@ -135,7 +153,10 @@ public class ReviewService {
             throw new ForbiddenException("You can only delete your own reviews");
         }
 
+        UUID shopId = review.getShop().getId();
         reviewRepository.delete(review);
+        shopRepository.adjustReviewAggregates(shopId, -review.getRating(), -1);
+        eventPublisher.publishEvent(new ReviewChangedEvent(shopId));
         log.info("Review {} deleted", reviewId);
     }
 
@@ -0,0 +1,68 @@
+package neyan.tech.ni3ma_backend.review.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import neyan.tech.ni3ma_backend.review.event.ReviewChangedEvent;
+import neyan.tech.ni3ma_backend.shop.dto.ShopRatingStats;
+import neyan.tech.ni3ma_backend.shop.entity.Shop;
+import neyan.tech.ni3ma_backend.shop.repository.ShopRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory average rating of every reviewed shop (from the shop aggregates),
+ * so ranking never queries per candidate.
+ * <p>
+ * Loaded at startup, refreshed for a single shop on {@link ReviewChangedEvent} (after commit)
+ * and fully reloaded periodically as a safety net.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ShopRatingIndex {
+
+    private final ShopRepository shopRepository;
+
+    private volatile Map<UUID, Double> ratings = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reload();
+    }
+
+    @Scheduled(fixedDelayString = "${ni3ma.geo.index-refresh-ms:300000}",
+               initialDelayString = "${ni3ma.geo.index-refresh-ms:300000}")
+    public void reload() {
+        Map<UUID, Double> fresh = new ConcurrentHashMap<>();
+        for (ShopRatingStats stats : shopRepository.findRatingStats()) {
+            fresh.put(stats.shopId(), stats.averageRating());
+        }
+        ratings = fresh;
+        log.info("Shop rating index loaded with {} rated shops", fresh.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReviewChanged(ReviewChangedEvent event) {
+        Double average = shopRepository.findById(event.shopId()).map(Shop::getAverageRating).orElse(null);
+        if (average != null) {
+            ratings.put(event.shopId(), average);
+        } else {
+            ratings.remove(event.shopId());
+        }
+    }
+
+    /**
+     * Average rating (1-5) of the shop, or NaN if it has no review.
+     */
+    public double ratingOf(UUID shopId) {
+        Double rating = ratings.get(shopId);
+        return rating != null ? rating : Double.NaN;
+    }
+}
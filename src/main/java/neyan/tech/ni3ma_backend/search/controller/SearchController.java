@@ -0,0 +1,70 @@
+package neyan.tech.ni3ma_backend.search.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import neyan.tech.ni3ma_backend.common.exception.BadRequestException;
+import neyan.tech.ni3ma_backend.common.geo.GeoPoint;
+import neyan.tech.ni3ma_backend.search.service.SearchIndex.DocType;
+import neyan.tech.ni3ma_backend.search.service.SearchService;
+import neyan.tech.ni3ma_backend.search.service.SearchService.SearchHit;
+import neyan.tech.ni3ma_backend.search.service.SuggestIndex.Suggestion;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/search")
+@RequiredArgsConstructor
+@Tag(name = "Search", description = "Full-text search endpoints")
+public class SearchController {
+
+    private final SearchService searchService;
+
+    @Operation(summary = "Search shops and baskets",
+               description = "Returns active shops (name, description, city) and published baskets (title, description) "
+                       + "matching every word of the query, best match first. Accents and common spellings of "
+                       + "transliterated names are ignored; lat/lng restrict results to shops within radiusKm")
+    @GetMapping
+    public ResponseEntity<Page<SearchHit>> search(
+            @Parameter(description = "Search text", required = true, example = "pâtisserie")
+            @RequestParam String q,
+            @Parameter(description = "Only shops or only baskets (both if omitted)")
+            @RequestParam(required = false) DocType type,
+            @Parameter(description = "Latitude", example = "18.0858")
+            @RequestParam(required = false) Double lat,
+            @Parameter(description = "Longitude", example = "-15.9785")
+            @RequestParam(required = false) Double lng,
+            @Parameter(description = "Search radius in kilometers (with lat/lng)", example = "10")
+            @RequestParam(defaultValue = "10") Double radiusKm,
+            @Parameter(description = "Also match words starting with the query words", example = "true")
+            @RequestParam(defaultValue = "true") boolean prefix,
+            @PageableDefault(size = 20) Pageable pageable) {
+
+        if ((lat == null) != (lng == null)) {
+            throw new BadRequestException("lat and lng must be given together");
+        }
+        GeoPoint near = lat != null ? new GeoPoint(lat, lng) : null;
+        return ResponseEntity.ok(searchService.search(q, type, near, radiusKm, prefix, pageable));
+    }
+
+    @Operation(summary = "Suggest shops and cities",
+               description = "Returns active shops and cities having a word that starts with the typed text, "
+                       + "most ordered from first")
+    @GetMapping("/suggest")
+    public ResponseEntity<List<Suggestion>> suggest(
+            @Parameter(description = "Text typed so far", required = true, example = "nouak")
+            @RequestParam String q,
+            @Parameter(description = "Maximum number of suggestions (1-20)", example = "8")
+            @RequestParam(defaultValue = "8") int limit) {
+        return ResponseEntity.ok(searchService.suggest(q, limit));
+    }
+}
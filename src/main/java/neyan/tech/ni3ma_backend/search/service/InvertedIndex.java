@@ -0,0 +1,141 @@
+package neyan.tech.ni3ma_backend.search.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Term -> (document -> weight) postings, with terms kept sorted for prefix lookups.
+ * <p>
+ * A query is a list of term groups (alternative forms of one query word); a document matches
+ * if it matches every group. Its score sums, over the groups, the best weight among its matching
+ * terms times the group's inverse document frequency. Prefix-only matches count for less.
+ * <p>
+ * Not thread-safe: callers (see {@link SearchIndex}) are responsible for locking.
+ */
+public class InvertedIndex {
+
+    /** Weight factor of a term that only starts with the query word. */
+    static final float PREFIX_FACTOR = 0.5f;
+    /** Shorter query words are only matched exactly. */
+    static final int MIN_PREFIX_LENGTH = 2;
+
+    private final TreeMap<String, Map<UUID, Float>> postings = new TreeMap<>();
+    private final Map<UUID, Set<String>> documentTerms = new HashMap<>();
+
+    /**
+     * Inserts or replaces a document.
+     */
+    public void put(UUID id, Map<String, Float> termWeights) {
+        remove(id);
+        if (termWeights.isEmpty()) {
+            return;
+        }
+        termWeights.forEach((term, weight) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(id, weight));
+        documentTerms.put(id, Set.copyOf(termWeights.keySet()));
+    }
+
+    public boolean remove(UUID id) {
+        Set<String> terms = documentTerms.remove(id);
+        if (terms == null) {
+            return false;
+        }
+        for (String term : terms) {
+            Map<UUID, Float> documents = postings.get(term);
+            if (documents != null) {
+                documents.remove(id);
+                if (documents.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+        return true;
+    }
+
+    public boolean contains(UUID id) {
+        return documentTerms.containsKey(id);
+    }
+
+    public int size() {
+        return documentTerms.size();
+    }
+
+    /**
+     * Calls the visitor for every document matching all the groups. Visiting order is unspecified.
+     */
+    public void search(List<Set<String>> groups, boolean prefix, ScoreVisitor visitor) {
+        if (groups.isEmpty() || documentTerms.isEmpty()) {
+            return;
+        }
+        List<Map<UUID, Float>> matches = new ArrayList<>(groups.size());
+        for (Set<String> group : groups) {
+            Map<UUID, Float> groupMatches = match(group, prefix);
+            if (groupMatches.isEmpty()) {
+                return;
+            }
+            matches.add(groupMatches);
+        }
+        double[] idf = new double[matches.size()];
+        for (int i = 0; i < idf.length; i++) {
+            idf[i] = Math.log(1.0 + (double) documentTerms.size() / matches.get(i).size());
+        }
+
+        // Walk the rarest group, probe the others
+        int rarest = 0;
+        for (int i = 1; i < matches.size(); i++) {
+            if (matches.get(i).size() < matches.get(rarest).size()) {
+                rarest = i;
+            }
+        }
+        for (Map.Entry<UUID, Float> candidate : matches.get(rarest).entrySet()) {
+            double score = idf[rarest] * candidate.getValue();
+            boolean all = true;
+            for (int i = 0; i < matches.size() && all; i++) {
+                if (i == rarest) {
+                    continue;
+                }
+                Float weight = matches.get(i).get(candidate.getKey());
+                if (weight == null) {
+                    all = false;
+                } else {
+                    score += idf[i] * weight;
+                }
+            }
+            if (all) {
+                visitor.accept(candidate.getKey(), score);
+            }
+        }
+    }
+
+    private Map<UUID, Float> match(Set<String> group, boolean prefix) {
+        Map<UUID, Float> result = new HashMap<>();
+        for (String form : group) {
+            Map<UUID, Float> exact = postings.get(form);
+            if (exact != null) {
+                exact.forEach((id, weight) -> result.merge(id, weight, Math::max));
+            }
+            if (prefix && form.length() >= MIN_PREFIX_LENGTH) {
+                prefixRange(form).forEach((term, documents) -> {
+                    if (!term.equals(form)) {
+                        documents.forEach((id, weight) -> result.merge(id, weight * PREFIX_FACTOR, Math::max));
+                    }
+                });
+            }
+        }
+        return result;
+    }
+
+    private NavigableMap<String, Map<UUID, Float>> prefixRange(String prefix) {
+        return postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    @FunctionalInterface
+    public interface ScoreVisitor {
+        void accept(UUID id, double score);
+    }
+}
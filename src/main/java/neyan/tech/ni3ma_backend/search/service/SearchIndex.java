@@ -0,0 +1,237 @@
+package neyan.tech.ni3ma_backend.search.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import neyan.tech.ni3ma_backend.basket.dto.BasketText;
+import neyan.tech.ni3ma_backend.basket.event.BasketChangedEvent;
+import neyan.tech.ni3ma_backend.basket.repository.BasketRepository;
+import neyan.tech.ni3ma_backend.shop.dto.ShopText;
+import neyan.tech.ni3ma_backend.shop.entity.ShopStatus;
+import neyan.tech.ni3ma_backend.shop.event.ShopChangedEvent;
+import neyan.tech.ni3ma_backend.shop.repository.ShopRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory full-text index of ACTIVE shops (name, description, city) and PUBLISHED baskets
+ * (title, description).
+ * <p>
+ * Loaded at startup, kept in sync with {@link ShopChangedEvent} and {@link BasketChangedEvent}
+ * (after commit) and fully rebuilt periodically as a safety net. Baskets of shops that are not
+ * indexed and baskets past their pickup end are never returned.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SearchIndex {
+
+    public enum DocType {
+        SHOP,
+        BASKET
+    }
+
+    private static final float NAME_WEIGHT = 3.0f;
+    private static final float CITY_WEIGHT = 2.0f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+
+    private final ShopRepository shopRepository;
+    private final BasketRepository basketRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Snapshot snapshot;
+    private List<Object> changesDuringReload;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reload();
+    }
+
+    @Scheduled(fixedDelayString = "${ni3ma.geo.index-refresh-ms:300000}",
+               initialDelayString = "${ni3ma.geo.index-refresh-ms:300000}")
+    public void reload() {
+        lock.writeLock().lock();
+        try {
+            changesDuringReload = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Snapshot fresh = new Snapshot();
+        List<ShopText> shops;
+        List<BasketText> baskets;
+        try {
+            shops = shopRepository.findActiveShopTexts();
+            baskets = basketRepository.findPublishedBasketTexts(Instant.now());
+        } catch (RuntimeException ex) {
+            lock.writeLock().lock();
+            try {
+                changesDuringReload = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw ex;
+        }
+        shops.forEach(shop -> fresh.putShop(shop.id(), shop.name(), shop.description(), shop.city()));
+        baskets.forEach(basket -> fresh.putBasket(basket.id(), basket.shopId(), basket.title(), basket.description(),
+                basket.pickupEnd()));
+
+        lock.writeLock().lock();
+        try {
+            // Changes committed while we were reading may be missing from the snapshot
+            changesDuringReload.forEach(change -> apply(fresh, change));
+            changesDuringReload = null;
+            snapshot = fresh;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Search index loaded with {} shops and {} baskets", shops.size(), baskets.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onShopChanged(ShopChangedEvent event) {
+        record(event);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBasketChanged(BasketChangedEvent event) {
+        record(event);
+    }
+
+    /**
+     * Calls the visitor for every live document matching all the words of the query.
+     * With prefix, a query word also matches the terms it starts (e.g. while typing).
+     */
+    public void search(String query, boolean prefix, Instant now, MatchVisitor visitor) {
+        List<Set<String>> groups = queryGroups(query);
+        if (groups.isEmpty()) {
+            return;
+        }
+        long nowMillis = now.toEpochMilli();
+        lock.readLock().lock();
+        try {
+            if (snapshot == null) {
+                return;
+            }
+            snapshot.index.search(groups, prefix, (id, score) -> {
+                Doc doc = snapshot.docs.get(id);
+                if (doc.type() == DocType.SHOP) {
+                    visitor.accept(DocType.SHOP, id, id, score);
+                } else if (doc.pickupEndMillis() > nowMillis && snapshot.docs.containsKey(doc.shopId())) {
+                    visitor.accept(DocType.BASKET, id, doc.shopId(), score);
+                }
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ==================== Internal Methods ====================
+
+    private void record(Object change) {
+        lock.writeLock().lock();
+        try {
+            if (changesDuringReload != null) {
+                changesDuringReload.add(change);
+            }
+            if (snapshot != null) {
+                apply(snapshot, change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void apply(Snapshot target, Object change) {
+        if (change instanceof ShopChangedEvent event) {
+            if (event.status() == ShopStatus.ACTIVE) {
+                target.putShop(event.shopId(), event.name(), event.description(), event.city());
+            } else {
+                target.remove(event.shopId());
+            }
+        } else if (change instanceof BasketChangedEvent event) {
+            if (event.isPublished()) {
+                target.putBasket(event.basketId(), event.shopId(), event.title(), event.description(),
+                        event.pickupEnd());
+            } else {
+                target.remove(event.basketId());
+            }
+        }
+    }
+
+    /**
+     * One group per query word: its token and spelling-folded form.
+     */
+    private static List<Set<String>> queryGroups(String query) {
+        List<Set<String>> groups = new ArrayList<>();
+        for (String token : new LinkedHashSet<>(SearchTokenizer.tokenize(query))) {
+            String folded = SearchTokenizer.fold(token);
+            groups.add(folded.equals(token) ? Set.of(token) : Set.of(token, folded));
+        }
+        return groups;
+    }
+
+    private static void addTerms(Map<String, Float> terms, String text, float weight) {
+        for (String token : SearchTokenizer.tokenize(text)) {
+            terms.merge(token, weight, Math::max);
+            terms.merge(SearchTokenizer.fold(token), weight, Math::max);
+        }
+    }
+
+    private record Doc(DocType type, UUID shopId, long pickupEndMillis) {}
+
+    /**
+     * Index plus the metadata needed to filter its hits. Guarded by the outer lock.
+     */
+    private static class Snapshot {
+
+        private final InvertedIndex index = new InvertedIndex();
+        private final Map<UUID, Doc> docs = new HashMap<>();
+
+        void putShop(UUID id, String name, String description, String city) {
+            Map<String, Float> terms = new HashMap<>();
+            addTerms(terms, description, DESCRIPTION_WEIGHT);
+            addTerms(terms, city, CITY_WEIGHT);
+            addTerms(terms, name, NAME_WEIGHT);
+            put(id, new Doc(DocType.SHOP, id, Long.MAX_VALUE), terms);
+        }
+
+        void putBasket(UUID id, UUID shopId, String title, String description, Instant pickupEnd) {
+            Map<String, Float> terms = new HashMap<>();
+            addTerms(terms, description, DESCRIPTION_WEIGHT);
+            addTerms(terms, title, NAME_WEIGHT);
+            put(id, new Doc(DocType.BASKET, shopId, pickupEnd != null ? pickupEnd.toEpochMilli() : Long.MAX_VALUE), terms);
+        }
+
+        void remove(UUID id) {
+            index.remove(id);
+            docs.remove(id);
+        }
+
+        private void put(UUID id, Doc doc, Map<String, Float> terms) {
+            index.put(id, terms);
+            docs.put(id, doc);
+        }
+    }
+
+    /**
+     * Receives matches without allocating a result object per hit; shopId is the id itself for shops.
+     */
+    @FunctionalInterface
+    public interface MatchVisitor {
+        void accept(DocType type, UUID id, UUID shopId, double score);
+    }
+}
@@ -0,0 +1,167 @@
+package neyan.tech.ni3ma_backend.search.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import neyan.tech.ni3ma_backend.basket.dto.BasketResponse;
+import neyan.tech.ni3ma_backend.basket.entity.Basket;
+import neyan.tech.ni3ma_backend.basket.entity.BasketStatus;
+import neyan.tech.ni3ma_backend.basket.mapper.BasketMapper;
+import neyan.tech.ni3ma_backend.basket.repository.BasketRepository;
+import neyan.tech.ni3ma_backend.common.exception.BadRequestException;
+import neyan.tech.ni3ma_backend.common.geo.GeoPoint;
+import neyan.tech.ni3ma_backend.common.geo.GeoUtils;
+import neyan.tech.ni3ma_backend.common.geo.ShopGeoIndex;
+import neyan.tech.ni3ma_backend.common.geo.TopKScores;
+import neyan.tech.ni3ma_backend.search.service.SearchIndex.DocType;
+import neyan.tech.ni3ma_backend.search.service.SuggestIndex.Suggestion;
+import neyan.tech.ni3ma_backend.shop.dto.ShopResponse;
+import neyan.tech.ni3ma_backend.shop.entity.Shop;
+import neyan.tech.ni3ma_backend.shop.entity.ShopStatus;
+import neyan.tech.ni3ma_backend.shop.mapper.ShopMapper;
+import neyan.tech.ni3ma_backend.shop.repository.ShopRepository;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Full-text search over shops and baskets, served from the in-memory {@link SearchIndex}.
+ * Only the entities of the returned page are loaded.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SearchService {
+
+    private static final int MAX_QUERY_LENGTH = 100;
+    private static final double MAX_RADIUS_KM = 200;
+    private static final int MAX_SUGGESTIONS = 20;
+
+    private final SearchIndex searchIndex;
+    private final SuggestIndex suggestIndex;
+    private final ShopGeoIndex shopGeoIndex;
+    private final ShopRepository shopRepository;
+    private final BasketRepository basketRepository;
+    private final ShopMapper shopMapper;
+    private final BasketMapper basketMapper;
+
+    /**
+     * Shops and baskets matching every word of the query, best match first.
+     *
+     * @param type   Only this kind of result, or both if null
+     * @param near   Only results whose shop is within radiusKm of this point, or anywhere if null
+     * @param prefix Also match words the query words start (search-as-you-type)
+     */
+    @Transactional(readOnly = true)
+    public Page<SearchHit> search(String query, DocType type, GeoPoint near, double radiusKm, boolean prefix,
+                                  Pageable pageable) {
+        if (query == null || query.isBlank() || query.length() > MAX_QUERY_LENGTH) {
+            throw new BadRequestException("q must be between 1 and " + MAX_QUERY_LENGTH + " characters");
+        }
+        if (near != null && (radiusKm <= 0 || radiusKm > MAX_RADIUS_KM)) {
+            throw new BadRequestException("radiusKm must be between 0 and " + MAX_RADIUS_KM);
+        }
+        log.debug("Searching '{}' (type {}, near {} within {} km)", query, type, near, radiusKm);
+
+        int k = pageable.isUnpaged()
+                ? Integer.MAX_VALUE
+                : (int) Math.min(Integer.MAX_VALUE, pageable.getOffset() + pageable.getPageSize());
+        TopKScores top = new TopKScores(k);
+        Map<UUID, DocType> types = new HashMap<>();
+
+        searchIndex.search(query, prefix, Instant.now(), (docType, id, shopId, score) -> {
+            if (type != null && docType != type) {
+                return;
+            }
+            double distanceKm = 0;
+            if (near != null) {
+                GeoPoint location = shopGeoIndex.locate(shopId);
+                if (location == null) {
+                    return;
+                }
+                distanceKm = GeoUtils.haversineDistance(near.lat(), near.lng(), location.lat(), location.lng());
+                if (distanceKm > radiusKm) {
+                    return;
+                }
+            }
+            types.put(id, docType);
+            top.accept(id, distanceKm, score);
+        });
+
+        List<TopKScores.ScoredHit> hits = top.toSortedList();
+        int start = pageable.isUnpaged() ? 0 : (int) Math.min(pageable.getOffset(), hits.size());
+        return new PageImpl<>(load(hits.subList(start, hits.size()), types, near != null), pageable, top.matched());
+    }
+
+    /**
+     * Completions of what the user is typing: active shops and cities, most popular first.
+     * Answered from memory only.
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        if (prefix == null || prefix.length() > MAX_QUERY_LENGTH) {
+            throw new BadRequestException("q must be at most " + MAX_QUERY_LENGTH + " characters");
+        }
+        if (limit < 1 || limit > MAX_SUGGESTIONS) {
+            throw new BadRequestException("limit must be between 1 and " + MAX_SUGGESTIONS);
+        }
+        return suggestIndex.suggest(prefix, limit);
+    }
+
+    // ==================== Internal Methods ====================
+
+    /**
+     * Loads the shops and baskets of the given hits, keeping the hit order.
+     * Entities deactivated since they were indexed are dropped.
+     */
+    private List<SearchHit> load(List<TopKScores.ScoredHit> hits, Map<UUID, DocType> types, boolean withDistance) {
+        if (hits.isEmpty()) {
+            return List.of();
+        }
+        List<UUID> shopIds = new ArrayList<>();
+        List<UUID> basketIds = new ArrayList<>();
+        for (TopKScores.ScoredHit hit : hits) {
+            (types.get(hit.id()) == DocType.SHOP ? shopIds : basketIds).add(hit.id());
+        }
+        Map<UUID, Shop> shops = shopIds.isEmpty() ? Map.of() : shopRepository.findAllWithOwnerByIdIn(shopIds)
+                .stream()
+                .collect(Collectors.toMap(Shop::getId, Function.identity()));
+        Map<UUID, Basket> baskets = basketIds.isEmpty() ? Map.of() : basketRepository.findAllWithShopAndImagesByIdIn(basketIds)
+                .stream()
+                .collect(Collectors.toMap(Basket::getId, Function.identity()));
+
+        List<SearchHit> result = new ArrayList<>(hits.size());
+        for (TopKScores.ScoredHit hit : hits) {
+            Double distanceKm = withDistance ? hit.distanceKm() : null;
+            Shop shop = shops.get(hit.id());
+            Basket basket = baskets.get(hit.id());
+            if (shop != null && shop.getStatus() == ShopStatus.ACTIVE) {
+                result.add(new SearchHit(DocType.SHOP, hit.score(), distanceKm, shopMapper.toResponse(shop), null));
+            } else if (basket != null && basket.getStatus() == BasketStatus.PUBLISHED) {
+                result.add(new SearchHit(DocType.BASKET, hit.score(), distanceKm, null, basketMapper.toResponse(basket)));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Record for a search result: either a shop or a basket, with its relevance score and,
+     * for geo-filtered searches, the distance of its shop.
+     */
+    public record SearchHit(
+            DocType type,
+            double score,
+            Double distanceKm,
+            ShopResponse shop,
+            BasketResponse basket
+    ) {}
+}
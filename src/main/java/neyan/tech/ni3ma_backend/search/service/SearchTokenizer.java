@@ -0,0 +1,113 @@
+package neyan.tech.ni3ma_backend.search.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Turns shop/basket text and queries into index terms.
+ * <p>
+ * Latin text is accent-folded ("pâtisserie" -> "patisserie") and lightly stemmed (plural s/x).
+ * Arabic text loses its diacritics and tatweel, and its hamza/alef, ta marbuta and alef maqsura
+ * variants are unified; a leading "ال" is dropped. {@link #fold} additionally smooths out the
+ * usual spelling variants of transliterated Arabic/Hassaniya names (ch/sh, ou/u, doubled letters).
+ */
+public final class SearchTokenizer {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern DOUBLED_LETTERS = Pattern.compile("(\\p{L})\\1+");
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "au", "aux", "d", "de", "des", "du", "en", "et", "l", "la", "le", "les", "un", "une",
+            "al", "el", "the", "and", "of");
+
+    private SearchTokenizer() {
+    }
+
+    /**
+     * Normalized tokens of the text, in order, stop words removed.
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return tokens;
+        }
+        for (String raw : SEPARATORS.split(normalize(text))) {
+            if (raw.isEmpty() || STOP_WORDS.contains(raw)) {
+                continue;
+            }
+            tokens.add(isArabic(raw) ? stemArabic(raw) : stemLatin(raw));
+        }
+        return tokens;
+    }
+
+    /**
+     * Normalized words of the text, in order, without stop word removal or stemming
+     * (for prefix completion of what the user is typing).
+     */
+    public static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return words;
+        }
+        for (String raw : SEPARATORS.split(normalize(text))) {
+            if (!raw.isEmpty()) {
+                words.add(raw);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Spelling-insensitive form of a Latin token ("chinguetti" and "shinguetti" both give "shingueti").
+     * Indexed next to the token itself, so prefixes that stop mid-digraph still match the plain form.
+     */
+    public static String fold(String token) {
+        if (isArabic(token)) {
+            return token;
+        }
+        String folded = token
+                .replace("ch", "sh")
+                .replace("dj", "j")
+                .replace("oo", "u")
+                .replace("ou", "u");
+        return DOUBLED_LETTERS.matcher(folded).replaceAll("$1");
+    }
+
+    // ==================== Internal Methods ====================
+
+    private static String normalize(String text) {
+        // NFKD splits accents and Arabic hamza/madda off their base letter; the marks are then dropped
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFKD);
+        return MARKS.matcher(decomposed).replaceAll("")
+                .toLowerCase(Locale.ROOT)
+                .replace("œ", "oe")
+                .replace("æ", "ae")
+                .replace("ß", "ss")
+                .replace("ـ", "")      // tatweel
+                .replace('ة', 'ه') // ta marbuta -> ha
+                .replace('ى', 'ي'); // alef maqsura -> ya
+    }
+
+    private static String stemLatin(String token) {
+        if (token.length() > 4 && token.endsWith("eaux")) {
+            return token.substring(0, token.length() - 1);
+        }
+        if (token.length() > 3 && token.endsWith("s") && !token.endsWith("ss")) {
+            return token.substring(0, token.length() - 1);
+        }
+        return token;
+    }
+
+    private static String stemArabic(String token) {
+        return token.length() > 3 && token.startsWith("ال") ? token.substring(2) : token;
+    }
+
+    private static boolean isArabic(String token) {
+        return Character.UnicodeScript.of(token.codePointAt(0)) == Character.UnicodeScript.ARABIC;
+    }
+}
@@ -0,0 +1,152 @@
+package neyan.tech.ni3ma_backend.search.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import neyan.tech.ni3ma_backend.order.dto.ShopOrderCount;
+import neyan.tech.ni3ma_backend.order.repository.OrderRepository;
+import neyan.tech.ni3ma_backend.shop.dto.ShopText;
+import neyan.tech.ni3ma_backend.shop.entity.ShopStatus;
+import neyan.tech.ni3ma_backend.shop.event.ShopChangedEvent;
+import neyan.tech.ni3ma_backend.shop.repository.ShopRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Autocomplete of active shop names and cities, ranked by popularity (non-cancelled orders;
+ * a city counts the orders of its shops plus one per shop).
+ * <p>
+ * Lookups read an immutable {@link SuggestionTable} without locking. The table is rebuilt
+ * whenever a {@link ShopChangedEvent} is committed and on the periodic reload, which also
+ * refreshes the order counts.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SuggestIndex {
+
+    public enum SuggestionType {
+        SHOP,
+        CITY
+    }
+
+    /**
+     * A completion: a shop (with its id and city) or a city.
+     */
+    public record Suggestion(SuggestionType type, String text, UUID shopId, String city) {}
+
+    private final ShopRepository shopRepository;
+    private final OrderRepository orderRepository;
+
+    private final Object writeLock = new Object();
+    private Map<UUID, ShopText> shops;
+    private Map<UUID, Long> orderCounts = Map.of();
+    private List<ShopChangedEvent> changesDuringReload;
+    private volatile SuggestionTable table = SuggestionTable.EMPTY;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reload();
+    }
+
+    @Scheduled(fixedDelayString = "${ni3ma.geo.index-refresh-ms:300000}",
+               initialDelayString = "${ni3ma.geo.index-refresh-ms:300000}")
+    public void reload() {
+        synchronized (writeLock) {
+            changesDuringReload = new ArrayList<>();
+        }
+
+        List<ShopText> activeShops;
+        List<ShopOrderCount> counts;
+        try {
+            activeShops = shopRepository.findActiveShopTexts();
+            counts = orderRepository.countOrdersPerShop();
+        } catch (RuntimeException ex) {
+            synchronized (writeLock) {
+                changesDuringReload = null;
+            }
+            throw ex;
+        }
+        Map<UUID, ShopText> fresh = new HashMap<>();
+        activeShops.forEach(shop -> fresh.put(shop.id(), shop));
+        Map<UUID, Long> freshCounts = new HashMap<>();
+        counts.forEach(count -> freshCounts.put(count.shopId(), count.orders()));
+
+        synchronized (writeLock) {
+            // Changes committed while we were reading may be missing from the snapshot
+            changesDuringReload.forEach(change -> apply(fresh, change));
+            changesDuringReload = null;
+            shops = fresh;
+            orderCounts = freshCounts;
+            table = build();
+        }
+        log.info("Suggestion index loaded with {} entries", table.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onShopChanged(ShopChangedEvent event) {
+        synchronized (writeLock) {
+            if (changesDuringReload != null) {
+                changesDuringReload.add(event);
+            }
+            if (shops != null) {
+                apply(shops, event);
+                table = build();
+            }
+        }
+    }
+
+    /**
+     * The limit most popular shops and cities with a word starting with the prefix.
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String key = String.join(" ", SearchTokenizer.words(prefix));
+        return key.isEmpty() ? List.of() : table.lookup(key, limit);
+    }
+
+    // ==================== Internal Methods ====================
+
+    private static void apply(Map<UUID, ShopText> target, ShopChangedEvent event) {
+        if (event.status() == ShopStatus.ACTIVE) {
+            target.put(event.shopId(), new ShopText(event.shopId(), event.name(), event.description(), event.city()));
+        } else {
+            target.remove(event.shopId());
+        }
+    }
+
+    /**
+     * Called with the write lock held.
+     */
+    private SuggestionTable build() {
+        List<SuggestionTable.Entry> entries = new ArrayList<>();
+        Map<String, String> cityNames = new LinkedHashMap<>();
+        Map<String, Long> cityWeights = new HashMap<>();
+
+        for (ShopText shop : shops.values()) {
+            long orders = orderCounts.getOrDefault(shop.id(), 0L);
+            List<String> words = SearchTokenizer.words(shop.name());
+            if (!words.isEmpty()) {
+                entries.add(new SuggestionTable.Entry(
+                        new Suggestion(SuggestionType.SHOP, shop.name(), shop.id(), shop.city()), orders, words));
+            }
+            String cityKey = String.join(" ", SearchTokenizer.words(shop.city()));
+            if (!cityKey.isEmpty()) {
+                cityNames.putIfAbsent(cityKey, shop.city().trim());
+                cityWeights.merge(cityKey, orders + 1, Long::sum);
+            }
+        }
+        cityNames.forEach((cityKey, city) -> entries.add(new SuggestionTable.Entry(
+                new Suggestion(SuggestionType.CITY, city, null, city), cityWeights.get(cityKey),
+                SearchTokenizer.words(city))));
+        return new SuggestionTable(entries);
+    }
+}
@@ -0,0 +1,108 @@
+package neyan.tech.ni3ma_backend.search.service;
+
+import neyan.tech.ni3ma_backend.search.service.SuggestIndex.Suggestion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Immutable sorted array of completion keys: for every suggestion, its normalized text from
+ * each word onwards ("patisserie chinguetti", "chinguetti"), so a prefix of any word matches.
+ * A lookup binary-searches the first key with the prefix and scans the matching range.
+ */
+class SuggestionTable {
+
+    static final SuggestionTable EMPTY = new SuggestionTable(List.of());
+
+    private final String[] keys;
+    private final int[] owners;
+    private final Suggestion[] suggestions;
+    private final long[] weights;
+
+    /**
+     * A suggestion with its popularity and the normalized words it is completed from.
+     */
+    record Entry(Suggestion suggestion, long weight, List<String> words) {}
+
+    SuggestionTable(List<Entry> entries) {
+        suggestions = new Suggestion[entries.size()];
+        weights = new long[entries.size()];
+        List<String> keyList = new ArrayList<>();
+        List<Integer> ownerList = new ArrayList<>();
+        for (int j = 0; j < entries.size(); j++) {
+            Entry entry = entries.get(j);
+            suggestions[j] = entry.suggestion();
+            weights[j] = entry.weight();
+            List<String> words = entry.words();
+            for (int i = 0; i < words.size(); i++) {
+                keyList.add(String.join(" ", words.subList(i, words.size())));
+                ownerList.add(j);
+            }
+        }
+
+        Integer[] order = new Integer[keyList.size()];
+        Arrays.setAll(order, i -> i);
+        Arrays.sort(order, Comparator.comparing(keyList::get));
+        keys = new String[order.length];
+        owners = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            keys[i] = keyList.get(order[i]);
+            owners[i] = ownerList.get(order[i]);
+        }
+    }
+
+    int size() {
+        return suggestions.length;
+    }
+
+    /**
+     * The limit most popular suggestions having a key that starts with the (normalized) prefix.
+     */
+    List<Suggestion> lookup(String prefix, int limit) {
+        // Worst kept suggestion at the head
+        Comparator<Integer> ranking = rankingOrder();
+        PriorityQueue<Integer> top = new PriorityQueue<>(limit + 1, ranking.reversed());
+        Set<Integer> seen = new HashSet<>();
+        for (int i = lowerBound(prefix); i < keys.length && keys[i].startsWith(prefix); i++) {
+            int owner = owners[i];
+            if (seen.add(owner)) {
+                top.add(owner);
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+        }
+        List<Integer> best = new ArrayList<>(top);
+        best.sort(ranking);
+        return best.stream().map(j -> suggestions[j]).toList();
+    }
+
+    /**
+     * Most popular first, then shortest, then alphabetical.
+     */
+    private Comparator<Integer> rankingOrder() {
+        return Comparator.<Integer>comparingLong(j -> weights[j]).reversed()
+                .thenComparingInt(j -> suggestions[j].text().length())
+                .thenComparing(j -> suggestions[j].text())
+                .thenComparingInt(j -> j);
+    }
+
+    private int lowerBound(String prefix) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
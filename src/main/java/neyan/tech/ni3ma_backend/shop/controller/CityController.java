@@ -0,0 +1,42 @@
+package neyan.tech.ni3ma_backend.shop.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import neyan.tech.ni3ma_backend.common.exception.NotFoundException;
+import neyan.tech.ni3ma_backend.shop.service.CityStatsIndex;
+import neyan.tech.ni3ma_backend.shop.service.CityStatsIndex.CityStats;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/cities")
+@RequiredArgsConstructor
+@Tag(name = "Cities", description = "Public city statistics endpoints")
+public class CityController {
+
+    private final CityStatsIndex cityStatsIndex;
+
+    @Operation(summary = "Get cities",
+               description = "Returns every city with active shops, with its number of active shops, "
+                       + "available baskets and baskets picked up today")
+    @GetMapping
+    public ResponseEntity<List<CityStats>> getCities() {
+        return ResponseEntity.ok(cityStatsIndex.getCities());
+    }
+
+    @Operation(summary = "Get city statistics", description = "Returns the statistics of a city (case-insensitive)")
+    @GetMapping("/{city}")
+    public ResponseEntity<CityStats> getCity(
+            @Parameter(description = "City name", example = "Nouakchott")
+            @PathVariable String city) {
+        return ResponseEntity.ok(cityStatsIndex.getCity(city)
+                .orElseThrow(() -> new NotFoundException("City", "name", city)));
+    }
+}
@@ -0,0 +1,14 @@
+package neyan.tech.ni3ma_backend.shop.dto;
+
+import neyan.tech.ni3ma_backend.shop.entity.ShopStatus;
+
+import java.util.UUID;
+
+/**
+ * City and status of a shop, used to build the in-memory per-city statistics.
+ */
+public record ShopCity(
+        UUID id,
+        String city,
+        ShopStatus status
+) {}
@@ -0,0 +1,13 @@
+package neyan.tech.ni3ma_backend.shop.dto;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Id + coordinates projection used to (re)build the in-memory geo index.
+ */
+public record ShopLocation(
+        UUID id,
+        BigDecimal latitude,
+        BigDecimal longitude
+) {}
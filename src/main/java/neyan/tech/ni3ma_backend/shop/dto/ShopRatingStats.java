@@ -0,0 +1,11 @@
+package neyan.tech.ni3ma_backend.shop.dto;
+
+import java.util.UUID;
+
+/**
+ * Average rating of a shop with at least one review.
+ */
+public record ShopRatingStats(
+        UUID shopId,
+        Double averageRating
+) {}
@@ -0,0 +1,16 @@
+package neyan.tech.ni3ma_backend.shop.dto;
+
+import neyan.tech.ni3ma_backend.shop.entity.ShopStatus;
+
+import java.util.UUID;
+
+/**
+ * Immutable view of the shop fields checked on hot paths (ownership, status), safe to cache
+ * across transactions unlike the entity and its lazy owner.
+ */
+public record ShopSnapshot(
+        UUID id,
+        UUID ownerId,
+        String name,
+        ShopStatus status
+) {}
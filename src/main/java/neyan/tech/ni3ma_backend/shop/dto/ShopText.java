@@ -0,0 +1,13 @@
+package neyan.tech.ni3ma_backend.shop.dto;
+
+import java.util.UUID;
+
+/**
+ * Searchable text of a shop, used to (re)build the in-memory search index.
+ */
+public record ShopText(
+        UUID id,
+        String name,
+        String description,
+        String city
+) {}
@@ -83,6 +83,22 @@ public class Shop {
     @JoinColumn(name = "created_by", nullable = false)
     private User createdBy;
 
+    /**
+     * Review and favorite aggregates. Only changed through the atomic increments of
+     * ShopRepository (and its reconciliation), never by saving the entity.
+     */
+    @Column(name = "rating_sum", nullable = false, updatable = false)
+    @Builder.Default
+    private long ratingSum = 0;
+
+    @Column(name = "review_count", nullable = false, updatable = false)
+    @Builder.Default
+    private long reviewCount = 0;
+
+    @Column(name = "favorite_count", nullable = false, updatable = false)
+    @Builder.Default
+    private long favoriteCount = 0;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt;
@@ -90,5 +106,12 @@ public class Shop {
     @UpdateTimestamp
     @Column(name = "updated_at")
     private Instant updatedAt;
+
+    /**
+     * Average review rating, or null if the shop has no review.
+     */
+    public Double getAverageRating() {
+        return reviewCount > 0 ? (double) ratingSum / reviewCount : null;
+    }
 }
 
@@ -0,0 +1,38 @@
+package neyan.tech.ni3ma_backend.shop.event;
+
+import neyan.tech.ni3ma_backend.shop.entity.Shop;
+import neyan.tech.ni3ma_backend.shop.entity.ShopStatus;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Published by ShopService whenever a shop is created or its details/status change.
+ * Carries a detached snapshot so listeners never touch the persistence context.
+ */
+public record ShopChangedEvent(
+        UUID shopId,
+        String name,
+        String description,
+        String city,
+        BigDecimal latitude,
+        BigDecimal longitude,
+        ShopStatus status
+) {
+
+    public static ShopChangedEvent of(Shop shop) {
+        return new ShopChangedEvent(
+                shop.getId(),
+                shop.getName(),
+                shop.getDescription(),
+                shop.getCity(),
+                shop.getLatitude(),
+                shop.getLongitude(),
+                shop.getStatus()
+        );
+    }
+
+    public boolean isSearchable() {
+        return status == ShopStatus.ACTIVE && latitude != null && longitude != null;
+    }
+}
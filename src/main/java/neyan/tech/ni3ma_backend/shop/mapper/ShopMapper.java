@@ -20,15 +20,15 @@ public interface ShopMapper {
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "status", ignore = true)
     @Mapping(target = "createdBy", ignore = true)
+    @Mapping(target = "ratingSum", ignore = true)
+    @Mapping(target = "reviewCount", ignore = true)
+    @Mapping(target = "favoriteCount", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
     Shop toEntity(CreateShopRequest request);
 
     @Mapping(target = "createdById", source = "createdBy.id")
     @Mapping(target = "createdByName", source = "createdBy.fullName")
-    @Mapping(target = "averageRating", ignore = true)
-    @Mapping(target = "reviewCount", ignore = true)
-    @Mapping(target = "favoriteCount", ignore = true)
     ShopResponse toResponse(Shop shop);
 
     ShopSummaryResponse toSummaryResponse(Shop shop);
@@ -41,6 +41,9 @@ public interface ShopMapper {
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "status", ignore = true)
     @Mapping(target = "createdBy", ignore = true)
+    @Mapping(target = "ratingSum", ignore = true)
+    @Mapping(target = "reviewCount", ignore = true)
+    @Mapping(target = "favoriteCount", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
     void updateEntity(UpdateShopRequest request, @MappingTarget Shop shop);
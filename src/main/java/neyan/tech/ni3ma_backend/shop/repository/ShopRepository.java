@@ -1,23 +1,32 @@
 package neyan.tech.ni3ma_backend.shop.repository;
 
+import neyan.tech.ni3ma_backend.shop.dto.ShopCity;
+import neyan.tech.ni3ma_backend.shop.dto.ShopLocation;
+import neyan.tech.ni3ma_backend.shop.dto.ShopRatingStats;
+import neyan.tech.ni3ma_backend.shop.dto.ShopSnapshot;
+import neyan.tech.ni3ma_backend.shop.dto.ShopText;
 import neyan.tech.ni3ma_backend.shop.entity.Shop;
 import neyan.tech.ni3ma_backend.shop.entity.ShopStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
-import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface ShopRepository extends JpaRepository<Shop, UUID> {
 
-    List<Shop> findByCreatedById(UUID userId);
+    @Query(value = "SELECT s FROM Shop s LEFT JOIN FETCH s.createdBy WHERE s.createdBy.id = :userId",
+           countQuery = "SELECT COUNT(s) FROM Shop s WHERE s.createdBy.id = :userId")
+    Page<Shop> findByCreatedById(@Param("userId") UUID userId, Pageable pageable);
 
     @Query(value = "SELECT s FROM Shop s LEFT JOIN FETCH s.createdBy WHERE s.status = :status",
            countQuery = "SELECT COUNT(s) FROM Shop s WHERE s.status = :status")
@@ -59,28 +68,95 @@ public interface ShopRepository extends JpaRepository<Shop, UUID> {
     );
 
     /**
-     * Find active shops with available baskets within a bounding box.
+     * Owner id and status of a shop without loading the entity (feeds the shop cache).
      */
     @Query("""
-            SELECT DISTINCT s FROM Shop s
-            JOIN Basket b ON b.shop = s
+            SELECT new neyan.tech.ni3ma_backend.shop.dto.ShopSnapshot(s.id, s.createdBy.id, s.name, s.status)
+            FROM Shop s
+            WHERE s.id = :shopId
+            """)
+    Optional<ShopSnapshot> findSnapshotById(@Param("shopId") UUID shopId);
+
+    /**
+     * Coordinates of every active, geolocated shop (feeds the in-memory geo index).
+     */
+    @Query("""
+            SELECT new neyan.tech.ni3ma_backend.shop.dto.ShopLocation(s.id, s.latitude, s.longitude)
+            FROM Shop s
             WHERE s.status = 'ACTIVE'
             AND s.latitude IS NOT NULL
             AND s.longitude IS NOT NULL
-            AND s.latitude BETWEEN :minLat AND :maxLat
-            AND s.longitude BETWEEN :minLng AND :maxLng
-            AND b.status = 'PUBLISHED'
-            AND b.quantityLeft > 0
-            AND b.pickupEnd > :now
-            ORDER BY s.createdAt DESC
             """)
-    List<Shop> findActiveShopsWithBasketsInBoundingBox(
-            @Param("minLat") BigDecimal minLat,
-            @Param("maxLat") BigDecimal maxLat,
-            @Param("minLng") BigDecimal minLng,
-            @Param("maxLng") BigDecimal maxLng,
-            @Param("now") Instant now
-    );
+    List<ShopLocation> findActiveShopLocations();
+
+    /**
+     * Text of every active shop (feeds the in-memory search index).
+     */
+    @Query("""
+            SELECT new neyan.tech.ni3ma_backend.shop.dto.ShopText(s.id, s.name, s.description, s.city)
+            FROM Shop s
+            WHERE s.status = 'ACTIVE'
+            """)
+    List<ShopText> findActiveShopTexts();
+
+    /**
+     * City and status of every shop (feeds the in-memory city statistics).
+     */
+    @Query("SELECT new neyan.tech.ni3ma_backend.shop.dto.ShopCity(s.id, s.city, s.status) FROM Shop s")
+    List<ShopCity> findShopCities();
+
+    /**
+     * Average rating of every reviewed shop, from the stored aggregates.
+     */
+    @Query("""
+            SELECT new neyan.tech.ni3ma_backend.shop.dto.ShopRatingStats(s.id, 1.0 * s.ratingSum / s.reviewCount)
+            FROM Shop s
+            WHERE s.reviewCount > 0
+            """)
+    List<ShopRatingStats> findRatingStats();
+
+    /**
+     * Atomically applies a review change to the shop's rating aggregates.
+     * Pending changes are flushed first and the persistence context is cleared after,
+     * so shops loaded in the same transaction are read again with the new values.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            UPDATE Shop s
+            SET s.ratingSum = s.ratingSum + :ratingDelta, s.reviewCount = s.reviewCount + :countDelta
+            WHERE s.id = :shopId
+            """)
+    int adjustReviewAggregates(@Param("shopId") UUID shopId,
+                               @Param("ratingDelta") long ratingDelta,
+                               @Param("countDelta") long countDelta);
+
+    /**
+     * Atomically applies a favorite change to the shop's count, flushing and clearing like
+     * {@link #adjustReviewAggregates}.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Shop s SET s.favoriteCount = s.favoriteCount + :delta WHERE s.id = :shopId")
+    int adjustFavoriteCount(@Param("shopId") UUID shopId, @Param("delta") long delta);
+
+    /**
+     * Recomputes the aggregates of every shop whose stored values drifted from the source rows.
+     *
+     * @return number of shops repaired
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = """
+            UPDATE shops SET
+                rating_sum = COALESCE((SELECT SUM(r.rating) FROM reviews r WHERE r.shop_id = shops.id), 0),
+                review_count = (SELECT COUNT(*) FROM reviews r WHERE r.shop_id = shops.id),
+                favorite_count = (SELECT COUNT(*) FROM favorites f WHERE f.shop_id = shops.id)
+            WHERE rating_sum <> COALESCE((SELECT SUM(r.rating) FROM reviews r WHERE r.shop_id = shops.id), 0)
+            OR review_count <> (SELECT COUNT(*) FROM reviews r WHERE r.shop_id = shops.id)
+            OR favorite_count <> (SELECT COUNT(*) FROM favorites f WHERE f.shop_id = shops.id)
+            """, nativeQuery = true)
+    int reconcileAggregates();
+
+    @Query("SELECT s FROM Shop s LEFT JOIN FETCH s.createdBy WHERE s.id IN :ids")
+    List<Shop> findAllWithOwnerByIdIn(@Param("ids") Collection<UUID> ids);
 
     /**
      * Legacy method using native SQL Haversine (can be slower without index).
@@ -0,0 +1,318 @@
+package neyan.tech.ni3ma_backend.shop.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import neyan.tech.ni3ma_backend.basket.dto.AvailableBasketRef;
+import neyan.tech.ni3ma_backend.basket.event.BasketChangedEvent;
+import neyan.tech.ni3ma_backend.basket.repository.BasketRepository;
+import neyan.tech.ni3ma_backend.common.config.Ni3maProperties;
+import neyan.tech.ni3ma_backend.order.dto.PickedUpOrder;
+import neyan.tech.ni3ma_backend.order.event.OrderPickedUpEvent;
+import neyan.tech.ni3ma_backend.order.repository.OrderRepository;
+import neyan.tech.ni3ma_backend.shop.dto.ShopCity;
+import neyan.tech.ni3ma_backend.shop.entity.ShopStatus;
+import neyan.tech.ni3ma_backend.shop.event.ShopChangedEvent;
+import neyan.tech.ni3ma_backend.shop.repository.ShopRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * In-memory per-city statistics for the city pages: active shops, orderable baskets and
+ * baskets picked up today, so viewing a city never runs count queries.
+ * <p>
+ * Readers get an immutable snapshot without locking. It is rebuilt when a shop, basket
+ * availability or pickup change commits, and fully reloaded periodically as a safety net.
+ * Pickup ends are kept so baskets stop counting as soon as their window closes.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CityStatsIndex {
+
+    private final ShopRepository shopRepository;
+    private final BasketRepository basketRepository;
+    private final OrderRepository orderRepository;
+    private final Ni3maProperties ni3maProperties;
+
+    private final Object writeLock = new Object();
+    private Map<UUID, ShopEntry> shops;
+    /** basketId -> available basket */
+    private Map<UUID, LiveBasket> baskets;
+    /** shopId -> baskets picked up on mealsDay */
+    private Map<UUID, Long> meals;
+    private LocalDate mealsDay;
+    private List<Object> changesDuringReload;
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reload();
+    }
+
+    @Scheduled(fixedDelayString = "${ni3ma.geo.index-refresh-ms:300000}",
+               initialDelayString = "${ni3ma.geo.index-refresh-ms:300000}")
+    public void reload() {
+        synchronized (writeLock) {
+            changesDuringReload = new ArrayList<>();
+        }
+
+        Instant now = Instant.now();
+        LocalDate today = LocalDate.ofInstant(now, zone());
+        List<ShopCity> shopCities;
+        List<AvailableBasketRef> available;
+        List<PickedUpOrder> pickedUp;
+        try {
+            shopCities = shopRepository.findShopCities();
+            available = basketRepository.findAllAvailableBasketRefs(now);
+            pickedUp = orderRepository.findPickedUpOrdersSince(today.atStartOfDay(zone()).toInstant());
+        } catch (RuntimeException ex) {
+            synchronized (writeLock) {
+                changesDuringReload = null;
+            }
+            throw ex;
+        }
+        Map<UUID, ShopEntry> freshShops = new HashMap<>();
+        shopCities.forEach(shop -> freshShops.put(shop.id(), new ShopEntry(shop.city(), shop.status() == ShopStatus.ACTIVE)));
+        Map<UUID, LiveBasket> freshBaskets = new HashMap<>();
+        available.forEach(ref -> freshBaskets.put(ref.basketId(), new LiveBasket(ref.shopId(), ref.pickupEnd().toEpochMilli())));
+        Map<UUID, Long> freshMeals = new HashMap<>();
+        Set<UUID> countedOrders = new HashSet<>();
+        pickedUp.forEach(order -> {
+            countedOrders.add(order.orderId());
+            freshMeals.merge(order.shopId(), (long) order.quantity(), Long::sum);
+        });
+
+        synchronized (writeLock) {
+            // Changes committed while we were reading may be missing from the snapshot.
+            // Pickups are counted once: the query may already have seen them.
+            for (Object change : changesDuringReload) {
+                if (change instanceof ShopChangedEvent event) {
+                    apply(freshShops, event);
+                } else if (change instanceof BasketChangedEvent event) {
+                    apply(freshBaskets, event);
+                } else if (change instanceof OrderPickedUpEvent event && countedOrders.add(event.orderId())) {
+                    freshMeals.merge(event.shopId(), (long) event.quantity(), Long::sum);
+                }
+            }
+            changesDuringReload = null;
+            shops = freshShops;
+            baskets = freshBaskets;
+            meals = freshMeals;
+            mealsDay = today;
+            snapshot = build();
+        }
+        log.info("City statistics loaded for {} cities", snapshot.cities().size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onShopChanged(ShopChangedEvent event) {
+        synchronized (writeLock) {
+            record(event);
+            if (shops != null) {
+                apply(shops, event);
+                snapshot = build();
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBasketChanged(BasketChangedEvent event) {
+        synchronized (writeLock) {
+            record(event);
+            if (baskets != null && apply(baskets, event)) {
+                snapshot = build();
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderPickedUp(OrderPickedUpEvent event) {
+        synchronized (writeLock) {
+            record(event);
+            if (meals == null) {
+                return;
+            }
+            LocalDate today = LocalDate.now(zone());
+            if (!today.equals(mealsDay)) {
+                meals.clear();
+                mealsDay = today;
+            }
+            meals.merge(event.shopId(), (long) event.quantity(), Long::sum);
+            snapshot = build();
+        }
+    }
+
+    /**
+     * Statistics of every city with active shops, most shops first.
+     */
+    public List<CityStats> getCities() {
+        Snapshot current = snapshot;
+        long nowMillis = System.currentTimeMillis();
+        boolean sameDay = LocalDate.now(zone()).equals(current.day());
+        return current.cities().values().stream()
+                .map(city -> city.at(nowMillis, sameDay))
+                .sorted(Comparator.comparingInt(CityStats::activeShops).reversed().thenComparing(CityStats::city))
+                .toList();
+    }
+
+    /**
+     * Statistics of the city (case-insensitive), if it has active shops.
+     */
+    public Optional<CityStats> getCity(String city) {
+        String key = cityKey(city);
+        if (key == null) {
+            return Optional.empty();
+        }
+        Snapshot current = snapshot;
+        boolean sameDay = LocalDate.now(zone()).equals(current.day());
+        return Optional.ofNullable(current.cities().get(key))
+                .map(found -> found.at(System.currentTimeMillis(), sameDay));
+    }
+
+    // ==================== Internal Methods ====================
+
+    private void record(Object change) {
+        if (changesDuringReload != null) {
+            changesDuringReload.add(change);
+        }
+    }
+
+    private static void apply(Map<UUID, ShopEntry> target, ShopChangedEvent event) {
+        target.put(event.shopId(), new ShopEntry(event.city(), event.status() == ShopStatus.ACTIVE));
+    }
+
+    /**
+     * Returns true if the basket became or stopped being available.
+     */
+    private static boolean apply(Map<UUID, LiveBasket> target, BasketChangedEvent event) {
+        if (event.isPublished() && event.quantityLeft() > 0) {
+            LiveBasket basket = new LiveBasket(event.shopId(), event.pickupEnd().toEpochMilli());
+            return !basket.equals(target.put(event.basketId(), basket));
+        }
+        return target.remove(event.basketId()) != null;
+    }
+
+    /**
+     * Called with the write lock held.
+     */
+    private Snapshot build() {
+        Map<String, CityBuilder> builders = new HashMap<>();
+        shops.forEach((shopId, shop) -> {
+            if (shop.active() && cityKey(shop.city()) != null) {
+                builders.computeIfAbsent(cityKey(shop.city()), k -> new CityBuilder()).addShop(shop.city().trim());
+            }
+        });
+        baskets.values().forEach(basket -> {
+            CityBuilder builder = builderOf(builders, basket.shopId(), true);
+            if (builder != null) {
+                builder.pickupEnds.add(basket.pickupEnd());
+            }
+        });
+        meals.forEach((shopId, count) -> {
+            CityBuilder builder = builderOf(builders, shopId, false);
+            if (builder != null) {
+                builder.meals += count;
+            }
+        });
+
+        Map<String, CitySnapshot> cities = new HashMap<>();
+        builders.forEach((key, builder) -> cities.put(key, builder.build()));
+        return new Snapshot(cities, mealsDay);
+    }
+
+    private CityBuilder builderOf(Map<String, CityBuilder> builders, UUID shopId, boolean activeOnly) {
+        ShopEntry shop = shops.get(shopId);
+        if (shop == null || (activeOnly && !shop.active())) {
+            return null;
+        }
+        String key = cityKey(shop.city());
+        return key != null ? builders.get(key) : null;
+    }
+
+    private static String cityKey(String city) {
+        return city == null || city.isBlank() ? null : city.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private ZoneId zone() {
+        return ZoneId.of(ni3maProperties.getShop().getCityStatsTimeZone());
+    }
+
+    private record ShopEntry(String city, boolean active) {}
+
+    private record LiveBasket(UUID shopId, long pickupEnd) {}
+
+    private record Snapshot(Map<String, CitySnapshot> cities, LocalDate day) {
+        static final Snapshot EMPTY = new Snapshot(Map.of(), null);
+    }
+
+    /**
+     * Immutable statistics of a city; available baskets are counted against the clock when read.
+     */
+    private record CitySnapshot(String city, int activeShops, long[] sortedPickupEnds, long mealsSavedToday) {
+
+        CityStats at(long nowMillis, boolean sameDay) {
+            // Number of pickup windows already closed: first index with an end after now
+            int low = 0;
+            int high = sortedPickupEnds.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (sortedPickupEnds[mid] <= nowMillis) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return new CityStats(city, activeShops, sortedPickupEnds.length - low, sameDay ? mealsSavedToday : 0);
+        }
+    }
+
+    private static final class CityBuilder {
+        /** spelling -> number of active shops using it */
+        private final Map<String, Integer> spellings = new HashMap<>();
+        private final List<Long> pickupEnds = new ArrayList<>();
+        private int activeShops;
+        private long meals;
+
+        private void addShop(String spelling) {
+            spellings.merge(spelling, 1, Integer::sum);
+            activeShops++;
+        }
+
+        private CitySnapshot build() {
+            // Most used spelling of the city, alphabetical on ties
+            String city = spellings.entrySet().stream()
+                    .min(Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                    .orElseThrow()
+                    .getKey();
+            long[] sorted = pickupEnds.stream().mapToLong(Long::longValue).sorted().toArray();
+            return new CitySnapshot(city, activeShops, sorted, meals);
+        }
+    }
+
+    /**
+     * Record for the statistics of a city page.
+     */
+    public record CityStats(
+            String city,
+            int activeShops,
+            int availableBaskets,
+            long mealsSavedToday
+    ) {}
+}
@@ -0,0 +1,78 @@
+package neyan.tech.ni3ma_backend.shop.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import neyan.tech.ni3ma_backend.common.config.Ni3maProperties;
+import neyan.tech.ni3ma_backend.common.util.BoundedTtlCache;
+import neyan.tech.ni3ma_backend.shop.dto.ShopSnapshot;
+import neyan.tech.ni3ma_backend.shop.event.ShopChangedEvent;
+import neyan.tech.ni3ma_backend.shop.repository.ShopRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read-through cache of {@link ShopSnapshot}s keyed by shop id.
+ * <p>
+ * Entries are evicted once a {@link ShopChangedEvent} is committed (create, update, activate,
+ * suspend) and expire after a TTL as a safety net. Hits, misses and evictions are exposed as
+ * ni3ma.shop.cache.* metrics.
+ */
+@Component
+public class ShopCache {
+
+    private final ShopRepository shopRepository;
+    private final boolean enabled;
+    private final BoundedTtlCache<UUID, ShopSnapshot> cache;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public ShopCache(ShopRepository shopRepository, Ni3maProperties ni3maProperties, MeterRegistry meterRegistry) {
+        Ni3maProperties.ShopCacheProperties properties = ni3maProperties.getShop().getCache();
+        this.shopRepository = shopRepository;
+        this.enabled = properties.isEnabled();
+        this.cache = new BoundedTtlCache<>(properties.getMaxEntries(), Duration.ofSeconds(properties.getTtlSeconds()));
+
+        FunctionCounter.builder("ni3ma.shop.cache.requests", cache, BoundedTtlCache::hitCount)
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("ni3ma.shop.cache.requests", cache, BoundedTtlCache::missCount)
+                .tag("result", "miss")
+                .register(meterRegistry);
+        FunctionCounter.builder("ni3ma.shop.cache.evictions", cache, BoundedTtlCache::evictionCount)
+                .description("Entries dropped for size or TTL")
+                .register(meterRegistry);
+        Gauge.builder("ni3ma.shop.cache.size", cache, BoundedTtlCache::size)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Snapshot of the shop, from the cache or the database; empty if the shop does not exist.
+     */
+    public Optional<ShopSnapshot> get(UUID shopId) {
+        if (!enabled) {
+            return shopRepository.findSnapshotById(shopId);
+        }
+        ShopSnapshot cached = cache.get(shopId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long version = invalidations.get();
+        Optional<ShopSnapshot> loaded = shopRepository.findSnapshotById(shopId);
+        // Don't store what may have been read before a concurrent invalidation
+        if (loaded.isPresent() && invalidations.get() == version) {
+            cache.put(shopId, loaded.get());
+        }
+        return loaded;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onShopChanged(ShopChangedEvent event) {
+        invalidations.incrementAndGet();
+        cache.invalidate(event.shopId());
+    }
+}
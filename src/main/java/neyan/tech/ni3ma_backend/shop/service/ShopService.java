@@ -2,22 +2,24 @@ package neyan.tech.ni3ma_backend.shop.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import neyan.tech.ni3ma_backend.common.exception.ForbiddenException;
 import neyan.tech.ni3ma_backend.common.exception.NotFoundException;
-import neyan.tech.ni3ma_backend.review.repository.ReviewRepository;
-import neyan.tech.ni3ma_backend.favorite.repository.FavoriteRepository;
+import neyan.tech.ni3ma_backend.common.security.OwnershipGuard;
 import neyan.tech.ni3ma_backend.shop.dto.CreateShopRequest;
 import neyan.tech.ni3ma_backend.shop.dto.ShopResponse;
+import neyan.tech.ni3ma_backend.shop.dto.ShopSnapshot;
 import neyan.tech.ni3ma_backend.shop.dto.UpdateShopRequest;
 import neyan.tech.ni3ma_backend.shop.entity.Shop;
 import neyan.tech.ni3ma_backend.shop.entity.ShopStatus;
+import neyan.tech.ni3ma_backend.shop.event.ShopChangedEvent;
 import neyan.tech.ni3ma_backend.shop.mapper.ShopMapper;
 import neyan.tech.ni3ma_backend.shop.repository.ShopRepository;
 import neyan.tech.ni3ma_backend.user.entity.User;
-import neyan.tech.ni3ma_backend.user.entity.UserRole;
 import neyan.tech.ni3ma_backend.user.repository.UserRepository;
+import org.hibernate.Hibernate;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -30,9 +32,10 @@ public class ShopService {
 
     private final ShopRepository shopRepository;
     private final UserRepository userRepository;
-    private final ReviewRepository reviewRepository;
-    private final FavoriteRepository favoriteRepository;
     private final ShopMapper shopMapper;
+    private final ShopCache shopCache;
+    private final OwnershipGuard ownershipGuard;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public ShopResponse createShop(CreateShopRequest request, UUID merchantId) {
@@ -46,36 +49,34 @@ public class ShopService {
         shop.setStatus(ShopStatus.PENDING);
 
         shop = shopRepository.save(shop);
+        eventPublisher.publishEvent(ShopChangedEvent.of(shop));
         log.info("Shop created with id: {}", shop.getId());
 
-        return enrichShopResponse(shopMapper.toResponse(shop));
+        return shopMapper.toResponse(shop);
     }
 
     @Transactional(readOnly = true)
     public ShopResponse getShopById(UUID shopId) {
         Shop shop = findShopOrThrow(shopId);
-        return enrichShopResponse(shopMapper.toResponse(shop));
+        return shopMapper.toResponse(shop);
     }
 
     @Transactional(readOnly = true)
     public Page<ShopResponse> getActiveShops(Pageable pageable) {
         return shopRepository.findByStatus(ShopStatus.ACTIVE, pageable)
-                .map(shop -> enrichShopResponse(shopMapper.toResponse(shop)));
+                .map(shopMapper::toResponse);
     }
 
     @Transactional(readOnly = true)
     public Page<ShopResponse> getShopsByCity(String city, Pageable pageable) {
         return shopRepository.findByCityAndStatus(city, ShopStatus.ACTIVE, pageable)
-                .map(shop -> enrichShopResponse(shopMapper.toResponse(shop)));
+                .map(shopMapper::toResponse);
     }
 
     @Transactional(readOnly = true)
     public Page<ShopResponse> getMyShops(UUID merchantId, Pageable pageable) {
-        return shopRepository.findByCreatedById(merchantId).stream()
-                .map(shop -> enrichShopResponse(shopMapper.toResponse(shop)))
-                .collect(java.util.stream.Collectors.collectingAndThen(
-                        java.util.stream.Collectors.toList(),
-                        list -> new org.springframework.data.domain.PageImpl<>(list, pageable, list.size())));
+        return shopRepository.findByCreatedById(merchantId, pageable)
+                .map(shopMapper::toResponse);
     }
 
     @Transactional
@@ -85,9 +86,10 @@ public class ShopService {
 
         shopMapper.updateEntity(request, shop);
         shop = shopRepository.save(shop);
+        eventPublisher.publishEvent(ShopChangedEvent.of(shop));
 
         log.info("Shop updated: {}", shopId);
-        return enrichShopResponse(shopMapper.toResponse(shop));
+        return shopMapper.toResponse(shop);
     }
 
     @Transactional
@@ -95,9 +97,10 @@ public class ShopService {
         Shop shop = findShopOrThrow(shopId);
         shop.setStatus(ShopStatus.ACTIVE);
         shop = shopRepository.save(shop);
+        eventPublisher.publishEvent(ShopChangedEvent.of(shop));
 
         log.info("Shop activated: {}", shopId);
-        return enrichShopResponse(shopMapper.toResponse(shop));
+        return shopMapper.toResponse(shop);
     }
 
     @Transactional
@@ -105,9 +108,10 @@ public class ShopService {
         Shop shop = findShopOrThrow(shopId);
         shop.setStatus(ShopStatus.SUSPENDED);
         shop = shopRepository.save(shop);
+        eventPublisher.publishEvent(ShopChangedEvent.of(shop));
 
         log.info("Shop suspended: {}", shopId);
-        return enrichShopResponse(shopMapper.toResponse(shop));
+        return shopMapper.toResponse(shop);
     }
 
     public Shop findShopOrThrow(UUID shopId) {
@@ -115,29 +119,55 @@ public class ShopService {
                 .orElseThrow(() -> new NotFoundException("Shop", shopId));
     }
 
+    /**
+     * Cached owner/status view of the shop, for checks that don't need the entity.
+     */
+    public ShopSnapshot findShopSnapshotOrThrow(UUID shopId) {
+        return shopCache.get(shopId)
+                .orElseThrow(() -> new NotFoundException("Shop", shopId));
+    }
+
     public void checkShopOwnership(Shop shop, UUID userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("User", userId));
+        // A lazy shop reference (e.g. basket.getShop()) is not loaded just to read its owner
+        UUID ownerId = Hibernate.isInitialized(shop)
+                ? shop.getCreatedBy().getId()
+                : findShopSnapshotOrThrow(shop.getId()).ownerId();
+        ownershipGuard.requireOwner(ownerId, userId, "You can only modify your own shops");
+    }
 
-        if (user.getRole() == UserRole.ADMIN) {
-            return; // Admin can edit any shop
-        }
+    public void checkShopOwnershipById(UUID shopId, UUID userId) {
+        findOwnedShopSnapshot(shopId, userId);
+    }
 
-        if (!shop.getCreatedBy().getId().equals(userId)) {
-            throw new ForbiddenException("You can only modify your own shops");
-        }
+    /**
+     * Cached snapshot of a shop the user owns, for hot paths that only check ownership and status.
+     */
+    public ShopSnapshot findOwnedShopSnapshot(UUID shopId, UUID userId) {
+        ShopSnapshot shop = findShopSnapshotOrThrow(shopId);
+        ownershipGuard.requireOwner(shop.ownerId(), userId, "You can only modify your own shops");
+        return shop;
     }
 
-    private ShopResponse enrichShopResponse(ShopResponse response) {
-        Double avgRating = reviewRepository.getAverageRatingForShop(response.getId());
-        long reviewCount = reviewRepository.countReviewsForShop(response.getId());
-        long favoriteCount = favoriteRepository.countFavoritesForShop(response.getId());
+    /**
+     * Unloaded reference to a shop already checked through its snapshot, to set associations
+     * without reading the shop.
+     */
+    public Shop getShopReference(UUID shopId) {
+        return shopRepository.getReferenceById(shopId);
+    }
 
-        response.setAverageRating(avgRating);
-        response.setReviewCount(reviewCount);
-        response.setFavoriteCount(favoriteCount);
+    // ==================== Scheduled Tasks ====================
 
-        return response;
+    /**
+     * Repairs review/favorite aggregates that drifted (e.g. rows changed outside the services).
+     */
+    @Scheduled(cron = "${ni3ma.shop.aggregates-reconcile-cron:0 30 3 * * *}")
+    @Transactional
+    public void reconcileAggregates() {
+        int repaired = shopRepository.reconcileAggregates();
+        if (repaired > 0) {
+            log.warn("Repaired review/favorite aggregates of {} shops", repaired);
+        }
     }
 }
 
@@ -0,0 +1,21 @@
+-- =====================================================
+-- Denormalized review/favorite aggregates on shops
+-- Kept up to date by ReviewService/FavoriteService, repaired by a nightly reconciliation
+-- =====================================================
+
+ALTER TABLE shops
+    ADD COLUMN rating_sum     BIGINT NOT NULL DEFAULT 0,
+    ADD COLUMN review_count   BIGINT NOT NULL DEFAULT 0,
+    ADD COLUMN favorite_count BIGINT NOT NULL DEFAULT 0;
+
+-- Backfill from existing rows
+UPDATE shops s SET
+    rating_sum     = COALESCE((SELECT SUM(r.rating) FROM reviews r WHERE r.shop_id = s.id), 0),
+    review_count   = (SELECT COUNT(*) FROM reviews r WHERE r.shop_id = s.id),
+    favorite_count = (SELECT COUNT(*) FROM favorites f WHERE f.shop_id = s.id);
+
+ALTER TABLE shops
+    ADD CONSTRAINT chk_shops_aggregates_non_negative
+        CHECK (rating_sum >= 0 AND review_count >= 0 AND favorite_count >= 0);
+
+COMMENT ON COLUMN shops.rating_sum IS 'Sum of review ratings (average = rating_sum / review_count)';
@@ -0,0 +1,12 @@
+-- =====================================================
+-- Flash-sale baskets
+-- Their reservations are admitted in memory by FlashSaleEngine and written to orders in batches
+-- =====================================================
+
+ALTER TABLE baskets
+    ADD COLUMN flash_sale BOOLEAN NOT NULL DEFAULT FALSE;
+
+-- Loaded at startup to rebuild the in-memory counters
+CREATE INDEX idx_baskets_flash_sale ON baskets (pickup_end) WHERE flash_sale;
+
+COMMENT ON COLUMN baskets.flash_sale IS 'Reservations go through the in-memory flash-sale inventory';
@@ -0,0 +1,33 @@
+-- =====================================================
+-- Timed holds on basket units
+-- A hold takes quantity like an order; it is confirmed into an order once paid,
+-- or its units go back to the basket when it expires (see OrderHoldExpiry)
+-- =====================================================
+
+CREATE TABLE order_holds (
+    id              UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
+    user_id         UUID NOT NULL,
+    basket_id       UUID NOT NULL,
+    quantity        INTEGER NOT NULL,
+    status          VARCHAR(20) NOT NULL DEFAULT 'HELD',
+    expires_at      TIMESTAMPTZ NOT NULL,
+    order_id        UUID,
+    created_at      TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    updated_at      TIMESTAMPTZ,
+
+    -- Foreign keys
+    CONSTRAINT fk_order_holds_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE RESTRICT,
+    CONSTRAINT fk_order_holds_basket FOREIGN KEY (basket_id) REFERENCES baskets(id) ON DELETE RESTRICT,
+    CONSTRAINT fk_order_holds_order FOREIGN KEY (order_id) REFERENCES orders(id) ON DELETE SET NULL,
+
+    -- Check constraints
+    CONSTRAINT chk_order_holds_status CHECK (status IN ('HELD', 'CONFIRMED', 'RELEASED')),
+    CONSTRAINT chk_order_holds_quantity_positive CHECK (quantity >= 1)
+);
+
+CREATE INDEX idx_order_holds_user_id ON order_holds (user_id);
+CREATE INDEX idx_order_holds_basket_id ON order_holds (basket_id);
+-- Loaded at startup to reschedule the expiry of pending holds
+CREATE INDEX idx_order_holds_held ON order_holds (expires_at) WHERE status = 'HELD';
+
+COMMENT ON TABLE order_holds IS 'Units held for a customer until payment, released on expiry';
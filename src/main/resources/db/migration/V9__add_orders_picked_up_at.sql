@@ -0,0 +1,15 @@
+-- =====================================================
+-- Pickup time of orders
+-- Set when the merchant validates the pickup; the city statistics count today's pickups on it
+-- =====================================================
+
+ALTER TABLE orders
+    ADD COLUMN picked_up_at TIMESTAMPTZ;
+
+-- PICKED_UP is final, so the last update of those orders is their pickup
+UPDATE orders SET picked_up_at = updated_at WHERE status = 'PICKED_UP';
+
+-- Loaded by the city statistics for the current day
+CREATE INDEX idx_orders_picked_up_at ON orders (picked_up_at) WHERE status = 'PICKED_UP';
+
+COMMENT ON COLUMN orders.picked_up_at IS 'When the merchant validated the pickup';
@@ -0,0 +1,147 @@
+package neyan.tech.ni3ma_backend.basket.repository;
+
+import neyan.tech.ni3ma_backend.basket.dto.BasketStock;
+import neyan.tech.ni3ma_backend.basket.entity.Basket;
+import neyan.tech.ni3ma_backend.basket.entity.BasketStatus;
+import neyan.tech.ni3ma_backend.shop.entity.Shop;
+import neyan.tech.ni3ma_backend.shop.entity.ShopStatus;
+import neyan.tech.ni3ma_backend.shop.repository.ShopRepository;
+import neyan.tech.ni3ma_backend.user.entity.User;
+import neyan.tech.ni3ma_backend.user.entity.UserRole;
+import neyan.tech.ni3ma_backend.user.repository.UserRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("Basket Reservation Concurrency Tests")
+class BasketReservationConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS_PER_THREAD = 10;
+    private static final AtomicInteger PHONES = new AtomicInteger();
+
+    @Autowired
+    private BasketRepository basketRepository;
+
+    @Autowired
+    private ShopRepository shopRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("Should never sell more than the quantity left under concurrent reservations")
+    void shouldNotOversell() throws Exception {
+        UUID basketId = createBasket(BasketStatus.PUBLISHED, 25, Instant.now().plus(2, ChronoUnit.HOURS));
+        TransactionTemplate readCommitted = new TransactionTemplate(transactionManager);
+        readCommitted.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+
+        AtomicInteger reserved = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int quantity = 1 + t % 3;
+            workers.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    reserved.addAndGet(reserve(readCommitted, basketId, quantity) * quantity);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        // Far more was requested than available; whatever got through adds up exactly
+        BasketStock stock = basketRepository.findStockById(basketId).orElseThrow();
+        assertThat(reserved.get() + stock.quantityLeft()).isEqualTo(25);
+        assertThat(stock.quantityLeft()).isBetween(0, 2);
+        if (stock.quantityLeft() == 0) {
+            assertThat(stock.status()).isEqualTo(BasketStatus.SOLD_OUT);
+        }
+    }
+
+    @Test
+    @DisplayName("Should reserve only published, open baskets with enough quantity left")
+    void shouldApplyGuard() {
+        UUID open = createBasket(BasketStatus.PUBLISHED, 2, Instant.now().plus(2, ChronoUnit.HOURS));
+        UUID ended = createBasket(BasketStatus.PUBLISHED, 2, Instant.now().minus(1, ChronoUnit.MINUTES));
+        UUID draft = createBasket(BasketStatus.DRAFT, 2, Instant.now().plus(2, ChronoUnit.HOURS));
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        assertThat(reserve(tx, open, 3)).isZero();
+        assertThat(reserve(tx, ended, 1)).isZero();
+        assertThat(reserve(tx, draft, 1)).isZero();
+        assertThat(reserve(tx, open, 1)).isOne();
+        assertThat(basketRepository.findStockById(open).orElseThrow().status()).isEqualTo(BasketStatus.PUBLISHED);
+        assertThat(reserve(tx, open, 1)).isOne();
+
+        BasketStock stock = basketRepository.findStockById(open).orElseThrow();
+        assertThat(stock.quantityLeft()).isZero();
+        assertThat(stock.status()).isEqualTo(BasketStatus.SOLD_OUT);
+    }
+
+    private int reserve(TransactionTemplate tx, UUID basketId, int quantity) {
+        Integer rows = tx.execute(status -> basketRepository.reserveQuantity(basketId, quantity, Instant.now()));
+        return rows != null ? rows : 0;
+    }
+
+    private UUID createBasket(BasketStatus status, int quantity, Instant pickupEnd) {
+        User merchant = userRepository.save(User.builder()
+                .fullName("Merchant")
+                .phone(String.format("+222%08d", PHONES.incrementAndGet()))
+                .passwordHash("hash")
+                .role(UserRole.MERCHANT)
+                .build());
+        Shop shop = shopRepository.save(Shop.builder()
+                .name("Boulangerie")
+                .status(ShopStatus.ACTIVE)
+                .createdBy(merchant)
+                .build());
+        return basketRepository.save(Basket.builder()
+                .shop(shop)
+                .title("Pains du jour")
+                .priceOriginal(BigDecimal.valueOf(1000))
+                .priceDiscount(BigDecimal.valueOf(400))
+                .currency("MRU")
+                .quantityTotal(quantity)
+                .quantityLeft(quantity)
+                .pickupStart(pickupEnd.minus(3, ChronoUnit.HOURS))
+                .pickupEnd(pickupEnd)
+                .status(status)
+                .build()).getId();
+    }
+}
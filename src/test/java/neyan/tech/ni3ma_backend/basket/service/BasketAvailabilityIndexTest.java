@@ -0,0 +1,111 @@
+package neyan.tech.ni3ma_backend.basket.service;
+
+import neyan.tech.ni3ma_backend.basket.dto.AvailableBasketRef;
+import neyan.tech.ni3ma_backend.basket.entity.BasketStatus;
+import neyan.tech.ni3ma_backend.basket.event.BasketChangedEvent;
+import neyan.tech.ni3ma_backend.basket.repository.BasketRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("BasketAvailabilityIndex Unit Tests")
+class BasketAvailabilityIndexTest {
+
+    @Mock
+    private BasketRepository basketRepository;
+
+    private BasketAvailabilityIndex index;
+
+    private final UUID shopId = UUID.randomUUID();
+    private final Instant now = Instant.now();
+    private final Instant pickupEnd = now.plusSeconds(3600);
+
+    @BeforeEach
+    void setUp() {
+        index = new BasketAvailabilityIndex(basketRepository);
+    }
+
+    @Test
+    @DisplayName("Should count published baskets and drop them on sell-out, expiry and unpublish")
+    void shouldApplyEvents() {
+        when(basketRepository.findAllAvailableBasketRefs(any())).thenReturn(List.of());
+        index.reload();
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+
+        index.onBasketChanged(event(first, BasketStatus.DRAFT, BasketStatus.PUBLISHED, 3));
+        index.onBasketChanged(event(second, BasketStatus.DRAFT, BasketStatus.PUBLISHED, 1));
+        index.onBasketChanged(event(third, BasketStatus.DRAFT, BasketStatus.PUBLISHED, 2));
+        assertThat(index.availableCount(shopId, now)).isEqualTo(3);
+
+        // An order that leaves quantity doesn't change availability
+        index.onBasketChanged(event(first, BasketStatus.PUBLISHED, BasketStatus.PUBLISHED, 2));
+        index.onBasketChanged(event(second, BasketStatus.PUBLISHED, BasketStatus.SOLD_OUT, 0));
+        assertThat(index.availableCount(shopId, now)).isEqualTo(2);
+        index.onBasketChanged(event(first, BasketStatus.PUBLISHED, BasketStatus.EXPIRED, 2));
+        index.onBasketChanged(event(third, BasketStatus.PUBLISHED, BasketStatus.DRAFT, 2));
+        assertThat(index.availableCount(shopId, now)).isZero();
+
+        // Restocked
+        index.onBasketChanged(event(second, BasketStatus.SOLD_OUT, BasketStatus.PUBLISHED, 1));
+        assertThat(index.availableCount(shopId, now)).isOne();
+        assertThat(index.availableCount(UUID.randomUUID(), now)).isZero();
+    }
+
+    @Test
+    @DisplayName("Should replay into the new snapshot the changes committed while it was being read")
+    void shouldReplayChangesDuringReload() {
+        UUID soldOut = UUID.randomUUID();
+        UUID published = UUID.randomUUID();
+        when(basketRepository.findAllAvailableBasketRefs(any())).thenAnswer(inv -> {
+            // Committed after the snapshot query read its rows
+            index.onBasketChanged(event(soldOut, BasketStatus.PUBLISHED, BasketStatus.SOLD_OUT, 0));
+            index.onBasketChanged(event(published, BasketStatus.DRAFT, BasketStatus.PUBLISHED, 2));
+            return List.of(ref(soldOut, pickupEnd));
+        });
+
+        index.reload();
+
+        assertThat(index.availableCount(shopId, now)).isOne();
+        index.onBasketChanged(event(published, BasketStatus.PUBLISHED, BasketStatus.SOLD_OUT, 0));
+        assertThat(index.availableCount(shopId, now)).isZero();
+    }
+
+    @Test
+    @DisplayName("Should stop counting a basket once its pickup window has ended")
+    void shouldDropBasketsAtPickupEnd() {
+        Instant soon = now.plusSeconds(60);
+        when(basketRepository.findAllAvailableBasketRefs(any())).thenReturn(List.of(
+                ref(UUID.randomUUID(), soon), ref(UUID.randomUUID(), pickupEnd)));
+        index.reload();
+
+        assertThat(index.availableCount(shopId, now)).isEqualTo(2);
+        assertThat(index.availableCount(shopId, soon.minusMillis(1))).isEqualTo(2);
+        assertThat(index.availableCount(shopId, soon)).isOne();
+        assertThat(index.availableCount(shopId, pickupEnd)).isZero();
+    }
+
+    private BasketChangedEvent event(UUID basketId, BasketStatus previous, BasketStatus status, int quantityLeft) {
+        return new BasketChangedEvent(basketId, shopId, "Pains", null,
+                previous, status, quantityLeft, now.minusSeconds(3600), pickupEnd);
+    }
+
+    private AvailableBasketRef ref(UUID basketId, Instant end) {
+        return new AvailableBasketRef(basketId, shopId, now.minusSeconds(3600), end,
+                BigDecimal.valueOf(1000), BigDecimal.valueOf(400), "MRU");
+    }
+}
@@ -0,0 +1,110 @@
+package neyan.tech.ni3ma_backend.basket.service;
+
+import neyan.tech.ni3ma_backend.basket.dto.BasketDeadline;
+import neyan.tech.ni3ma_backend.basket.entity.BasketStatus;
+import neyan.tech.ni3ma_backend.basket.event.BasketChangedEvent;
+import neyan.tech.ni3ma_backend.basket.repository.BasketRepository;
+import neyan.tech.ni3ma_backend.common.config.Ni3maProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("BasketExpiryScheduler Unit Tests")
+class BasketExpirySchedulerTest {
+
+    @Mock
+    private BasketService basketService;
+
+    @Mock
+    private BasketRepository basketRepository;
+
+    private BasketExpiryScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new BasketExpiryScheduler(basketService, basketRepository, new Ni3maProperties());
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.stop();
+    }
+
+    @Test
+    @DisplayName("Should expire exactly the baskets past their pickup end, in one batch")
+    void shouldExpireDueBasketsInOneBatch() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        Instant past = Instant.now().minusSeconds(60);
+        when(basketRepository.findPublishedDeadlines()).thenReturn(List.of(
+                new BasketDeadline(first, past),
+                new BasketDeadline(second, past),
+                new BasketDeadline(UUID.randomUUID(), Instant.now().plusSeconds(3600))));
+
+        scheduler.onApplicationReady();
+
+        verify(basketService, timeout(2000)).expireBaskets(argThat(ids ->
+                ids.size() == 2 && ids.contains(first) && ids.contains(second)));
+        assertThat(scheduler.scheduled()).isOne();
+    }
+
+    @Test
+    @DisplayName("Should not expire a basket unpublished before its pickup end")
+    void shouldDropUnpublishedBasket() {
+        when(basketRepository.findPublishedDeadlines()).thenReturn(List.of());
+        scheduler.onApplicationReady();
+        UUID basketId = UUID.randomUUID();
+        Instant pickupEnd = Instant.now().plusMillis(200);
+
+        scheduler.onBasketChanged(event(basketId, BasketStatus.DRAFT, BasketStatus.PUBLISHED, pickupEnd));
+        assertThat(scheduler.scheduled()).isOne();
+        scheduler.onBasketChanged(event(basketId, BasketStatus.PUBLISHED, BasketStatus.DRAFT, pickupEnd));
+
+        verify(basketService, after(500).never()).expireBaskets(anyCollection());
+        assertThat(scheduler.scheduled()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should keep expiring baskets after an expiry failed with an error")
+    void shouldSurviveExpiryError() {
+        Ni3maProperties properties = new Ni3maProperties();
+        properties.getBasket().setExpiryRetrySeconds(0);
+        scheduler = new BasketExpiryScheduler(basketService, basketRepository, properties);
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        when(basketRepository.findPublishedDeadlines()).thenReturn(List.of(new BasketDeadline(first, Instant.now())));
+        when(basketService.expireBaskets(anyCollection()))
+                .thenThrow(new OutOfMemoryError("Java heap space"))
+                .thenReturn(1);
+
+        scheduler.onApplicationReady();
+
+        verify(basketService, timeout(2000).times(2)).expireBaskets(List.of(first));
+        scheduler.onBasketChanged(event(second, BasketStatus.DRAFT, BasketStatus.PUBLISHED, Instant.now()));
+        verify(basketService, timeout(2000)).expireBaskets(List.of(second));
+    }
+
+    private static BasketChangedEvent event(UUID basketId, BasketStatus previous, BasketStatus status,
+                                            Instant pickupEnd) {
+        return new BasketChangedEvent(basketId, UUID.randomUUID(), "Pains", null,
+                previous, status, 3, pickupEnd.minusSeconds(3600), pickupEnd);
+    }
+}
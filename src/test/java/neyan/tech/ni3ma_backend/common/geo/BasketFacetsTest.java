@@ -0,0 +1,50 @@
+package neyan.tech.ni3ma_backend.common.geo;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+@DisplayName("BasketFacets Unit Tests")
+class BasketFacetsTest {
+
+    @Test
+    @DisplayName("Should count matches per price band and local pickup hour")
+    void shouldCountBandsAndHours() {
+        BasketFacets.Counter counter = new BasketFacets.Counter(List.of(200.0, 100.0), ZoneId.of("Africa/Casablanca"));
+        // Casablanca is UTC+1 except during Ramadan: not a fixed offset
+        long summer = Instant.parse("2024-07-01T17:30:00Z").toEpochMilli();
+        counter.add(50, summer);
+        counter.add(100, summer);
+        counter.add(150, summer);
+        counter.add(250, Instant.parse("2024-07-01T23:10:00Z").toEpochMilli());
+
+        BasketFacets facets = counter.toFacets();
+        assertThat(facets.byPriceBand()).containsExactly(
+                entry("<100", 1L), entry("100-200", 2L), entry(">=200", 1L));
+        assertThat(facets.byPickupHour()).containsExactly(entry(0, 1L), entry(18, 3L));
+    }
+
+    @Test
+    @DisplayName("Should keep only baskets matching every filter")
+    void shouldApplyFilters() {
+        long start = Instant.parse("2024-07-01T17:00:00Z").toEpochMilli();
+        long end = Instant.parse("2024-07-01T19:00:00Z").toEpochMilli();
+
+        BasketSearchFilter filter = new BasketSearchFilter(300.0, 40.0,
+                Instant.parse("2024-07-01T18:30:00Z"), Instant.parse("2024-07-01T21:00:00Z"), "mru");
+        assertThat(filter.matches(500, 300, start, end, "MRU")).isTrue();
+        assertThat(filter.matches(500, 301, start, end, "MRU")).isFalse();
+        assertThat(filter.matches(400, 300, start, end, "MRU")).isFalse();
+        assertThat(filter.matches(500, 300, start, end, "EUR")).isFalse();
+        assertThat(filter.matches(500, 300, start, Instant.parse("2024-07-01T18:30:00Z").toEpochMilli(), "MRU")).isFalse();
+
+        BasketSearchFilter none = new BasketSearchFilter(null, null, null, null, null);
+        assertThat(none.matches(Double.NaN, Double.NaN, Long.MIN_VALUE, end, null)).isTrue();
+    }
+}
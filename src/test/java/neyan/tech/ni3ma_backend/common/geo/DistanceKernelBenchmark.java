@@ -0,0 +1,121 @@
+package neyan.tech.ni3ma_backend.common.geo;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Radius filtering of a city's worth of shops: BigDecimal coordinates with
+ * {@link GeoUtils#haversineDistance} per candidate (the former path) versus
+ * {@link DistanceKernel} over precomputed radians.
+ * <p>
+ * Not run by the test suite. Run with {@code mvn test-compile} then the main method,
+ * e.g. from the IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DistanceKernelBenchmark {
+
+    // Nouakchott
+    private static final double CENTER_LAT = 18.0735;
+    private static final double CENTER_LNG = -15.9582;
+
+    @Param({"5", "20"})
+    private double radiusKm;
+
+    private final int count = 5000;
+    private BigDecimal[] decimalLats;
+    private BigDecimal[] decimalLngs;
+    private double[] latRads;
+    private double[] lngRads;
+    private double[] cosLats;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        decimalLats = new BigDecimal[count];
+        decimalLngs = new BigDecimal[count];
+        latRads = new double[count];
+        lngRads = new double[count];
+        cosLats = new double[count];
+        for (int i = 0; i < count; i++) {
+            // Shops spread over roughly 50 x 50 km
+            decimalLats[i] = BigDecimal.valueOf(CENTER_LAT + (random.nextDouble() - 0.5) * 0.45)
+                    .setScale(8, RoundingMode.HALF_UP);
+            decimalLngs[i] = BigDecimal.valueOf(CENTER_LNG + (random.nextDouble() - 0.5) * 0.47)
+                    .setScale(8, RoundingMode.HALF_UP);
+            latRads[i] = Math.toRadians(decimalLats[i].doubleValue());
+            lngRads[i] = Math.toRadians(decimalLngs[i].doubleValue());
+            cosLats[i] = Math.cos(latRads[i]);
+        }
+    }
+
+    @Benchmark
+    public int decimalHaversine(Blackhole blackhole) {
+        int within = 0;
+        for (int i = 0; i < count; i++) {
+            double distance = GeoUtils.haversineDistance(
+                    CENTER_LAT, CENTER_LNG, decimalLats[i].doubleValue(), decimalLngs[i].doubleValue());
+            if (distance <= radiusKm) {
+                blackhole.consume(distance);
+                within++;
+            }
+        }
+        return within;
+    }
+
+    @Benchmark
+    public int kernelExact(Blackhole blackhole) {
+        DistanceKernel kernel = DistanceKernel.at(CENTER_LAT, CENTER_LNG);
+        int within = 0;
+        for (int i = 0; i < count; i++) {
+            double distance = kernel.distanceKm(latRads[i], lngRads[i], cosLats[i]);
+            if (distance <= radiusKm) {
+                blackhole.consume(distance);
+                within++;
+            }
+        }
+        return within;
+    }
+
+    @Benchmark
+    public int kernelWithPrefilter(Blackhole blackhole) {
+        DistanceKernel kernel = DistanceKernel.at(CENTER_LAT, CENTER_LNG);
+        int within = 0;
+        for (int i = 0; i < count; i++) {
+            double distance = kernel.distanceWithin(latRads[i], lngRads[i], cosLats[i], radiusKm);
+            if (distance >= 0) {
+                blackhole.consume(distance);
+                within++;
+            }
+        }
+        return within;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(DistanceKernelBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
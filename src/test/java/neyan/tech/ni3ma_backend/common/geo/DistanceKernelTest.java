@@ -0,0 +1,44 @@
+package neyan.tech.ni3ma_backend.common.geo;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+@DisplayName("DistanceKernel Unit Tests")
+class DistanceKernelTest {
+
+    @Test
+    @DisplayName("Should agree with GeoUtils.haversineDistance, pre-filter included")
+    void shouldMatchHaversine() {
+        Random random = new Random(7);
+        double[] radii = {0.5, 5, 20, 100, 1000};
+
+        for (int i = 0; i < 20_000; i++) {
+            double centerLat = random.nextDouble() * 160 - 80;
+            double centerLng = random.nextDouble() * 360 - 180;
+            double spread = random.nextBoolean() ? 0.5 : 10;
+            double lat = Math.max(-89.9, Math.min(89.9, centerLat + (random.nextDouble() - 0.5) * spread));
+            double lng = centerLng + (random.nextDouble() - 0.5) * spread;
+            lng = lng > 180 ? lng - 360 : lng < -180 ? lng + 360 : lng;
+
+            DistanceKernel kernel = DistanceKernel.at(centerLat, centerLng);
+            double latRad = Math.toRadians(lat);
+            double expected = GeoUtils.haversineDistance(centerLat, centerLng, lat, lng);
+
+            assertThat(kernel.distanceKm(latRad, Math.toRadians(lng), Math.cos(latRad)))
+                    .isCloseTo(expected, offset(1e-6));
+            for (double radius : radii) {
+                double within = kernel.distanceWithin(latRad, Math.toRadians(lng), Math.cos(latRad), radius);
+                if (expected <= radius - 1e-9) {
+                    assertThat(within).isCloseTo(expected, offset(1e-6));
+                } else if (expected > radius + 1e-9) {
+                    assertThat(within).isEqualTo(-1);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package neyan.tech.ni3ma_backend.common.geo;
+
+import neyan.tech.ni3ma_backend.common.exception.BadRequestException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("GeoCursorToken Unit Tests")
+class GeoCursorTokenTest {
+
+    private static final double MAX_RADIUS_KM = 200;
+
+    @Test
+    @DisplayName("Should decode exactly what was encoded")
+    void shouldRoundTrip() {
+        GeoCursor position = new GeoCursor(1.2345678901234567, UUID.randomUUID());
+        GeoCursorToken token = GeoCursorToken.start(18.0735, -15.9582, 12.5).next(position);
+
+        assertThat(GeoCursorToken.decode(token.encode(), MAX_RADIUS_KM)).isEqualTo(token);
+    }
+
+    @Test
+    @DisplayName("Should reject malformed tokens")
+    void shouldRejectMalformedTokens() {
+        UUID id = UUID.randomUUID();
+        assertInvalid("garbage!");
+        assertInvalid(raw("18.0|-15.9|10.0|1.0"));
+        assertInvalid(raw("18.0|-15.9|10.0|one|" + id));
+        assertInvalid(raw("18.0|-15.9|10.0|1.0|not-a-uuid"));
+    }
+
+    @Test
+    @DisplayName("Should reject tokens carrying values no query could have produced")
+    void shouldRejectOutOfRangeValues() {
+        UUID id = UUID.randomUUID();
+        assertThat(GeoCursorToken.decode(raw("-90.0|180.0|200.0|0.0|" + id), MAX_RADIUS_KM).radiusKm())
+                .isEqualTo(200.0);
+
+        assertInvalid(raw("90.5|-15.9|10.0|1.0|" + id));
+        assertInvalid(raw("18.0|-180.5|10.0|1.0|" + id));
+        assertInvalid(raw("NaN|-15.9|10.0|1.0|" + id));
+        assertInvalid(raw("18.0|-15.9|20000.0|1.0|" + id));
+        assertInvalid(raw("18.0|-15.9|0.0|1.0|" + id));
+        assertInvalid(raw("18.0|-15.9|NaN|1.0|" + id));
+        assertInvalid(raw("18.0|-15.9|10.0|-1.0|" + id));
+        assertInvalid(raw("18.0|-15.9|10.0|Infinity|" + id));
+        assertInvalid(raw("18.0|-15.9|10.0|NaN|" + id));
+    }
+
+    private static String raw(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void assertInvalid(String token) {
+        assertThatThrownBy(() -> GeoCursorToken.decode(token, MAX_RADIUS_KM))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Invalid cursor");
+    }
+}
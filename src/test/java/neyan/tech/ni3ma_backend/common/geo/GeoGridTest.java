@@ -0,0 +1,140 @@
+package neyan.tech.ni3ma_backend.common.geo;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+@DisplayName("GeoGrid Unit Tests")
+class GeoGridTest {
+
+    // Nouakchott city center
+    private static final double LAT = 18.0735;
+    private static final double LNG = -15.9582;
+
+    private GeoGrid grid;
+
+    @BeforeEach
+    void setUp() {
+        grid = new GeoGrid(0.05);
+    }
+
+    @Test
+    @DisplayName("Should return only points within the radius, with exact distances")
+    void shouldReturnPointsWithinRadius() {
+        UUID near = UUID.randomUUID();
+        UUID far = UUID.randomUUID();
+        grid.put(near, 18.0800, -15.9650);
+        grid.put(far, 18.5000, -15.9582);
+
+        Map<UUID, Double> hits = visit(LAT, LNG, 5);
+
+        assertThat(hits).containsOnlyKeys(near);
+        assertThat(hits.get(near))
+                .isCloseTo(GeoUtils.haversineDistance(LAT, LNG, 18.0800, -15.9650), offset(1e-9));
+    }
+
+    @Test
+    @DisplayName("Should move a point when it is put again and forget it once removed")
+    void shouldMoveAndRemovePoints() {
+        UUID id = UUID.randomUUID();
+        grid.put(id, 18.5000, -15.9582);
+        grid.put(id, 18.0740, -15.9590);
+
+        assertThat(grid.size()).isEqualTo(1);
+        assertThat(visit(LAT, LNG, 1)).containsOnlyKeys(id);
+
+        assertThat(grid.remove(id)).isTrue();
+        assertThat(grid.contains(id)).isFalse();
+        assertThat(visit(LAT, LNG, 1)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should find points across the antimeridian")
+    void shouldFindPointsAcrossAntimeridian() {
+        UUID east = UUID.randomUUID();
+        UUID west = UUID.randomUUID();
+        grid.put(east, 0.0, 179.99);
+        grid.put(west, 0.0, -179.99);
+
+        assertThat(visit(0.0, 179.995, 5)).containsOnlyKeys(east, west);
+    }
+
+    @Test
+    @DisplayName("Should have visited every point within the ring coverage radius after each ring")
+    void shouldCoverRadiusRingByRing() {
+        Random random = new Random(3);
+        for (int i = 0; i < 2000; i++) {
+            grid.put(UUID.randomUUID(), LAT + (random.nextDouble() - 0.5) * 2, LNG + (random.nextDouble() - 0.5) * 2);
+        }
+
+        Map<UUID, Double> visited = new HashMap<>();
+        for (int ring = 0; ring < 15; ring++) {
+            assertThat(grid.visitRing(LAT, LNG, ring, (id, lat, lng, distanceKm) -> visited.put(id, distanceKm))).isTrue();
+            double coverage = grid.ringCoverageKm(LAT, ring);
+
+            assertThat(visited).containsAllEntriesOf(visit(LAT, LNG, coverage));
+        }
+    }
+
+    @Test
+    @DisplayName("Should visit the points of a box, edges included, whether it spans few or many cells")
+    void shouldVisitPointsInBox() {
+        UUID inside = UUID.randomUUID();
+        UUID onEdge = UUID.randomUUID();
+        UUID outside = UUID.randomUUID();
+        grid.put(inside, 18.0800, -15.9650);
+        grid.put(onEdge, 18.1000, -15.9000);
+        grid.put(outside, 18.1000, -15.8999);
+
+        assertThat(visitBox(18.0, 18.1, -16.0, -15.9)).containsOnlyKeys(inside, onEdge);
+        // Far more cells than points: answered point by point, same result
+        assertThat(visitBox(-90, 18.1, -180, -15.9)).containsOnlyKeys(inside, onEdge);
+        assertThat(visitBox(-90, 90, -180, 180)).containsOnlyKeys(inside, onEdge, outside);
+        assertThat(visitBox(18.2, 18.3, -16.0, -15.9)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should find the same points within a radius whether it spans few or many cells")
+    void shouldScanPointsForWideRadius() {
+        Random random = new Random(7);
+        Map<UUID, double[]> locations = new HashMap<>();
+        for (int i = 0; i < 500; i++) {
+            double[] location = {LAT + (random.nextDouble() - 0.5) * 20, LNG + (random.nextDouble() - 0.5) * 20};
+            UUID id = UUID.randomUUID();
+            grid.put(id, location[0], location[1]);
+            locations.put(id, location);
+        }
+
+        // 10 km walks the cells, 1000 km and around the globe scan the 500 points
+        for (double radiusKm : new double[]{10, 1000, 20000}) {
+            Map<UUID, Double> expected = new HashMap<>();
+            locations.forEach((id, location) -> {
+                double distance = GeoUtils.haversineDistance(LAT, LNG, location[0], location[1]);
+                if (distance <= radiusKm) {
+                    expected.put(id, distance);
+                }
+            });
+            assertThat(visit(LAT, LNG, radiusKm)).containsOnlyKeys(expected.keySet());
+        }
+    }
+
+    private Map<UUID, Double> visitBox(double minLat, double maxLat, double minLng, double maxLng) {
+        Map<UUID, Double> hits = new HashMap<>();
+        grid.visitInBox(minLat, maxLat, minLng, maxLng, (id, lat, lng) -> hits.put(id, lat));
+        return hits;
+    }
+
+    private Map<UUID, Double> visit(double lat, double lng, double radiusKm) {
+        Map<UUID, Double> hits = new HashMap<>();
+        grid.visitWithin(lat, lng, radiusKm, hits::put);
+        return hits;
+    }
+}
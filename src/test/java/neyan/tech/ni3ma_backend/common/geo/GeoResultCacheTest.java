@@ -0,0 +1,134 @@
+package neyan.tech.ni3ma_backend.common.geo;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import neyan.tech.ni3ma_backend.basket.dto.AvailableBasketRef;
+import neyan.tech.ni3ma_backend.basket.entity.BasketStatus;
+import neyan.tech.ni3ma_backend.basket.event.BasketChangedEvent;
+import neyan.tech.ni3ma_backend.common.config.Ni3maProperties;
+import neyan.tech.ni3ma_backend.shop.entity.ShopStatus;
+import neyan.tech.ni3ma_backend.shop.event.ShopChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("GeoResultCache Unit Tests")
+class GeoResultCacheTest {
+
+    // Nouakchott city center
+    private static final double LAT = 18.0735;
+    private static final double LNG = -15.9582;
+
+    @Mock
+    private ShopGeoIndex shopGeoIndex;
+
+    private GeoResultCache cache;
+
+    private final UUID nearShopId = UUID.randomUUID();
+    private final GeoPoint nearShop = new GeoPoint(18.0800, -15.9650);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        cache = new GeoResultCache(new Ni3maProperties(), shopGeoIndex, new SimpleMeterRegistry());
+    }
+
+    @Test
+    @DisplayName("Should load a cell once and serve nearby queries of the same bucket from the cache")
+    void shouldServeCellFromCache() {
+        GeoCandidates first = get(LAT, LNG, 2, this::load);
+        GeoCandidates second = get(LAT + 0.0001, LNG + 0.0001, 1.5, this::load);
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.containsShop(nearShopId)).isTrue();
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Should not store a load that raced with an invalidation")
+    void shouldRejectStaleLoad() {
+        get(LAT, LNG, 2, query -> {
+            // A shop changes while the candidates are being read
+            cache.onShopChanged(shopEvent(UUID.randomUUID(), null));
+            return load(query);
+        });
+
+        get(LAT, LNG, 2, this::load);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Should invalidate the entries holding a changed shop, whatever its new location")
+    void shouldInvalidateByShopId() {
+        get(LAT, LNG, 2, this::load);
+
+        cache.onShopChanged(shopEvent(UUID.randomUUID(), new GeoPoint(19.0, -16.5)));
+        get(LAT, LNG, 2, this::load);
+        assertThat(loads).hasValue(1);
+
+        cache.onShopChanged(shopEvent(nearShopId, new GeoPoint(19.0, -16.5)));
+        get(LAT, LNG, 2, this::load);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Should invalidate the entries covering a basket whose availability changed")
+    void shouldInvalidateByLocation() {
+        UUID farShopId = UUID.randomUUID();
+        UUID otherShopId = UUID.randomUUID();
+        when(shopGeoIndex.locate(farShopId)).thenReturn(new GeoPoint(19.0, -16.5));
+        when(shopGeoIndex.locate(otherShopId)).thenReturn(new GeoPoint(18.0740, -15.9590));
+        get(LAT, LNG, 2, this::load);
+
+        cache.onBasketChanged(basketEvent(otherShopId, BasketStatus.PUBLISHED, BasketStatus.PUBLISHED));
+        cache.onBasketChanged(basketEvent(farShopId, BasketStatus.DRAFT, BasketStatus.PUBLISHED));
+        get(LAT, LNG, 2, this::load);
+        assertThat(loads).hasValue(1);
+
+        // A shop with no basket in the entry yet, inside the area it covers
+        cache.onBasketChanged(basketEvent(otherShopId, BasketStatus.DRAFT, BasketStatus.PUBLISHED));
+        get(LAT, LNG, 2, this::load);
+        assertThat(loads).hasValue(2);
+    }
+
+    private GeoCandidates get(double lat, double lng, double radiusKm,
+                              Function<GeoResultCache.CellQuery, GeoCandidates> loader) {
+        return cache.get(GeoResultCache.Endpoint.BASKETS, lat, lng, radiusKm, loader);
+    }
+
+    private GeoCandidates load(GeoResultCache.CellQuery query) {
+        loads.incrementAndGet();
+        Instant now = Instant.now();
+        AvailableBasketRef basket = new AvailableBasketRef(UUID.randomUUID(), nearShopId,
+                now, now.plusSeconds(3600), BigDecimal.valueOf(5000), BigDecimal.valueOf(2500), "MRU");
+        return GeoCandidates.builder(query.center(), query.radiusKm())
+                .addBasket(basket, nearShop)
+                .build();
+    }
+
+    private static ShopChangedEvent shopEvent(UUID shopId, GeoPoint location) {
+        return new ShopChangedEvent(shopId, "Boulangerie", null, "Nouakchott",
+                location != null ? BigDecimal.valueOf(location.lat()) : null,
+                location != null ? BigDecimal.valueOf(location.lng()) : null,
+                ShopStatus.ACTIVE);
+    }
+
+    private static BasketChangedEvent basketEvent(UUID shopId, BasketStatus previous, BasketStatus status) {
+        Instant now = Instant.now();
+        return new BasketChangedEvent(UUID.randomUUID(), shopId, "Pains", null,
+                previous, status, 3, now, now.plusSeconds(3600));
+    }
+}
@@ -0,0 +1,173 @@
+package neyan.tech.ni3ma_backend.common.geo;
+
+import neyan.tech.ni3ma_backend.basket.service.BasketAvailabilityIndex;
+import neyan.tech.ni3ma_backend.common.exception.BadRequestException;
+import neyan.tech.ni3ma_backend.shop.dto.ShopResponse;
+import neyan.tech.ni3ma_backend.shop.entity.Shop;
+import neyan.tech.ni3ma_backend.shop.entity.ShopStatus;
+import neyan.tech.ni3ma_backend.shop.mapper.ShopMapper;
+import neyan.tech.ni3ma_backend.shop.repository.ShopRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.offset;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("GeoService Unit Tests")
+class GeoServiceTest {
+
+    @Mock
+    private ShopGeoIndex shopGeoIndex;
+
+    @Mock
+    private BasketAvailabilityIndex basketAvailabilityIndex;
+
+    @Mock
+    private ShopRepository shopRepository;
+
+    @Mock
+    private ShopMapper shopMapper;
+
+    @InjectMocks
+    private GeoService geoService;
+
+    private final GeoGrid grid = new GeoGrid(0.05);
+    private final UUID first = UUID.randomUUID();
+    private final UUID second = UUID.randomUUID();
+    private final UUID alone = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        // Two shops in the same zoom 12 cell, one two cells away
+        grid.put(first, 18.0800, -15.9650);
+        grid.put(second, 18.0810, -15.9640);
+        grid.put(alone, 18.1200, -15.9000);
+        lenient().doAnswer(inv -> {
+            grid.visitInBox(inv.getArgument(0), inv.getArgument(1), inv.getArgument(2), inv.getArgument(3),
+                    inv.getArgument(4));
+            return null;
+        }).when(shopGeoIndex).visitInBox(anyDouble(), anyDouble(), anyDouble(), anyDouble(), any());
+    }
+
+    @Test
+    @DisplayName("Should group shops per zoom cell with their centroid, shop count and basket count")
+    void shouldAggregateShopsPerCell() {
+        when(basketAvailabilityIndex.availableCount(eq(first), any(Instant.class))).thenReturn(2);
+        when(basketAvailabilityIndex.availableCount(eq(second), any(Instant.class))).thenReturn(1);
+        when(basketAvailabilityIndex.availableCount(eq(alone), any(Instant.class))).thenReturn(0);
+
+        List<GeoService.ShopCluster> clusters = geoService.findClusters(18.0, 18.2, -16.0, -15.8, 12);
+
+        assertThat(clusters).hasSize(2);
+        GeoService.ShopCluster pair = clusters.get(0);
+        assertThat(pair.shopCount()).isEqualTo(2);
+        assertThat(pair.availableBasketCount()).isEqualTo(3);
+        assertThat(pair.latitude()).isCloseTo(18.0805, offset(1e-9));
+        assertThat(pair.longitude()).isCloseTo(-15.9645, offset(1e-9));
+        assertThat(pair.shopId()).isNull();
+        GeoService.ShopCluster single = clusters.get(1);
+        assertThat(single.shopCount()).isOne();
+        assertThat(single.shopId()).isEqualTo(alone);
+
+        // Zoomed out, the three shops share a cell
+        assertThat(geoService.findClusters(18.0, 18.2, -16.0, -15.8, 8)).singleElement()
+                .satisfies(cluster -> assertThat(cluster.shopCount()).isEqualTo(3));
+    }
+
+    @Test
+    @DisplayName("Should include shops on the viewport edges and reject invalid or oversized viewports")
+    void shouldValidateViewport() {
+        assertThat(geoService.findClusters(18.0800, 18.0810, -15.9650, -15.9640, 18))
+                .extracting(GeoService.ShopCluster::shopCount)
+                .containsExactlyInAnyOrder(1, 1);
+        assertThat(geoService.findClusters(-90, 90, -180, 180, 0)).hasSize(1);
+
+        // 8 tiles of 0.088 degrees at zoom 12
+        assertThat(geoService.findClusters(18.0, 18.7, -16.0, -15.3, 12)).isNotEmpty();
+        assertThatThrownBy(() -> geoService.findClusters(18.0, 18.8, -16.0, -15.3, 12))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("too large");
+        assertThatThrownBy(() -> geoService.findClusters(-90, 90, -180, 180, 5))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> geoService.findClusters(18.2, 18.0, -16.0, -15.8, 12))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> geoService.findClusters(18.0, 18.2, -16.0, -15.8, 23))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    @DisplayName("Should page through hits at equal distances by id, without duplicates or gaps")
+    void shouldPageThroughEqualDistances() {
+        List<GeoHit> hits = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            hits.add(new GeoHit(UUID.randomUUID(), 1.0));
+        }
+        hits.add(new GeoHit(UUID.randomUUID(), 0.5));
+        hits.add(new GeoHit(UUID.randomUUID(), 0.5));
+        hits.add(new GeoHit(UUID.randomUUID(), 2.0));
+        doAnswer(inv -> {
+            GeoGrid.HitVisitor visitor = inv.getArgument(3);
+            hits.forEach(hit -> visitor.accept(hit.id(), hit.distanceKm()));
+            return null;
+        }).when(shopGeoIndex).visitWithin(anyDouble(), anyDouble(), anyDouble(), any());
+        when(shopRepository.findAllWithOwnerByIdIn(anyCollection())).thenAnswer(inv ->
+                inv.<Collection<UUID>>getArgument(0).stream()
+                        .map(id -> Shop.builder().id(id).status(ShopStatus.ACTIVE).build())
+                        .toList());
+        when(shopMapper.toResponse(any(Shop.class))).thenAnswer(inv ->
+                ShopResponse.builder().id(inv.<Shop>getArgument(0).getId()).build());
+        List<UUID> expected = hits.stream()
+                .sorted(Comparator.comparingDouble(GeoHit::distanceKm).thenComparing(GeoHit::id))
+                .map(GeoHit::id)
+                .toList();
+
+        // 8 hits: pages of 3 end on a partial page, pages of 4 end exactly on the boundary
+        assertThat(pageThrough(3)).containsExactlyElementsOf(expected);
+        assertThat(pageThrough(4)).containsExactlyElementsOf(expected);
+        assertThat(pageThrough(8)).containsExactlyElementsOf(expected);
+    }
+
+    /**
+     * Follows the cursors as a client would, through their encoded form; returns the ids in page order.
+     */
+    private List<UUID> pageThrough(int limit) {
+        List<UUID> ids = new ArrayList<>();
+        GeoCursorToken token = GeoCursorToken.start(18.08, -15.96, 10);
+        int pages = 0;
+        while (true) {
+            GeoService.NearbySlice<GeoService.ShopWithDistance> slice =
+                    geoService.findNearestShops(token.lat(), token.lng(), token.radiusKm(), token.position(), limit);
+            pages++;
+            assertThat(slice.content()).hasSizeLessThanOrEqualTo(limit);
+            slice.content().forEach(shop -> ids.add(shop.shop().getId()));
+            String next = NearbyCursorPage.of(slice, token).nextCursor();
+            if (next == null) {
+                break;
+            }
+            token = GeoCursorToken.decode(next, 200);
+        }
+        assertThat(pages).isEqualTo((8 + limit - 1) / limit);
+        return ids;
+    }
+}
@@ -0,0 +1,39 @@
+package neyan.tech.ni3ma_backend.common.geo;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.offset;
+
+@DisplayName("Geohash Unit Tests")
+class GeohashTest {
+
+    @Test
+    @DisplayName("Should encode known points to their reference hashes")
+    void shouldEncodeKnownPoints() {
+        assertThat(Geohash.encode(42.6, -5.6, 5)).isEqualTo("ezs42");
+        assertThat(Geohash.encode(57.64911, 10.40744, 11)).isEqualTo("u4pruydqqvj");
+        assertThat(Geohash.encode(-25.382708, -49.265506, 8)).isEqualTo("6gkzwgjz");
+        // A prefix of the hash is the hash at a lower precision
+        assertThat(Geohash.encode(57.64911, 10.40744, 4)).isEqualTo("u4pr");
+    }
+
+    @Test
+    @DisplayName("Should decode the bounds of a cell, which contain the points encoded into it")
+    void shouldDecodeBounds() {
+        GeoUtils.BoundingBox bounds = Geohash.bounds("ezs42");
+
+        assertThat(bounds.minLat()).isCloseTo(42.5830078125, offset(1e-9));
+        assertThat(bounds.maxLat()).isCloseTo(42.626953125, offset(1e-9));
+        assertThat(bounds.minLng()).isCloseTo(-5.625, offset(1e-9));
+        assertThat(bounds.maxLng()).isCloseTo(-5.5810546875, offset(1e-9));
+
+        GeoUtils.BoundingBox cell = Geohash.bounds(Geohash.encode(18.0735, -15.9582, 6));
+        assertThat(18.0735).isBetween(cell.minLat(), cell.maxLat());
+        assertThat(-15.9582).isBetween(cell.minLng(), cell.maxLng());
+        assertThatThrownBy(() -> Geohash.bounds("ezs4a"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,53 @@
+package neyan.tech.ni3ma_backend.common.geo;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+@DisplayName("Route Unit Tests")
+class RouteTest {
+
+    @Test
+    @DisplayName("Should decode and re-encode a reference polyline")
+    void shouldRoundTripPolyline() {
+        String encoded = "_p~iF~ps|U_ulLnnqC_mqNvxq`@";
+        List<GeoPoint> points = PolylineCodec.decode(encoded);
+
+        assertThat(points).containsExactly(
+                new GeoPoint(38.5, -120.2), new GeoPoint(40.7, -120.95), new GeoPoint(43.252, -126.453));
+        assertThat(PolylineCodec.encode(points)).isEqualTo(encoded);
+        assertThatThrownBy(() -> PolylineCodec.decode("_p~iF~ps|U_")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Should project points on the nearest segment or endpoint")
+    void shouldProjectOnSegments() {
+        // About 11 km due north, then 11 km due east, around Nouakchott
+        Route route = new Route(List.of(
+                new GeoPoint(18.0, -16.0), new GeoPoint(18.1, -16.0), new GeoPoint(18.1, -15.895)));
+        double kmPerDegreeLat = GeoUtils.haversineDistance(18.0, -16.0, 18.1, -16.0) / 0.1;
+
+        // Beside the middle of the first segment
+        Route.Projection beside = route.project(0, 18.05, -15.99);
+        assertThat(beside.distanceKm()).isCloseTo(GeoUtils.haversineDistance(18.05, -16.0, 18.05, -15.99), within(0.01));
+        assertThat(beside.offsetKm()).isCloseTo(0.05 * kmPerDegreeLat, within(0.01));
+
+        // Behind the start: distance to the first point
+        Route.Projection behind = route.project(0, 17.99, -16.0);
+        assertThat(behind.distanceKm()).isCloseTo(0.01 * kmPerDegreeLat, within(0.01));
+        assertThat(behind.offsetKm()).isZero();
+
+        // Past the end of the first segment: the second one is nearer
+        Route.Projection past = route.project(1, 18.102, -15.95);
+        assertThat(past.distanceKm()).isCloseTo(0.002 * kmPerDegreeLat, within(0.01));
+        assertThat(past.offsetKm()).isGreaterThan(route.project(0, 18.102, -15.95).offsetKm());
+
+        GeoUtils.BoundingBox box = route.segmentBox(1, 1.0);
+        assertThat(GeoUtils.isWithinBoundingBox(18.1 + 0.99 / kmPerDegreeLat, -15.9, box)).isTrue();
+    }
+}
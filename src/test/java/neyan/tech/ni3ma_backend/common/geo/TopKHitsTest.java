@@ -0,0 +1,63 @@
+package neyan.tech.ni3ma_backend.common.geo;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("TopKHits Unit Tests")
+class TopKHitsTest {
+
+    @Test
+    @DisplayName("Should keep the k nearest hits in distance order")
+    void shouldKeepKNearest() {
+        List<GeoHit> all = randomHits(500);
+        TopKHits top = new TopKHits(20, null);
+        all.forEach(hit -> top.accept(hit.id(), hit.distanceKm()));
+
+        all.sort(GeoHit.BY_DISTANCE);
+        assertThat(top.toSortedList()).containsExactlyElementsOf(all.subList(0, 20));
+        assertThat(top.matched()).isEqualTo(500);
+        assertThat(top.hasMore()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should walk every hit exactly once when following cursors")
+    void shouldWalkAllPagesWithCursor() {
+        List<GeoHit> all = randomHits(95);
+        // Ties on distance must be broken by id
+        all.add(new GeoHit(UUID.randomUUID(), all.get(0).distanceKm()));
+
+        List<GeoHit> walked = new ArrayList<>();
+        GeoCursor cursor = null;
+        boolean more = true;
+        while (more) {
+            TopKHits top = new TopKHits(10, cursor);
+            Collections.shuffle(all);
+            all.forEach(hit -> top.accept(hit.id(), hit.distanceKm()));
+            List<GeoHit> page = top.toSortedList();
+            walked.addAll(page);
+            more = top.hasMore();
+            cursor = more ? GeoCursor.of(page.get(page.size() - 1)) : null;
+        }
+
+        all.sort(GeoHit.BY_DISTANCE);
+        assertThat(walked).containsExactlyElementsOf(all);
+    }
+
+    private List<GeoHit> randomHits(int count) {
+        Random random = new Random(42);
+        List<GeoHit> hits = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            // Coarse distances so that ties happen
+            hits.add(new GeoHit(UUID.randomUUID(), random.nextInt(50) / 10.0));
+        }
+        return hits;
+    }
+}
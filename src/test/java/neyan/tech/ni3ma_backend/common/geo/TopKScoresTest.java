@@ -0,0 +1,55 @@
+package neyan.tech.ni3ma_backend.common.geo;
+
+import neyan.tech.ni3ma_backend.common.config.Ni3maProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@DisplayName("TopKScores Unit Tests")
+class TopKScoresTest {
+
+    @Test
+    @DisplayName("Should keep the k best-scored hits in ranking order")
+    void shouldKeepKBest() {
+        Random random = new Random(7);
+        List<TopKScores.ScoredHit> all = new ArrayList<>();
+        TopKScores top = new TopKScores(25);
+        for (int i = 0; i < 1000; i++) {
+            // Few distinct scores so ties are broken by distance and id
+            TopKScores.ScoredHit hit = new TopKScores.ScoredHit(
+                    UUID.randomUUID(), random.nextInt(5), random.nextInt(10) / 10.0);
+            all.add(hit);
+            top.accept(hit.id(), hit.distanceKm(), hit.score());
+        }
+
+        all.sort(TopKScores.ScoredHit.BY_SCORE);
+        assertThat(top.toSortedList()).containsExactlyElementsOf(all.subList(0, 25));
+        assertThat(top.matched()).isEqualTo(1000);
+    }
+
+    @Test
+    @DisplayName("Should blend normalized terms by weight")
+    void shouldBlendTerms() {
+        RankingScorer scorer = new RankingScorer(new Ni3maProperties.RankingProperties());
+        long now = 0;
+        long horizon = 240 * 60_000L;
+
+        double best = scorer.score(0, 10, 5.0, 1000, 0, now, now);
+        double worst = scorer.score(10, 10, 1.0, 1000, 1000, now + horizon, now);
+        assertThat(best).isCloseTo(1.0, within(1e-9));
+        assertThat(worst).isCloseTo(0.0, within(1e-9));
+
+        // Unrated shops get the default rating (3 -> 0.5 of the rating weight)
+        double unrated = scorer.score(10, 10, Double.NaN, 1000, 1000, now + horizon, now);
+        assertThat(unrated).isCloseTo(0.2 * 0.5, within(1e-9));
+        assertThat(scorer.score(2, 10, 4.0, 1000, 300, now + 60_000, now))
+                .isGreaterThan(scorer.score(2, 10, 4.0, 1000, 300, now + horizon / 2, now));
+    }
+}
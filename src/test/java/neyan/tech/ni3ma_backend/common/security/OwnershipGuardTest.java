@@ -0,0 +1,78 @@
+package neyan.tech.ni3ma_backend.common.security;
+
+import neyan.tech.ni3ma_backend.common.exception.ForbiddenException;
+import neyan.tech.ni3ma_backend.user.entity.User;
+import neyan.tech.ni3ma_backend.user.entity.UserRole;
+import neyan.tech.ni3ma_backend.user.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OwnershipGuard Unit Tests")
+class OwnershipGuardTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private OwnershipGuard ownershipGuard;
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Should take the role from the authenticated principal without a lookup")
+    void usesPrincipalRole() {
+        User admin = User.builder()
+                .id(UUID.randomUUID())
+                .phone("+22200000000")
+                .passwordHash("hash")
+                .fullName("Admin")
+                .role(UserRole.ADMIN)
+                .isActive(true)
+                .build();
+        UserPrincipal principal = UserPrincipal.from(admin);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+
+        assertThatCode(() -> ownershipGuard.requireOwner(UUID.randomUUID(), admin.getId(), "denied"))
+                .doesNotThrowAnyException();
+        verify(userRepository, never()).findRoleById(any());
+    }
+
+    @Test
+    @DisplayName("Should let parties through and reject other non-admin users")
+    void checksParties() {
+        UUID customerId = UUID.randomUUID();
+        UUID merchantId = UUID.randomUUID();
+        UUID strangerId = UUID.randomUUID();
+        ResourceParties parties = new ResourceParties(customerId, merchantId);
+        when(userRepository.findRoleById(strangerId)).thenReturn(Optional.of(UserRole.CUSTOMER));
+
+        assertThatCode(() -> ownershipGuard.requireParty(parties, customerId, "denied")).doesNotThrowAnyException();
+        assertThatCode(() -> ownershipGuard.requireParty(parties, merchantId, "denied")).doesNotThrowAnyException();
+        assertThatThrownBy(() -> ownershipGuard.requireParty(parties, strangerId, "denied"))
+                .isInstanceOf(ForbiddenException.class)
+                .hasMessageContaining("denied");
+        verify(userRepository, never()).findRoleById(customerId);
+    }
+}
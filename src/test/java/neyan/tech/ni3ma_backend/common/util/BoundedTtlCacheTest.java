@@ -0,0 +1,86 @@
+package neyan.tech.ni3ma_backend.common.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("BoundedTtlCache Unit Tests")
+class BoundedTtlCacheTest {
+
+    private final MutableClock clock = new MutableClock();
+    private BoundedTtlCache<String, Integer> cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new BoundedTtlCache<>(2, Duration.ofSeconds(60), clock);
+    }
+
+    @Test
+    @DisplayName("Should evict the least recently used entry when full, and count hits and misses")
+    void shouldEvictLeastRecentlyUsed() {
+        cache.put("a", 1);
+        cache.put("b", 2);
+        assertThat(cache.get("a")).isEqualTo(1);
+
+        cache.put("c", 3);
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("a")).isEqualTo(1);
+        assertThat(cache.get("c")).isEqualTo(3);
+        assertThat(cache.hitCount()).isEqualTo(3);
+        assertThat(cache.missCount()).isEqualTo(1);
+        assertThat(cache.evictionCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should expire entries after their TTL, and not count invalidations as evictions")
+    void shouldExpireEntries() {
+        cache.put("a", 1);
+        clock.advance(Duration.ofSeconds(30));
+        cache.put("b", 2);
+
+        clock.advance(Duration.ofSeconds(30));
+
+        assertThat(cache.get("a")).isNull();
+        assertThat(cache.get("b")).isEqualTo(2);
+        assertThat(cache.evictionCount()).isEqualTo(1);
+        assertThat(cache.missCount()).isEqualTo(1);
+
+        assertThat(cache.invalidateIf((key, value) -> value == 2)).isEqualTo(1);
+        assertThat(cache.size()).isZero();
+        assertThat(cache.evictionCount()).isEqualTo(1);
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package neyan.tech.ni3ma_backend.common.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("SingleFlight Unit Tests")
+class SingleFlightTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final AtomicInteger calls = new AtomicInteger();
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Should run concurrent calls of a key once, then forget the key")
+    void shouldCoalesceConcurrentCalls() throws Exception {
+        SingleFlight<String, Integer> flight = new SingleFlight<>(Duration.ofSeconds(5));
+        Future<Integer> leader = executor.submit(() -> flight.execute("k", this::blockingCall));
+        assertThat(started.await(2, TimeUnit.SECONDS)).isTrue();
+        Future<Integer> follower = executor.submit(() -> flight.execute("k", this::blockingCall));
+
+        awaitWaiting(follower);
+        release.countDown();
+
+        assertThat(leader.get(2, TimeUnit.SECONDS)).isEqualTo(1);
+        assertThat(follower.get(2, TimeUnit.SECONDS)).isEqualTo(1);
+        assertThat(flight.collapsedCount()).isEqualTo(1);
+        // Nothing is kept once the call completed
+        assertThat(flight.execute("k", calls::incrementAndGet)).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should give followers the leader's exception")
+    void shouldShareLeaderException() throws Exception {
+        SingleFlight<String, Integer> flight = new SingleFlight<>(Duration.ofSeconds(5));
+        Future<Integer> leader = executor.submit(() -> flight.execute("k", () -> {
+            blockingCall();
+            throw new IllegalStateException("Connection refused");
+        }));
+        assertThat(started.await(2, TimeUnit.SECONDS)).isTrue();
+        Future<Integer> follower = executor.submit(() -> flight.execute("k", this::blockingCall));
+
+        awaitWaiting(follower);
+        release.countDown();
+
+        assertThatThrownBy(() -> follower.get(2, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasRootCauseInstanceOf(IllegalStateException.class)
+                .hasRootCauseMessage("Connection refused");
+        assertThatThrownBy(() -> leader.get(2, TimeUnit.SECONDS))
+                .hasRootCauseInstanceOf(IllegalStateException.class);
+        assertThat(calls).hasValue(1);
+        assertThat(flight.execute("k", () -> 42)).isEqualTo(42);
+    }
+
+    @Test
+    @DisplayName("Should compute locally when the leader takes longer than the wait")
+    void shouldComputeLocallyOnTimeout() throws Exception {
+        SingleFlight<String, Integer> flight = new SingleFlight<>(Duration.ofMillis(100));
+        executor.submit(() -> flight.execute("k", this::blockingCall));
+        assertThat(started.await(2, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(flight.execute("k", () -> 42)).isEqualTo(42);
+        assertThat(flight.timedOutCount()).isEqualTo(1);
+        assertThat(flight.collapsedCount()).isZero();
+    }
+
+    private Integer blockingCall() {
+        int call = calls.incrementAndGet();
+        started.countDown();
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        return call;
+    }
+
+    /**
+     * Gives the follower time to find the leader's call in flight.
+     */
+    private static void awaitWaiting(Future<?> follower) throws InterruptedException {
+        Thread.sleep(100);
+        assertThat(follower).isNotDone();
+    }
+}
@@ -0,0 +1,82 @@
+package neyan.tech.ni3ma_backend.favorite.service;
+
+import neyan.tech.ni3ma_backend.common.exception.NotFoundException;
+import neyan.tech.ni3ma_backend.favorite.dto.FavoriteResponse;
+import neyan.tech.ni3ma_backend.favorite.entity.Favorite;
+import neyan.tech.ni3ma_backend.favorite.mapper.FavoriteMapper;
+import neyan.tech.ni3ma_backend.favorite.repository.FavoriteRepository;
+import neyan.tech.ni3ma_backend.shop.entity.Shop;
+import neyan.tech.ni3ma_backend.shop.mapper.ShopMapper;
+import neyan.tech.ni3ma_backend.shop.repository.ShopRepository;
+import neyan.tech.ni3ma_backend.user.entity.User;
+import neyan.tech.ni3ma_backend.user.repository.UserRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("FavoriteService Unit Tests")
+class FavoriteServiceTest {
+
+    @Mock
+    private FavoriteRepository favoriteRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ShopRepository shopRepository;
+
+    @Mock
+    private FavoriteMapper favoriteMapper;
+
+    @Mock
+    private ShopMapper shopMapper;
+
+    @InjectMocks
+    private FavoriteService favoriteService;
+
+    private final UUID userId = UUID.randomUUID();
+    private final UUID shopId = UUID.randomUUID();
+
+    @Test
+    @DisplayName("Should increment the favorite count once the favorite is saved")
+    void shouldIncrementOnAdd() {
+        when(userRepository.findById(userId)).thenReturn(Optional.of(User.builder().id(userId).build()));
+        when(shopRepository.findById(shopId)).thenReturn(Optional.of(Shop.builder().id(shopId).build()));
+        when(favoriteRepository.save(any(Favorite.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(favoriteMapper.toResponse(any(Favorite.class))).thenReturn(FavoriteResponse.builder().build());
+
+        favoriteService.addFavorite(userId, shopId);
+
+        verify(shopRepository).adjustFavoriteCount(shopId, 1);
+    }
+
+    @Test
+    @DisplayName("Should decrement the favorite count only when a favorite was actually deleted")
+    void shouldDecrementOnlyWhenDeleted() {
+        when(favoriteRepository.deleteByUserIdAndShopId(userId, shopId)).thenReturn(1, 0);
+
+        favoriteService.removeFavorite(userId, shopId);
+        verify(shopRepository).adjustFavoriteCount(shopId, -1);
+
+        // A concurrent removal already deleted it
+        assertThatThrownBy(() -> favoriteService.removeFavorite(userId, shopId))
+                .isInstanceOf(NotFoundException.class);
+        verify(shopRepository).adjustFavoriteCount(any(), anyLong());
+        verify(favoriteRepository, never()).existsByUserIdAndShopId(any(), any());
+    }
+}
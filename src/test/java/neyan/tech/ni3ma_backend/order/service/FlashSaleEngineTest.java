@@ -0,0 +1,192 @@
+package neyan.tech.ni3ma_backend.order.service;
+
+import neyan.tech.ni3ma_backend.basket.dto.FlashSaleStock;
+import neyan.tech.ni3ma_backend.basket.entity.BasketStatus;
+import neyan.tech.ni3ma_backend.basket.repository.BasketRepository;
+import neyan.tech.ni3ma_backend.common.config.Ni3maProperties;
+import neyan.tech.ni3ma_backend.common.exception.BadRequestException;
+import neyan.tech.ni3ma_backend.common.exception.ServiceUnavailableException;
+import neyan.tech.ni3ma_backend.order.dto.CreateOrderRequest;
+import neyan.tech.ni3ma_backend.order.dto.OrderResponse;
+import neyan.tech.ni3ma_backend.order.service.FlashSaleOrderWriter.Reservation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("FlashSaleEngine Unit Tests")
+class FlashSaleEngineTest {
+
+    @Mock
+    private FlashSaleOrderWriter writer;
+
+    @Mock
+    private BasketRepository basketRepository;
+
+    private FlashSaleEngine engine;
+
+    private final UUID basketId = UUID.randomUUID();
+    private final Instant later = Instant.now().plusSeconds(3600);
+
+    @AfterEach
+    void tearDown() {
+        engine.stop();
+    }
+
+    @Test
+    @DisplayName("Should admit exactly the stock under concurrent reservations and write them in batches")
+    void shouldNotOversell() throws Exception {
+        start(30);
+        AtomicInteger written = new AtomicInteger();
+        when(writer.persist(eq(basketId), anyList())).thenAnswer(invocation -> {
+            List<Reservation> batch = invocation.getArgument(1);
+            batch.forEach(reservation -> written.addAndGet(reservation.quantity()));
+            return orders(batch);
+        });
+
+        AtomicInteger confirmed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            workers.add(pool.submit(() -> {
+                start.await();
+                try {
+                    engine.reserve(new CreateOrderRequest(basketId, 1), UUID.randomUUID());
+                    confirmed.incrementAndGet();
+                } catch (BadRequestException ex) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(10, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertThat(confirmed.get()).isEqualTo(30);
+        assertThat(rejected.get()).isEqualTo(10);
+        assertThat(written.get()).isEqualTo(30);
+        assertThat(engine.available(basketId)).isZero();
+    }
+
+    @Test
+    @DisplayName("Should re-sync from the stored quantity when a batch is refused")
+    void shouldResyncWhenBatchRefused() {
+        start(5);
+        // Two units are actually left: the rest went elsewhere
+        when(basketRepository.findFlashSaleStockById(basketId))
+                .thenReturn(Optional.of(new FlashSaleStock(basketId, BasketStatus.PUBLISHED, 2, later)));
+        when(writer.persist(eq(basketId), anyList()))
+                .thenThrow(new BadRequestException("Not enough quantity available"))
+                .thenAnswer((Answer<List<OrderResponse>>) invocation -> orders(invocation.getArgument(1)));
+
+        OrderResponse order = engine.reserve(new CreateOrderRequest(basketId, 1), UUID.randomUUID());
+
+        assertThat(order).isNotNull();
+        assertThat(engine.available(basketId)).isEqualTo(1);
+        assertThatThrownBy(() -> engine.reserve(new CreateOrderRequest(basketId, 2), UUID.randomUUID()))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("Not enough quantity");
+        verify(writer, times(2)).persist(any(), anyList());
+    }
+
+    @Test
+    @DisplayName("Should answer 503 after the wait limit and skip reservations that timed out while queued")
+    void shouldTimeOutWaitingRequests() throws Exception {
+        Ni3maProperties properties = new Ni3maProperties();
+        properties.getOrder().getFlashSale().setAwaitTimeoutSeconds(1);
+        start(5, properties);
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(writer.persist(eq(basketId), anyList())).thenAnswer(invocation -> {
+            writing.countDown();
+            release.await();
+            return orders(invocation.getArgument(1));
+        });
+
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        Future<?> first = pool.submit(() -> engine.reserve(new CreateOrderRequest(basketId, 1), UUID.randomUUID()));
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThatThrownBy(() -> engine.reserve(new CreateOrderRequest(basketId, 1), UUID.randomUUID()))
+                .isInstanceOf(ServiceUnavailableException.class);
+        assertThatThrownBy(() -> first.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(ServiceUnavailableException.class);
+        release.countDown();
+        pool.shutdown();
+
+        // The first one was being written and is kept; the queued one gives its unit back
+        for (int i = 0; i < 100 && engine.available(basketId) != 4; i++) {
+            Thread.sleep(20);
+        }
+        assertThat(engine.available(basketId)).isEqualTo(4);
+        verify(writer, times(1)).persist(any(), anyList());
+    }
+
+    @Test
+    @DisplayName("Should keep the shard writing after an error and re-sync the counter")
+    void shouldSurviveErrorInWriter() {
+        start(5);
+        when(basketRepository.findFlashSaleStockById(basketId))
+                .thenReturn(Optional.of(new FlashSaleStock(basketId, BasketStatus.PUBLISHED, 5, later)));
+        when(writer.persist(eq(basketId), anyList()))
+                .thenThrow(new StackOverflowError())
+                .thenAnswer((Answer<List<OrderResponse>>) invocation -> orders(invocation.getArgument(1)));
+
+        assertThatThrownBy(() -> engine.reserve(new CreateOrderRequest(basketId, 1), UUID.randomUUID()))
+                .hasCauseInstanceOf(StackOverflowError.class);
+        assertThat(engine.available(basketId)).isEqualTo(5);
+
+        assertThat(engine.reserve(new CreateOrderRequest(basketId, 1), UUID.randomUUID())).isNotNull();
+        assertThat(engine.available(basketId)).isEqualTo(4);
+    }
+
+    private void start(int quantityLeft) {
+        start(quantityLeft, new Ni3maProperties());
+    }
+
+    private void start(int quantityLeft, Ni3maProperties properties) {
+        engine = new FlashSaleEngine(writer, basketRepository, properties);
+        when(basketRepository.findFlashSaleStocks(any()))
+                .thenReturn(List.of(new FlashSaleStock(basketId, BasketStatus.PUBLISHED, quantityLeft, later)));
+        engine.onApplicationReady();
+    }
+
+    private static List<OrderResponse> orders(List<Reservation> batch) {
+        return batch.stream()
+                .map(reservation -> OrderResponse.builder()
+                        .id(UUID.randomUUID())
+                        .userId(reservation.customerId())
+                        .quantity(reservation.quantity())
+                        .build())
+                .toList();
+    }
+}
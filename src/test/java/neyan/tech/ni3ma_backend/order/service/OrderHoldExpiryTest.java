@@ -0,0 +1,105 @@
+package neyan.tech.ni3ma_backend.order.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import neyan.tech.ni3ma_backend.common.config.Ni3maProperties;
+import neyan.tech.ni3ma_backend.order.dto.HoldExpiry;
+import neyan.tech.ni3ma_backend.order.repository.OrderHoldRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OrderHoldExpiry Unit Tests")
+class OrderHoldExpiryTest {
+
+    @Mock
+    private OrderService orderService;
+
+    @Mock
+    private OrderHoldRepository orderHoldRepository;
+
+    private OrderHoldExpiry expiry;
+
+    private final UUID first = UUID.randomUUID();
+    private final UUID second = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        Ni3maProperties properties = new Ni3maProperties();
+        properties.getOrder().getHold().setReleaseRetrySeconds(0);
+        expiry = new OrderHoldExpiry(orderService, orderHoldRepository, properties, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        expiry.stop();
+    }
+
+    @Test
+    @DisplayName("Should release holds that expired during downtime in one batch and keep later ones queued")
+    void shouldReleaseRecoveredHoldsInOneBatch() {
+        Instant past = Instant.now().minusSeconds(60);
+        when(orderHoldRepository.findHeldExpiries()).thenReturn(List.of(
+                new HoldExpiry(first, past), new HoldExpiry(second, past)));
+        expiry.schedule(UUID.randomUUID(), Instant.now().plusSeconds(3600));
+
+        expiry.onApplicationReady();
+
+        verify(orderService, timeout(2000)).releaseExpiredHolds(argThat(ids -> containsBoth(ids)));
+        assertThat(expiry.scheduled()).isOne();
+    }
+
+    @Test
+    @DisplayName("Should retry a batch whose release failed")
+    void shouldRetryFailedRelease() {
+        when(orderHoldRepository.findHeldExpiries()).thenReturn(List.of());
+        when(orderService.releaseExpiredHolds(anyCollection()))
+                .thenThrow(new IllegalStateException("Connection refused"))
+                .thenReturn(2);
+        expiry.schedule(first, Instant.now());
+        expiry.schedule(second, Instant.now());
+
+        expiry.onApplicationReady();
+
+        verify(orderService, timeout(2000).times(2)).releaseExpiredHolds(argThat(ids -> containsBoth(ids)));
+        verify(orderService, times(2)).releaseExpiredHolds(anyCollection());
+        assertThat(expiry.scheduled()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should keep releasing after a release failed with an error")
+    void shouldSurviveReleaseError() {
+        when(orderHoldRepository.findHeldExpiries()).thenReturn(List.of());
+        when(orderService.releaseExpiredHolds(anyCollection()))
+                .thenThrow(new OutOfMemoryError("Java heap space"))
+                .thenReturn(1);
+        expiry.schedule(first, Instant.now());
+
+        expiry.onApplicationReady();
+
+        verify(orderService, timeout(2000).times(2)).releaseExpiredHolds(List.of(first));
+        expiry.schedule(second, Instant.now());
+        verify(orderService, timeout(2000)).releaseExpiredHolds(List.of(second));
+    }
+
+    private boolean containsBoth(Collection<UUID> ids) {
+        return ids.size() == 2 && ids.contains(first) && ids.contains(second);
+    }
+}
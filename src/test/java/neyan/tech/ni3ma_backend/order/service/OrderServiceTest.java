@@ -5,18 +5,23 @@ import neyan.tech.ni3ma_backend.basket.entity.BasketStatus;
 import neyan.tech.ni3ma_backend.basket.service.BasketService;
 import neyan.tech.ni3ma_backend.common.config.Ni3maProperties;
 import neyan.tech.ni3ma_backend.common.exception.BadRequestException;
+import neyan.tech.ni3ma_backend.common.exception.ConflictException;
 import neyan.tech.ni3ma_backend.common.exception.ForbiddenException;
 import neyan.tech.ni3ma_backend.notification.service.NotificationService;
 import neyan.tech.ni3ma_backend.order.dto.CreateOrderRequest;
 import neyan.tech.ni3ma_backend.order.dto.OrderResponse;
 import neyan.tech.ni3ma_backend.order.entity.Order;
+import neyan.tech.ni3ma_backend.order.entity.OrderHold;
+import neyan.tech.ni3ma_backend.order.entity.OrderHoldStatus;
 import neyan.tech.ni3ma_backend.order.entity.OrderStatus;
 import neyan.tech.ni3ma_backend.order.mapper.OrderMapper;
+import neyan.tech.ni3ma_backend.order.repository.OrderHoldRepository;
 import neyan.tech.ni3ma_backend.order.repository.OrderRepository;
 import neyan.tech.ni3ma_backend.payment.entity.Payment;
 import neyan.tech.ni3ma_backend.payment.entity.PaymentProvider;
 import neyan.tech.ni3ma_backend.payment.entity.PaymentStatus;
 import neyan.tech.ni3ma_backend.payment.repository.PaymentRepository;
+import neyan.tech.ni3ma_backend.shop.dto.ShopSnapshot;
 import neyan.tech.ni3ma_backend.shop.entity.Shop;
 import neyan.tech.ni3ma_backend.shop.entity.ShopStatus;
 import neyan.tech.ni3ma_backend.shop.service.ShopService;
@@ -33,10 +38,12 @@ import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -44,6 +51,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.contains;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -54,6 +62,9 @@ class OrderServiceTest {
     @Mock
     private OrderRepository orderRepository;
 
+    @Mock
+    private OrderHoldRepository orderHoldRepository;
+
     @Mock
     private UserRepository userRepository;
 
@@ -75,6 +86,9 @@ class OrderServiceTest {
     @Mock
     private Ni3maProperties ni3maProperties;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private OrderService orderService;
 
@@ -84,6 +98,12 @@ class OrderServiceTest {
     @Captor
     private ArgumentCaptor<Payment> paymentCaptor;
 
+    @Captor
+    private ArgumentCaptor<List<Order>> ordersCaptor;
+
+    @Captor
+    private ArgumentCaptor<List<Payment>> paymentsCaptor;
+
     private User customer;
     private User merchant;
     private Shop shop;
@@ -167,13 +187,7 @@ class OrderServiceTest {
 
             when(userRepository.findById(customer.getId())).thenReturn(Optional.of(customer));
             when(basketService.findBasketOrThrow(basket.getId())).thenReturn(basket);
-            when(orderRepository.existsByPickupCode(any())).thenReturn(false);
-            when(orderRepository.save(any(Order.class))).thenAnswer(inv -> {
-                Order o = inv.getArgument(0);
-                o.setId(UUID.randomUUID());
-                return o;
-            });
-            when(paymentRepository.save(any(Payment.class))).thenAnswer(inv -> inv.getArgument(0));
+            when(orderRepository.findExistingPickupCodes(any())).thenReturn(List.of());
             when(orderMapper.toResponse(any(Order.class))).thenReturn(new OrderResponse());
 
             // When
@@ -183,8 +197,9 @@ class OrderServiceTest {
             assertThat(response).isNotNull();
 
             // Verify order was saved
-            verify(orderRepository).save(orderCaptor.capture());
-            Order savedOrder = orderCaptor.getValue();
+            verify(orderRepository).saveAll(ordersCaptor.capture());
+            assertThat(ordersCaptor.getValue()).hasSize(1);
+            Order savedOrder = ordersCaptor.getValue().get(0);
             assertThat(savedOrder.getUser()).isEqualTo(customer);
             assertThat(savedOrder.getBasket()).isEqualTo(basket);
             assertThat(savedOrder.getQuantity()).isEqualTo(1);
@@ -196,8 +211,9 @@ class OrderServiceTest {
             verify(basketService).decrementQuantity(eq(basket), eq(1));
 
             // Verify payment was created
-            verify(paymentRepository).save(paymentCaptor.capture());
-            Payment savedPayment = paymentCaptor.getValue();
+            verify(paymentRepository).saveAll(paymentsCaptor.capture());
+            Payment savedPayment = paymentsCaptor.getValue().get(0);
+            assertThat(savedPayment.getOrder()).isSameAs(savedOrder);
             assertThat(savedPayment.getStatus()).isEqualTo(PaymentStatus.UNPAID);
 
             // Verify notification was sent
@@ -219,7 +235,7 @@ class OrderServiceTest {
                     .isInstanceOf(BadRequestException.class)
                     .hasMessageContaining("not available");
 
-            verify(orderRepository, never()).save(any());
+            verify(orderRepository, never()).saveAll(any());
             verify(basketService, never()).decrementQuantity(any(), anyInt());
         }
 
@@ -238,7 +254,7 @@ class OrderServiceTest {
                     .isInstanceOf(BadRequestException.class)
                     .hasMessageContaining("Not enough quantity");
 
-            verify(orderRepository, never()).save(any());
+            verify(orderRepository, never()).saveAll(any());
         }
 
         @Test
@@ -256,7 +272,7 @@ class OrderServiceTest {
                     .isInstanceOf(BadRequestException.class)
                     .hasMessageContaining("expired");
 
-            verify(orderRepository, never()).save(any());
+            verify(orderRepository, never()).saveAll(any());
         }
     }
 
@@ -354,7 +370,7 @@ class OrderServiceTest {
                             .build()
             ));
             when(orderMapper.toResponse(any(Order.class))).thenReturn(new OrderResponse());
-            doNothing().when(shopService).checkShopOwnership(any(), any());
+            when(shopService.findOwnedShopSnapshot(shop.getId(), merchant.getId())).thenReturn(shopSnapshot());
 
             // When
             OrderResponse response = orderService.validatePickup("ABC123", merchant.getId());
@@ -365,11 +381,16 @@ class OrderServiceTest {
             // Verify order status changed to PICKED_UP
             verify(orderRepository).save(orderCaptor.capture());
             assertThat(orderCaptor.getValue().getStatus()).isEqualTo(OrderStatus.PICKED_UP);
+            assertThat(orderCaptor.getValue().getPickedUpAt()).isNotNull();
 
             // Verify payment marked as paid for cash
             verify(paymentRepository).save(paymentCaptor.capture());
             assertThat(paymentCaptor.getValue().getStatus()).isEqualTo(PaymentStatus.PAID);
             assertThat(paymentCaptor.getValue().getPaidAt()).isNotNull();
+
+            // The shop is named from its snapshot
+            verify(notificationService).createNotification(eq(customer.getId()), any(),
+                    contains(shop.getName()), any());
         }
 
         @Test
@@ -378,7 +399,7 @@ class OrderServiceTest {
             // Given
             order.setStatus(OrderStatus.CANCELLED);
             when(orderRepository.findByPickupCode("ABC123")).thenReturn(Optional.of(order));
-            doNothing().when(shopService).checkShopOwnership(any(), any());
+            when(shopService.findOwnedShopSnapshot(shop.getId(), merchant.getId())).thenReturn(shopSnapshot());
 
             // When/Then
             assertThatThrownBy(() -> orderService.validatePickup("ABC123", merchant.getId()))
@@ -386,5 +407,65 @@ class OrderServiceTest {
                     .hasMessageContaining("not in RESERVED");
         }
     }
-}
 
+    @Nested
+    @DisplayName("Confirm Hold Tests")
+    class ConfirmHoldTests {
+
+        private OrderHold hold;
+
+        @BeforeEach
+        void setUp() {
+            hold = OrderHold.builder()
+                    .id(UUID.randomUUID())
+                    .user(customer)
+                    .basket(basket)
+                    .quantity(2)
+                    .status(OrderHoldStatus.HELD)
+                    .expiresAt(Instant.now().plus(5, ChronoUnit.MINUTES))
+                    .build();
+            when(orderHoldRepository.findByIdForUpdate(hold.getId())).thenReturn(Optional.of(hold));
+            when(basketService.findBasketForUpdateOrThrow(basket.getId())).thenReturn(basket);
+        }
+
+        @Test
+        @DisplayName("Should place the order of a hold on a sold out basket")
+        void confirmHold_SoldOutBasket_PlacesOrder() {
+            // Given
+            basket.setStatus(BasketStatus.SOLD_OUT);
+            when(orderRepository.findExistingPickupCodes(any())).thenReturn(List.of());
+            when(orderMapper.toResponse(any(Order.class))).thenReturn(new OrderResponse());
+
+            // When
+            orderService.confirmHold(hold.getId(), null, customer.getId());
+
+            // Then
+            verify(orderRepository).saveAll(ordersCaptor.capture());
+            assertThat(ordersCaptor.getValue().get(0).getQuantity()).isEqualTo(2);
+            assertThat(hold.getStatus()).isEqualTo(OrderHoldStatus.CONFIRMED);
+            assertThat(hold.getOrder()).isSameAs(ordersCaptor.getValue().get(0));
+            verify(basketService, never()).incrementQuantity(any(), anyInt());
+        }
+
+        @Test
+        @DisplayName("Should release the hold and conflict when the basket was unpublished")
+        void confirmHold_UnpublishedBasket_ReleasesHold() {
+            // Given
+            basket.setStatus(BasketStatus.DRAFT);
+
+            // When/Then
+            assertThatThrownBy(() -> orderService.confirmHold(hold.getId(), null, customer.getId()))
+                    .isInstanceOf(ConflictException.class)
+                    .hasMessageContaining("DRAFT");
+
+            assertThat(hold.getStatus()).isEqualTo(OrderHoldStatus.RELEASED);
+            verify(orderHoldRepository).save(hold);
+            verify(basketService).incrementQuantity(basket, 2);
+            verify(orderRepository, never()).saveAll(any());
+        }
+    }
+
+    private ShopSnapshot shopSnapshot() {
+        return new ShopSnapshot(shop.getId(), merchant.getId(), shop.getName(), shop.getStatus());
+    }
+}
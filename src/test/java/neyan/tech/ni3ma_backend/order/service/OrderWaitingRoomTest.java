@@ -0,0 +1,116 @@
+package neyan.tech.ni3ma_backend.order.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import neyan.tech.ni3ma_backend.basket.dto.BasketStock;
+import neyan.tech.ni3ma_backend.basket.entity.BasketStatus;
+import neyan.tech.ni3ma_backend.basket.event.BasketChangedEvent;
+import neyan.tech.ni3ma_backend.basket.repository.BasketRepository;
+import neyan.tech.ni3ma_backend.common.config.Ni3maProperties;
+import neyan.tech.ni3ma_backend.common.exception.BadRequestException;
+import neyan.tech.ni3ma_backend.common.exception.QueuedException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OrderWaitingRoom Unit Tests")
+class OrderWaitingRoomTest {
+
+    @Mock
+    private BasketRepository basketRepository;
+
+    private OrderWaitingRoom waitingRoom;
+    private SimpleMeterRegistry meterRegistry;
+
+    private final UUID basketId = UUID.randomUUID();
+    private final UUID alice = UUID.randomUUID();
+    private final UUID bob = UUID.randomUUID();
+    private final UUID carol = UUID.randomUUID();
+    private final Instant later = Instant.now().plusSeconds(3600);
+
+    @BeforeEach
+    void setUp() {
+        Ni3maProperties properties = new Ni3maProperties();
+        properties.getOrder().getWaitingRoom().setSlack(0);
+        meterRegistry = new SimpleMeterRegistry();
+        waitingRoom = new OrderWaitingRoom(basketRepository, properties, meterRegistry);
+        when(basketRepository.findStockById(basketId)).thenReturn(Optional.of(new BasketStock(
+                basketId, UUID.randomUUID(), "Pains", null, BasketStatus.PUBLISHED, 1, Instant.now(), later)));
+    }
+
+    @Test
+    @DisplayName("Should park customers beyond the quantity left and let the first in line take a freed place")
+    void shouldQueueBeyondQuantityLeft() {
+        assertThatThrownBy(() -> waitingRoom.admit(basketId, 1, alice, () -> {
+            assertThatThrownBy(() -> waitingRoom.admit(basketId, 1, bob, () -> "bob"))
+                    .isInstanceOfSatisfying(QueuedException.class, ex -> assertThat(ex.getPosition()).isOne());
+            assertThatThrownBy(() -> waitingRoom.admit(basketId, 1, carol, () -> "carol"))
+                    .isInstanceOf(BadRequestException.class)
+                    .hasMessageContaining("Too many customers");
+            // Alice's order fails, freeing the unit
+            throw new BadRequestException("Not enough quantity available");
+        })).isInstanceOf(BadRequestException.class);
+
+        assertThat(waitingRoom.admit(basketId, 1, bob, () -> "bob")).isEqualTo("bob");
+        assertThat(count("admitted")).isEqualTo(2);
+        assertThat(count("queued")).isEqualTo(1);
+        assertThat(count("rejected")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should turn customers away once sold out without reading the basket again")
+    void shouldRejectWhenSoldOut() {
+        String order = waitingRoom.admit(basketId, 1, alice, () -> {
+            waitingRoom.onBasketChanged(new BasketChangedEvent(basketId, UUID.randomUUID(), "Pains", null,
+                    BasketStatus.PUBLISHED, BasketStatus.SOLD_OUT, 0, Instant.now(), later));
+            return "alice";
+        });
+
+        assertThat(order).isEqualTo("alice");
+        assertThatThrownBy(() -> waitingRoom.admit(basketId, 1, bob, () -> "bob"))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("sold out");
+        verify(basketRepository, times(1)).findStockById(basketId);
+    }
+
+    @Test
+    @DisplayName("Should turn away a customer asking for more than the basket has left instead of queueing them")
+    void shouldRejectQuantityBeyondWhatIsLeft() {
+        assertThatThrownBy(() -> waitingRoom.admit(basketId, 2, alice, () -> "alice"))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("Not enough quantity available");
+
+        // Also once they were in line: their ticket is given up
+        assertThatThrownBy(() -> waitingRoom.admit(basketId, 1, bob, () -> {
+            assertThatThrownBy(() -> waitingRoom.admit(basketId, 1, carol, () -> "carol"))
+                    .isInstanceOf(QueuedException.class);
+            waitingRoom.onBasketChanged(new BasketChangedEvent(basketId, UUID.randomUUID(), "Pains", null,
+                    BasketStatus.PUBLISHED, BasketStatus.PUBLISHED, 1, Instant.now(), later));
+            assertThatThrownBy(() -> waitingRoom.admit(basketId, 2, carol, () -> "carol"))
+                    .isInstanceOf(BadRequestException.class)
+                    .hasMessageContaining("Not enough quantity available");
+            throw new BadRequestException("Payment failed");
+        })).hasMessage("Payment failed");
+
+        assertThat(waitingRoom.admit(basketId, 1, alice, () -> "alice")).isEqualTo("alice");
+        assertThat(count("rejected")).isEqualTo(2);
+        assertThat(count("queued")).isEqualTo(1);
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("ni3ma.orders.admission").tag("result", result).counter().count();
+    }
+}
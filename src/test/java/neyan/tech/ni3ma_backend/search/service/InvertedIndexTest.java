@@ -0,0 +1,60 @@
+package neyan.tech.ni3ma_backend.search.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("InvertedIndex Unit Tests")
+class InvertedIndexTest {
+
+    private final UUID bakery = UUID.randomUUID();
+    private final UUID pastry = UUID.randomUUID();
+    private final UUID butcher = UUID.randomUUID();
+
+    @Test
+    @DisplayName("Should require every word and rank exact above prefix matches")
+    void shouldMatchAllWordsAndRank() {
+        InvertedIndex index = index();
+
+        assertThat(search(index, List.of(Set.of("pain"), Set.of("nouakchott")), false)).containsOnlyKeys(bakery);
+        Map<UUID, Double> scores = search(index, List.of(Set.of("pat")), true);
+        assertThat(scores).containsOnlyKeys(pastry, bakery);
+        // Same prefix on both, but the pastry shop has it in its name
+        assertThat(scores.get(pastry)).isGreaterThan(scores.get(bakery));
+        assertThat(search(index, List.of(Set.of("pat")), false)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should forget every term of a removed or replaced document")
+    void shouldRemoveDocuments() {
+        InvertedIndex index = index();
+
+        index.put(bakery, Map.of("boulangerie", 3f));
+        assertThat(search(index, List.of(Set.of("pain")), false)).isEmpty();
+        assertThat(index.remove(butcher)).isTrue();
+        assertThat(index.contains(butcher)).isFalse();
+        assertThat(search(index, List.of(Set.of("viande")), true)).isEmpty();
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    private InvertedIndex index() {
+        InvertedIndex index = new InvertedIndex();
+        index.put(bakery, Map.of("pain", 3f, "nouakchott", 2f, "patisserie", 1f));
+        index.put(pastry, Map.of("patisserie", 3f, "nouadhibou", 2f));
+        index.put(butcher, Map.of("viande", 3f, "nouakchott", 2f));
+        return index;
+    }
+
+    private static Map<UUID, Double> search(InvertedIndex index, List<Set<String>> groups, boolean prefix) {
+        Map<UUID, Double> scores = new HashMap<>();
+        index.search(groups, prefix, scores::put);
+        return scores;
+    }
+}
@@ -0,0 +1,26 @@
+package neyan.tech.ni3ma_backend.search.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("SearchTokenizer Unit Tests")
+class SearchTokenizerTest {
+
+    @Test
+    @DisplayName("Should fold accents, drop stop words and strip plurals")
+    void shouldNormalizeFrench() {
+        assertThat(SearchTokenizer.tokenize("Pâtisserie de l'Œuvre : GÂTEAUX & pains"))
+                .containsExactly("patisserie", "oeuvre", "gateau", "pain");
+    }
+
+    @Test
+    @DisplayName("Should unify Arabic letter variants and transliteration spellings")
+    void shouldNormalizeArabicAndTransliterations() {
+        // Diacritics, hamza on alef, ta marbuta and the article
+        assertThat(SearchTokenizer.tokenize("المَخْبَزَة أحمد")).containsExactly("مخبزه", "احمد");
+        assertThat(SearchTokenizer.fold("chinguetti")).isEqualTo(SearchTokenizer.fold("shinguetti"));
+        assertThat(SearchTokenizer.fold("nouakchott")).isEqualTo(SearchTokenizer.fold("nuakshot"));
+    }
+}
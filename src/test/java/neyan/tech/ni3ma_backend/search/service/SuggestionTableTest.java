@@ -0,0 +1,48 @@
+package neyan.tech.ni3ma_backend.search.service;
+
+import neyan.tech.ni3ma_backend.search.service.SuggestIndex.Suggestion;
+import neyan.tech.ni3ma_backend.search.service.SuggestIndex.SuggestionType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("SuggestionTable Unit Tests")
+class SuggestionTableTest {
+
+    @Test
+    @DisplayName("Should match a prefix of any word and rank by popularity")
+    void shouldMatchWordPrefixesByPopularity() {
+        SuggestionTable table = new SuggestionTable(List.of(
+                entry(SuggestionType.SHOP, "Pâtisserie Nouakchott", 2),
+                entry(SuggestionType.SHOP, "Boulangerie du Port", 7),
+                entry(SuggestionType.CITY, "Nouakchott", 12),
+                entry(SuggestionType.CITY, "Nouadhibou", 3)));
+
+        assertThat(texts(table.lookup("nouak", 10))).containsExactly("Nouakchott", "Pâtisserie Nouakchott");
+        assertThat(texts(table.lookup("nou", 2))).containsExactly("Nouakchott", "Nouadhibou");
+        assertThat(texts(table.lookup("du p", 10))).containsExactly("Boulangerie du Port");
+        assertThat(table.lookup("pain", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should return a suggestion once even when several of its words match")
+    void shouldDeduplicateSuggestions() {
+        SuggestionTable table = new SuggestionTable(List.of(entry(SuggestionType.SHOP, "Pain pain pain", 1)));
+
+        assertThat(texts(table.lookup("pa", 10))).containsExactly("Pain pain pain");
+        assertThat(SuggestionTable.EMPTY.lookup("pa", 10)).isEmpty();
+    }
+
+    private static SuggestionTable.Entry entry(SuggestionType type, String text, long weight) {
+        UUID shopId = type == SuggestionType.SHOP ? UUID.randomUUID() : null;
+        return new SuggestionTable.Entry(new Suggestion(type, text, shopId, null), weight, SearchTokenizer.words(text));
+    }
+
+    private static List<String> texts(List<Suggestion> suggestions) {
+        return suggestions.stream().map(Suggestion::text).toList();
+    }
+}
@@ -0,0 +1,111 @@
+package neyan.tech.ni3ma_backend.shop.repository;
+
+import neyan.tech.ni3ma_backend.favorite.entity.Favorite;
+import neyan.tech.ni3ma_backend.favorite.entity.FavoriteId;
+import neyan.tech.ni3ma_backend.favorite.repository.FavoriteRepository;
+import neyan.tech.ni3ma_backend.shop.entity.Shop;
+import neyan.tech.ni3ma_backend.shop.entity.ShopStatus;
+import neyan.tech.ni3ma_backend.user.entity.User;
+import neyan.tech.ni3ma_backend.user.entity.UserRole;
+import neyan.tech.ni3ma_backend.user.repository.UserRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@DisplayName("Shop Aggregates Tests")
+class ShopAggregatesTest {
+
+    private static final AtomicInteger PHONES = new AtomicInteger();
+
+    @Autowired
+    private ShopRepository shopRepository;
+
+    @Autowired
+    private FavoriteRepository favoriteRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    @DisplayName("Should apply adjustments to a shop loaded in the same transaction and read them back")
+    void shouldApplyAdjustments() {
+        // Still pending: the adjustments must flush its insert first
+        Shop shop = createShop(createUser(UserRole.MERCHANT));
+        UUID shopId = shop.getId();
+
+        assertThat(shopRepository.adjustReviewAggregates(shopId, 4, 1)).isOne();
+        assertThat(shopRepository.adjustReviewAggregates(shopId, 5, 1)).isOne();
+        assertThat(shopRepository.adjustReviewAggregates(shopId, -1, 0)).isOne();
+        assertThat(shopRepository.adjustFavoriteCount(shopId, 1)).isOne();
+
+        Shop reloaded = shopRepository.findById(shopId).orElseThrow();
+        assertThat(reloaded).isNotSameAs(shop);
+        assertThat(reloaded.getRatingSum()).isEqualTo(8);
+        assertThat(reloaded.getReviewCount()).isEqualTo(2);
+        assertThat(reloaded.getAverageRating()).isEqualTo(4.0);
+        assertThat(reloaded.getFavoriteCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should repair only the shops whose aggregates drifted from their rows")
+    void shouldReconcileDriftedShops() {
+        User merchant = createUser(UserRole.MERCHANT);
+        User customer = createUser(UserRole.CUSTOMER);
+        UUID overcounted = createShop(merchant).getId();
+        Shop undercounted = createShop(merchant);
+        Shop consistent = createShop(merchant);
+        shopRepository.adjustReviewAggregates(overcounted, 5, 1);
+        shopRepository.adjustFavoriteCount(overcounted, 3);
+        addFavorite(customer, undercounted, false);
+        addFavorite(customer, consistent, true);
+
+        assertThat(shopRepository.reconcileAggregates()).isEqualTo(2);
+
+        Shop repaired = shopRepository.findById(overcounted).orElseThrow();
+        assertThat(repaired.getRatingSum()).isZero();
+        assertThat(repaired.getReviewCount()).isZero();
+        assertThat(repaired.getFavoriteCount()).isZero();
+        assertThat(shopRepository.findById(undercounted.getId()).orElseThrow().getFavoriteCount()).isOne();
+        assertThat(shopRepository.findById(consistent.getId()).orElseThrow().getFavoriteCount()).isOne();
+        assertThat(shopRepository.reconcileAggregates()).isZero();
+    }
+
+    private void addFavorite(User user, Shop shop, boolean counted) {
+        // Loaded again: earlier adjustments cleared the persistence context
+        favoriteRepository.save(Favorite.builder()
+                .id(new FavoriteId(user.getId(), shop.getId()))
+                .user(userRepository.findById(user.getId()).orElseThrow())
+                .shop(shopRepository.findById(shop.getId()).orElseThrow())
+                .build());
+        if (counted) {
+            shopRepository.adjustFavoriteCount(shop.getId(), 1);
+        }
+    }
+
+    private User createUser(UserRole role) {
+        return userRepository.save(User.builder()
+                .fullName("Client")
+                .phone(String.format("+2229%07d", PHONES.incrementAndGet()))
+                .passwordHash("hash")
+                .role(role)
+                .build());
+    }
+
+    private Shop createShop(User merchant) {
+        return shopRepository.save(Shop.builder()
+                .name("Boulangerie")
+                .status(ShopStatus.ACTIVE)
+                .createdBy(merchant)
+                .build());
+    }
+}
@@ -0,0 +1,113 @@
+package neyan.tech.ni3ma_backend.shop.service;
+
+import neyan.tech.ni3ma_backend.basket.dto.AvailableBasketRef;
+import neyan.tech.ni3ma_backend.basket.entity.BasketStatus;
+import neyan.tech.ni3ma_backend.basket.event.BasketChangedEvent;
+import neyan.tech.ni3ma_backend.basket.repository.BasketRepository;
+import neyan.tech.ni3ma_backend.common.config.Ni3maProperties;
+import neyan.tech.ni3ma_backend.order.dto.PickedUpOrder;
+import neyan.tech.ni3ma_backend.order.event.OrderPickedUpEvent;
+import neyan.tech.ni3ma_backend.order.repository.OrderRepository;
+import neyan.tech.ni3ma_backend.shop.dto.ShopCity;
+import neyan.tech.ni3ma_backend.shop.entity.ShopStatus;
+import neyan.tech.ni3ma_backend.shop.event.ShopChangedEvent;
+import neyan.tech.ni3ma_backend.shop.repository.ShopRepository;
+import neyan.tech.ni3ma_backend.shop.service.CityStatsIndex.CityStats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CityStatsIndex Unit Tests")
+class CityStatsIndexTest {
+
+    @Mock
+    private ShopRepository shopRepository;
+
+    @Mock
+    private BasketRepository basketRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    private CityStatsIndex index;
+
+    private final UUID bakery = UUID.randomUUID();
+    private final UUID pastry = UUID.randomUUID();
+    private final UUID suspended = UUID.randomUUID();
+    private final Instant later = Instant.now().plusSeconds(3600);
+
+    @BeforeEach
+    void setUp() {
+        index = new CityStatsIndex(shopRepository, basketRepository, orderRepository, new Ni3maProperties());
+        when(shopRepository.findShopCities()).thenReturn(List.of(
+                new ShopCity(bakery, "Nouakchott", ShopStatus.ACTIVE),
+                new ShopCity(pastry, "nouakchott ", ShopStatus.ACTIVE),
+                new ShopCity(suspended, "Nouakchott", ShopStatus.SUSPENDED)));
+        when(basketRepository.findAllAvailableBasketRefs(any())).thenReturn(List.of(
+                basket(UUID.randomUUID(), bakery, later),
+                basket(UUID.randomUUID(), suspended, later),
+                basket(UUID.randomUUID(), pastry, Instant.now().minusSeconds(60))));
+        when(orderRepository.findPickedUpOrdersSince(any())).thenReturn(List.of(
+                new PickedUpOrder(UUID.randomUUID(), suspended, 3),
+                new PickedUpOrder(UUID.randomUUID(), suspended, 1)));
+        index.reload();
+    }
+
+    @Test
+    @DisplayName("Should group shops by city regardless of case and count only orderable baskets")
+    void shouldAggregatePerCity() {
+        assertThat(index.getCities()).containsExactly(new CityStats("Nouakchott", 2, 1, 4));
+        assertThat(index.getCity("NOUAKCHOTT")).contains(new CityStats("Nouakchott", 2, 1, 4));
+        assertThat(index.getCity("Atar")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should follow shop, basket and pickup changes without reloading")
+    void shouldApplyChanges() {
+        UUID newBasket = UUID.randomUUID();
+        index.onBasketChanged(new BasketChangedEvent(newBasket, pastry, "Pains", null,
+                BasketStatus.DRAFT, BasketStatus.PUBLISHED, 3, Instant.now(), later));
+        index.onOrderPickedUp(new OrderPickedUpEvent(UUID.randomUUID(), pastry, 2));
+        assertThat(index.getCity("Nouakchott")).contains(new CityStats("Nouakchott", 2, 2, 6));
+
+        index.onBasketChanged(new BasketChangedEvent(newBasket, pastry, "Pains", null,
+                BasketStatus.PUBLISHED, BasketStatus.PUBLISHED, 0, Instant.now(), later));
+        assertThat(index.getCity("Nouakchott")).contains(new CityStats("Nouakchott", 2, 1, 6));
+
+        index.onShopChanged(new ShopChangedEvent(pastry, "Pâtisserie", null, "Nouakchott", null, null,
+                ShopStatus.SUSPENDED));
+        assertThat(index.getCity("Nouakchott")).contains(new CityStats("Nouakchott", 1, 1, 6));
+    }
+
+    @Test
+    @DisplayName("Should count once the pickups committed during a reload")
+    void shouldReplayPickupsDuringReload() {
+        UUID counted = UUID.randomUUID();
+        when(orderRepository.findPickedUpOrdersSince(any())).thenAnswer(inv -> {
+            // One committed before the query read it, one after
+            index.onOrderPickedUp(new OrderPickedUpEvent(counted, bakery, 2));
+            index.onOrderPickedUp(new OrderPickedUpEvent(UUID.randomUUID(), pastry, 5));
+            return List.of(new PickedUpOrder(counted, bakery, 2));
+        });
+
+        index.reload();
+
+        assertThat(index.getCity("Nouakchott")).contains(new CityStats("Nouakchott", 2, 1, 7));
+    }
+
+    private static AvailableBasketRef basket(UUID id, UUID shopId, Instant pickupEnd) {
+        return new AvailableBasketRef(id, shopId, Instant.now(), pickupEnd, null, null, "MRU");
+    }
+}
@@ -0,0 +1,92 @@
+package neyan.tech.ni3ma_backend.shop.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import neyan.tech.ni3ma_backend.common.config.Ni3maProperties;
+import neyan.tech.ni3ma_backend.shop.dto.ShopSnapshot;
+import neyan.tech.ni3ma_backend.shop.entity.ShopStatus;
+import neyan.tech.ni3ma_backend.shop.event.ShopChangedEvent;
+import neyan.tech.ni3ma_backend.shop.repository.ShopRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ShopCache Unit Tests")
+class ShopCacheTest {
+
+    @Mock
+    private ShopRepository shopRepository;
+
+    private final UUID shopId = UUID.randomUUID();
+    private final ShopSnapshot active = new ShopSnapshot(shopId, UUID.randomUUID(), "Boulangerie", ShopStatus.ACTIVE);
+    private final ShopSnapshot suspended = new ShopSnapshot(shopId, active.ownerId(), "Boulangerie", ShopStatus.SUSPENDED);
+
+    @Test
+    @DisplayName("Should serve the snapshot from the cache until the shop changes")
+    void shouldInvalidateOnShopChanged() {
+        ShopCache cache = cache(true);
+        when(shopRepository.findSnapshotById(shopId)).thenReturn(Optional.of(active), Optional.of(suspended));
+
+        assertThat(cache.get(shopId)).contains(active);
+        assertThat(cache.get(shopId)).contains(active);
+        verify(shopRepository).findSnapshotById(shopId);
+
+        cache.onShopChanged(changed(ShopStatus.SUSPENDED));
+
+        assertThat(cache.get(shopId)).contains(suspended);
+        assertThat(cache.get(shopId)).contains(suspended);
+        verify(shopRepository, times(2)).findSnapshotById(shopId);
+    }
+
+    @Test
+    @DisplayName("Should not store a snapshot read before a concurrent change")
+    void shouldRejectLoadRacingInvalidation() {
+        ShopCache cache = cache(true);
+        when(shopRepository.findSnapshotById(shopId))
+                .thenAnswer(inv -> {
+                    // The shop is suspended and committed while the old row is being read
+                    cache.onShopChanged(changed(ShopStatus.SUSPENDED));
+                    return Optional.of(active);
+                })
+                .thenReturn(Optional.of(suspended));
+
+        assertThat(cache.get(shopId)).contains(active);
+
+        assertThat(cache.get(shopId)).contains(suspended);
+        assertThat(cache.get(shopId)).contains(suspended);
+        verify(shopRepository, times(2)).findSnapshotById(shopId);
+    }
+
+    @Test
+    @DisplayName("Should read the database on every call when disabled")
+    void shouldBypassWhenDisabled() {
+        ShopCache cache = cache(false);
+        when(shopRepository.findSnapshotById(shopId)).thenReturn(Optional.of(active));
+
+        assertThat(cache.get(shopId)).contains(active);
+        assertThat(cache.get(shopId)).contains(active);
+        assertThat(cache.get(UUID.randomUUID())).isEmpty();
+
+        verify(shopRepository, times(2)).findSnapshotById(shopId);
+    }
+
+    private ShopCache cache(boolean enabled) {
+        Ni3maProperties properties = new Ni3maProperties();
+        properties.getShop().getCache().setEnabled(enabled);
+        return new ShopCache(shopRepository, properties, new SimpleMeterRegistry());
+    }
+
+    private ShopChangedEvent changed(ShopStatus status) {
+        return new ShopChangedEvent(shopId, "Boulangerie", null, "Nouakchott", null, null, status);
+    }
+}